@@ -0,0 +1,63 @@
+package rogue;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks rendering a room at several sizes and item densities.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DisplayRoomBenchmark {
+
+    @Param({"10", "50", "200"})
+    private int size;
+
+    @Param({"0", "0.1", "0.5"})
+    private double density;
+
+    private Room room;
+    private char[] tiles;
+
+    /**
+     * Builds a two room dungeon and picks the start room to render.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Rogue game = new Rogue(new RogueParser(DungeonFiles.write(2, size, size, density)));
+        room = game.getCurrentRoom();
+        tiles = room.renderTiles(null);
+    }
+
+    /**
+     * Renders the room to a string.
+     *
+     * @return the rendered room
+     */
+    @Benchmark
+    public String displayRoom() {
+        return room.displayRoom();
+    }
+
+    /**
+     * Renders the room into a reused tile array, as the terminal renderer does.
+     *
+     * @return the rendered tiles
+     */
+    @Benchmark
+    public char[] renderTiles() {
+        return room.renderTiles(tiles);
+    }
+}
@@ -0,0 +1,79 @@
+package rogue;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks path queries between the two ends of a chain of rooms.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DoorGraphBenchmark {
+
+    private static final int ROOM_SIZE = 10;
+
+    @Param({"10", "1000"})
+    private int rooms;
+
+    private DoorGraph graph;
+    private DoorGraph precomputed;
+    private int firstId;
+    private int lastId;
+    private int start = Position.pack(1, 1);
+    private int goal = Position.pack(ROOM_SIZE - 2, ROOM_SIZE - 2);
+
+    /**
+     * Builds a chain of rooms and a graph over it, with and without precomputed distances.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Rogue game = new Rogue(new RogueParser(DungeonFiles.write(rooms, ROOM_SIZE, ROOM_SIZE, 0)));
+        graph = new DoorGraph(game);
+        precomputed = new DoorGraph(game);
+        precomputed.precomputeDoorDistances();
+        firstId = game.getRooms().get(0).getId();
+        lastId = game.getRooms().get(game.getRooms().size() - 1).getId();
+    }
+
+    /**
+     * Finds the rooms between the two ends of the chain.
+     *
+     * @return the room path
+     */
+    @Benchmark
+    public int[] roomPath() {
+        return graph.findRoomPath(firstId, lastId);
+    }
+
+    /**
+     * Walks between the two ends of the chain, measuring door distances as it goes.
+     *
+     * @return the number of moves
+     */
+    @Benchmark
+    public long walkingDistance() {
+        return graph.walkingDistance(firstId, start, lastId, goal);
+    }
+
+    /**
+     * Walks between the two ends of the chain using the precomputed door distances.
+     *
+     * @return the number of moves
+     */
+    @Benchmark
+    public long precomputedWalkingDistance() {
+        return precomputed.walkingDistance(firstId, start, lastId, goal);
+    }
+}
@@ -0,0 +1,112 @@
+package rogue;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Writes dungeon files for the benchmarks to a temporary directory.
+ * Rooms are laid out in a row, each joined to the next by an east/west door.
+ */
+public final class DungeonFiles {
+
+    private static final String[] ITEM_TYPES = {"Food", "Potion", "Ring", "Clothing", "SmallFood", "Scroll"};
+    private static final String[][] SYMBOLS = {
+        {"PASSAGE", "#"}, {"DOOR", "+"}, {"FLOOR", "."}, {"PLAYER", "@"}, {"GOLD", "*"},
+        {"NS_WALL", "-"}, {"EW_WALL", "|"}, {"POTION", "!"}, {"SCROLL", "?"}, {"CLOTHING", "]"},
+        {"FOOD", ":"}, {"RING", "^"}, {"SMALLFOOD", ";"},
+        {"MONSTER", "M"},
+    };
+    private static final long SEED = 42;
+
+    private DungeonFiles() {
+
+    }
+
+    /**
+     * Writes a dungeon and returns the file locations file that points at it.
+     *
+     * @param roomCount   as the number of rooms, at least 2
+     * @param width       as the width of every room
+     * @param height      as the height of every room
+     * @param itemDensity as the chance of each floor tile holding an item
+     * @return the path of the file locations file
+     * @throws IOException if the files cannot be written
+     */
+    public static String write(int roomCount, int width, int height, double itemDensity) throws IOException {
+        File dir = Files.createTempDirectory("rogue-bench").toFile();
+        dir.deleteOnExit();
+        File rooms = new File(dir, "rooms.json");
+        File symbols = new File(dir, "symbols.json");
+        File locations = new File(dir, "locations.json");
+        writeRooms(rooms, roomCount, width, height, itemDensity);
+        writeSymbols(symbols);
+        try (Writer out = new FileWriter(locations)) {
+            out.write("{\"Rooms\":\"" + rooms.getPath().replace("\\", "/") + "\",\"Symbols\":\""
+                    + symbols.getPath().replace("\\", "/") + "\"}");
+        }
+        rooms.deleteOnExit();
+        symbols.deleteOnExit();
+        locations.deleteOnExit();
+        return locations.getPath();
+    }
+
+    private static void writeRooms(File file, int roomCount, int width, int height, double itemDensity)
+            throws IOException {
+        Random random = new Random(SEED);
+        int itemCount = 0;
+        try (Writer out = new BufferedWriter(new FileWriter(file))) {
+            out.write("{\"room\":[");
+            for (int id = 1; id <= roomCount; id++) {
+                out.write(id == 1 ? "\n" : ",\n");
+                out.write("{\"id\":" + id + ",\"start\":" + (id == 1) + ",\"height\":" + height
+                        + ",\"width\":" + width + ",\"doors\":[");
+                String separator = "";
+                if (id > 1) {
+                    out.write("{\"dir\":\"W\",\"con_room\":" + (id - 1) + ",\"wall_pos\":" + height / 2 + "}");
+                    separator = ",";
+                }
+                if (id < roomCount) {
+                    out.write(separator + "{\"dir\":\"E\",\"con_room\":" + (id + 1) + ",\"wall_pos\":"
+                            + height / 2 + "}");
+                }
+                out.write("],\"loot\":[");
+                separator = "";
+                for (int y = 1; y < height - 1; y++) {
+                    for (int x = 1; x < width - 1; x++) {
+                        boolean playerTile = id == 1 && x == 1 && y == 1;
+                        if (!playerTile && random.nextDouble() < itemDensity) {
+                            itemCount++;
+                            out.write(separator + "{\"id\":" + itemCount + ",\"x\":" + x + ",\"y\":" + y + "}");
+                            separator = ",";
+                        }
+                    }
+                }
+                out.write("]}");
+            }
+            out.write("],\n\"items\":[");
+            for (int id = 1; id <= itemCount; id++) {
+                out.write(id == 1 ? "\n" : ",\n");
+                out.write("{\"id\":" + id + ",\"name\":\"Item " + id + "\",\"type\":\""
+                        + ITEM_TYPES[id % ITEM_TYPES.length] + "\",\"description\":\"Item number " + id
+                        + ": it lands with a thud\"}");
+            }
+            out.write("]}\n");
+        }
+    }
+
+    private static void writeSymbols(File file) throws IOException {
+        try (Writer out = new FileWriter(file)) {
+            out.write("{\"symbols\":[");
+            for (int i = 0; i < SYMBOLS.length; i++) {
+                out.write((i == 0 ? "" : ",") + "{\"name\":\"" + SYMBOLS[i][0] + "\",\"symbol\":\""
+                        + SYMBOLS[i][1] + "\"}");
+            }
+            out.write("]}\n");
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package rogue;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks searching a room for an empty tile, as tossing an item does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EmptyTileBenchmark {
+
+    private static final int ROOM_SIZE = 200;
+
+    @Param({"0", "0.5", "0.99"})
+    private double density;
+
+    private Room room;
+
+    /**
+     * Builds a two room dungeon with the start room filled to the given density.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        Rogue game = new Rogue(new RogueParser(DungeonFiles.write(2, ROOM_SIZE, ROOM_SIZE, density)));
+        room = game.getCurrentRoom();
+    }
+
+    /**
+     * Finds the first empty tile.
+     *
+     * @return the empty tile
+     */
+    @Benchmark
+    public int lookForEmptyTile() {
+        return Rogue.lookForEmptyTile(room);
+    }
+}
@@ -0,0 +1,74 @@
+package rogue;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks advancing every monster in a dungeon by one tick, and a move that ticks them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MonsterBenchmark {
+
+    private static final int ROOM_SIZE = 20;
+    private static final int MONSTERS_PER_ROOM = 100;
+
+    @Param({"1000", "2000"})
+    private int rooms;
+
+    private Rogue game;
+    private boolean forward;
+
+    /**
+     * Builds the dungeon and fills every room with wandering and chasing monsters.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        game = new Rogue(new RogueParser(DungeonFiles.write(rooms, ROOM_SIZE, ROOM_SIZE, 0)));
+        Monsters monsters = game.getMonsters();
+        for (Room room : game.getRooms()) {
+            int placed = 0;
+            for (int tile = 0; placed < MONSTERS_PER_ROOM; tile++) {
+                int pos = Position.pack(2 + tile % (ROOM_SIZE - 4), 2 + tile / (ROOM_SIZE - 4));
+                Behavior behavior = tile % 2 == 0 ? Behavior.WANDER : Behavior.CHASE;
+                if (monsters.add(room, pos, 1, behavior) != Monsters.NONE) {
+                    placed++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances every monster by one tick.
+     *
+     * @return the tick count
+     */
+    @Benchmark
+    public int tick() {
+        game.getMonsters().tick(game.getPlayer());
+        return game.getMonsters().getTick();
+    }
+
+    /**
+     * Moves back and forth along the top row of the start room, ticking the monsters each time.
+     *
+     * @return the outcome of the move
+     */
+    @Benchmark
+    public CommandOutcome move() {
+        forward = !forward;
+        return game.applyMove(forward ? Rogue.RIGHT : Rogue.LEFT);
+    }
+}
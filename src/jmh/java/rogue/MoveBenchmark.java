@@ -0,0 +1,131 @@
+package rogue;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks Rogue.makeMove for plain floor moves, item pickups and door transitions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoveBenchmark {
+
+    private static final int ROOM_SIZE = 20;
+
+    /**
+     * A two room dungeon with no loot.
+     */
+    @State(Scope.Thread)
+    public static class EmptyDungeon {
+        private Rogue game;
+        private boolean forward;
+
+        /**
+         * Builds the dungeon.
+         *
+         * @throws IOException if the dungeon files cannot be written
+         */
+        @Setup
+        public void setUp() throws IOException {
+            game = new Rogue(new RogueParser(DungeonFiles.write(2, ROOM_SIZE, ROOM_SIZE, 0)));
+        }
+    }
+
+    /**
+     * Moves back and forth across the floor.
+     *
+     * @param dungeon as the dungeon to move in
+     * @return the move message
+     * @throws InvalidMoveException if the move hits a wall
+     */
+    @Benchmark
+    public String floor(EmptyDungeon dungeon) throws InvalidMoveException {
+        dungeon.forward = !dungeon.forward;
+        return dungeon.game.makeMove(dungeon.forward ? Rogue.RIGHT : Rogue.LEFT);
+    }
+
+    /**
+     * Puts an item next to the player and picks it up.
+     * The cost of putting the item back in the room is included.
+     *
+     * @param dungeon as the dungeon to move in
+     * @return the move message
+     * @throws Exception if the item cannot be placed or the move hits a wall
+     */
+    @Benchmark
+    public String itemPickup(LootDungeon dungeon) throws Exception {
+        Rogue game = dungeon.game;
+        game.getPlayer().setXyLocation(Position.pack(1, 1));
+        game.getPlayer().getInventory().removeItem(dungeon.item);
+        dungeon.item.setXyLocation(Position.pack(2, 1));
+        game.getCurrentRoom().addItem(dungeon.item);
+        return game.makeMove(Rogue.RIGHT);
+    }
+
+    /**
+     * Walks through the door between the two rooms, alternating direction.
+     *
+     * @param dungeon as the dungeon to move in
+     * @return the move message
+     * @throws InvalidMoveException if the move hits a wall
+     */
+    @Benchmark
+    public String doorTransition(DoorDungeon dungeon) throws InvalidMoveException {
+        dungeon.forward = !dungeon.forward;
+        return dungeon.game.makeMove(dungeon.forward ? Rogue.RIGHT : Rogue.LEFT);
+    }
+
+    /**
+     * A two room dungeon with one item taken out of its room to be picked up over and over.
+     */
+    @State(Scope.Thread)
+    public static class LootDungeon {
+        private static final double DENSITY = 0.05;
+        private Rogue game;
+        private Item item;
+
+        /**
+         * Builds the dungeon and clears the tile next to the player.
+         *
+         * @throws IOException if the dungeon files cannot be written
+         */
+        @Setup
+        public void setUp() throws IOException {
+            game = new Rogue(new RogueParser(DungeonFiles.write(2, ROOM_SIZE, ROOM_SIZE, DENSITY)));
+            item = game.getItems().get(0);
+            item.getCurrentRoom().removeItem(item);
+            Item blocking = game.getCurrentRoom().getItem(Position.pack(2, 1));
+            if (blocking != null) {
+                game.getCurrentRoom().removeItem(blocking);
+            }
+        }
+    }
+
+    /**
+     * A two room dungeon with the player standing next to the door between them.
+     */
+    @State(Scope.Thread)
+    public static class DoorDungeon {
+        private Rogue game;
+        private boolean forward;
+
+        /**
+         * Builds the dungeon and moves the player next to the east door.
+         *
+         * @throws IOException if the dungeon files cannot be written
+         */
+        @Setup
+        public void setUp() throws IOException {
+            game = new Rogue(new RogueParser(DungeonFiles.write(2, ROOM_SIZE, ROOM_SIZE, 0)));
+            game.getPlayer().setXyLocation(Position.pack(ROOM_SIZE - 2, ROOM_SIZE / 2));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package rogue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks parsing dungeon files and building a game from them.
+ * The small dungeon is the one shipped with the game, the large one is a chain of equal rooms
+ * and the generated one comes from DungeonGenerator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParserBenchmark {
+
+    private static final String SMALL_DUNGEON = "fileLocations.json";
+    private static final int LARGE_ROOMS = 1000;
+    private static final int LARGE_ROOM_SIZE = 20;
+    private static final double LARGE_DENSITY = 0.02;
+    private static final long SEED = 42;
+
+    @Param({"small", "large", "generated"})
+    private String dungeon;
+
+    private String locations;
+
+    /**
+     * Picks or writes the dungeon files.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        if (dungeon.equals("small")) {
+            locations = SMALL_DUNGEON;
+        } else if (dungeon.equals("large")) {
+            locations = DungeonFiles.write(LARGE_ROOMS, LARGE_ROOM_SIZE, LARGE_ROOM_SIZE, LARGE_DENSITY);
+        } else {
+            File dir = Files.createTempDirectory("rogue-generated").toFile();
+            locations = new DungeonGenerator(SEED).generate(LARGE_ROOMS, dir);
+        }
+    }
+
+    /**
+     * Parses the dungeon files.
+     *
+     * @return the parser
+     */
+    @Benchmark
+    public RogueParser parse() {
+        return new RogueParser(locations);
+    }
+
+    /**
+     * Parses the dungeon files and builds every room.
+     *
+     * @return the game
+     */
+    @Benchmark
+    public Rogue parseAndBuild() {
+        return new Rogue(new RogueParser(locations));
+    }
+}
@@ -0,0 +1,64 @@
+package rogue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks encoding and decoding a game with the save codec, in memory so disk speed is left out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SaveLoadBenchmark {
+
+    private static final int ROOM_SIZE = 20;
+    private static final double DENSITY = 0.02;
+
+    @Param({"10", "1000"})
+    private int rooms;
+
+    private Rogue game;
+    private ByteBuffer saved;
+
+    /**
+     * Builds the game and a save of it to load from.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Setup
+    public void setUp() throws IOException {
+        game = new Rogue(new RogueParser(DungeonFiles.write(rooms, ROOM_SIZE, ROOM_SIZE, DENSITY)));
+        saved = save();
+    }
+
+    /**
+     * Saves the game.
+     *
+     * @return the saved bytes
+     */
+    @Benchmark
+    public ByteBuffer save() {
+        return SaveCodec.encode(game);
+    }
+
+    /**
+     * Loads the game.
+     *
+     * @return the loaded game
+     * @throws IOException if the save cannot be decoded
+     */
+    @Benchmark
+    public Rogue load() throws IOException {
+        return SaveCodec.decode(saved.duplicate());
+    }
+}
@@ -0,0 +1,64 @@
+package rogue;
+
+import java.util.Locale;
+
+/**
+ * How a monster spends its turns. The names match the behavior names used by the rooms file.
+ */
+public enum Behavior {
+    IDLE(0),
+    WANDER(2),
+    CHASE(1);
+
+    private static final Behavior[] VALUES = values();
+    private final int delay;
+
+    Behavior(int turnDelay) {
+        this.delay = turnDelay;
+    }
+
+    /**
+     * Gets how many ticks a monster waits between its turns.
+     *
+     * @return the delay, or 0 if the monster never acts
+     */
+    public int getDelay() {
+        return delay;
+    }
+
+    /**
+     * Gets the behavior stored under an ordinal.
+     *
+     * @param ordinal as the ordinal of the behavior
+     * @return the behavior, or WANDER if no behavior has that ordinal
+     */
+    public static Behavior forOrdinal(int ordinal) {
+        return ordinal >= 0 && ordinal < VALUES.length ? VALUES[ordinal] : WANDER;
+    }
+
+    /**
+     * Gets the behavior with a name.
+     *
+     * @param name as the name used in the rooms file, in any case
+     * @return the matching behavior, or WANDER if the name is null or unknown
+     */
+    public static Behavior forName(String name) {
+        if (name != null) {
+            for (Behavior behavior : VALUES) {
+                if (behavior.name().equalsIgnoreCase(name.trim())) {
+                    return behavior;
+                }
+            }
+        }
+        return WANDER;
+    }
+
+    /**
+     * Gets the name written to the rooms file.
+     *
+     * @return the lower case name
+     */
+    public String getFileName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
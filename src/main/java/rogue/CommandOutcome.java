@@ -0,0 +1,32 @@
+package rogue;
+
+/**
+ * The result of applying a single command to the game.
+ */
+public enum CommandOutcome {
+    MOVED("Moved"),
+    GOT_ITEM("Got item"),
+    TRANSITIONED("Transitioned rooms"),
+    INVALID_MOVE("You appear to be trying to move inside a wall"),
+    ITEM_USED("Used item"),
+    ITEM_REFUSED("That item cannot be used that way"),
+    NO_ITEM("There is no such item in the inventory"),
+    ATTACKED("You hit the monster"),
+    KILLED("You killed the monster"),
+    NO_MOVE("That key does nothing");
+
+    private final String message;
+
+    CommandOutcome(String outcomeMessage) {
+        this.message = outcomeMessage;
+    }
+
+    /**
+     * Gets the message shown to the player for this outcome.
+     *
+     * @return the outcome message
+     */
+    public String getMessage() {
+        return message;
+    }
+}
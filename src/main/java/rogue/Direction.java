@@ -0,0 +1,83 @@
+package rogue;
+
+/**
+ * The four walls of a room, and the four ways the player can move. The codes match the wall
+ * names used by the rooms file.
+ */
+public enum Direction {
+    NORTH("N", 0, -1),
+    SOUTH("S", 0, 1),
+    EAST("E", 1, 0),
+    WEST("W", -1, 0);
+
+    private final String code;
+    private final int dx;
+    private final int dy;
+
+    Direction(String wallCode, int stepX, int stepY) {
+        this.code = wallCode;
+        this.dx = stepX;
+        this.dy = stepY;
+    }
+
+    /**
+     * Gets the wall name used by the rooms file.
+     *
+     * @return N, S, E or W
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the direction facing the other way.
+     *
+     * @return the opposite direction
+     */
+    public Direction opposite() {
+        switch (this) {
+            case NORTH:
+                return SOUTH;
+            case SOUTH:
+                return NORTH;
+            case EAST:
+                return WEST;
+            default:
+                return EAST;
+        }
+    }
+
+    /**
+     * Moves a packed position one tile in this direction.
+     *
+     * @param position as the packed position to move from
+     * @return the packed position one tile away
+     */
+    public int step(int position) {
+        return Position.pack(Position.x(position) + dx, Position.y(position) + dy);
+    }
+
+    /**
+     * Gets the direction with a wall name.
+     *
+     * @param wallCode as N, S, E or W, in either case
+     * @return the direction, or null if the name is not a wall
+     */
+    public static Direction forCode(String wallCode) {
+        if (wallCode == null || wallCode.length() != 1) {
+            return null;
+        }
+        switch (Character.toUpperCase(wallCode.charAt(0))) {
+            case 'N':
+                return NORTH;
+            case 'S':
+                return SOUTH;
+            case 'E':
+                return EAST;
+            case 'W':
+                return WEST;
+            default:
+                return null;
+        }
+    }
+}
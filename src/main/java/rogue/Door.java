@@ -25,6 +25,15 @@ public class Door implements Serializable {
         }
     }
 
+    /**
+     * Disconnects a room from the door, leaving the door in any other room it joins.
+     *
+     * @param r as the room to disconnect
+     */
+    void disconnectRoom(Room r) {
+        connectedRooms.remove(r);
+    }
+
     /**
      * Gets the two connected rooms for the door.
      *
@@ -0,0 +1,377 @@
+package rogue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A read-only graph of how the rooms in a game connect through their doors.
+ *
+ * <p>Rooms are numbered by their position in the game's room list and every door is stored twice,
+ * once as an exit from each room it joins. Exits are kept in flat arrays grouped by room, so
+ * queries never touch the Room and Door objects. Queries reuse internal arrays, so a graph
+ * should only be queried from one thread at a time.
+ */
+public class DoorGraph {
+
+    private static final String DIRECTIONS = "NSEW";
+    private static final int NORTH = 0;
+    private static final int SOUTH = 1;
+    private static final int EAST = 2;
+    private static final int INDEX_BITS = 32;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+    private final int[] roomIds;
+    private final HashMap<Integer, Integer> roomIndex = new HashMap<>();
+    private final int[] exitStart;
+    private final int[] exitTarget;
+    private final int[] exitReverse;
+    private final int[] doorX;
+    private final int[] doorY;
+    private final int[] insideX;
+    private final int[] insideY;
+    private final int[] exitRoom;
+    private int[] stepStart;
+    private int[] stepCost;
+    private final int[] queue;
+    private final int[] parent;
+    private final int[] visited;
+    private final long[] distance;
+    private long[] open;
+    private int openSize;
+    private int queryStamp;
+
+    /**
+     * Builds the graph from the current doors of a game.
+     *
+     * @param game as the game whose rooms are connected
+     */
+    public DoorGraph(Rogue game) {
+        ArrayList<Room> rooms = game.getRooms();
+        Map<Room, Integer> indexOf = new IdentityHashMap<>();
+        roomIds = new int[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            indexOf.put(rooms.get(i), i);
+            roomIds[i] = rooms.get(i).getId();
+            roomIndex.putIfAbsent(roomIds[i], i);
+        }
+        ArrayList<int[]> exits = new ArrayList<>();
+        ArrayList<Door> exitDoors = new ArrayList<>();
+        exitStart = new int[rooms.size() + 1];
+        for (int i = 0; i < rooms.size(); i++) {
+            exitStart[i] = exits.size();
+            collectExits(rooms.get(i), i, indexOf, exits, exitDoors);
+        }
+        exitStart[rooms.size()] = exits.size();
+        int count = exits.size();
+        exitTarget = new int[count];
+        exitRoom = new int[count];
+        doorX = new int[count];
+        doorY = new int[count];
+        insideX = new int[count];
+        insideY = new int[count];
+        for (int e = 0; e < count; e++) {
+            int[] exit = exits.get(e);
+            exitRoom[e] = exit[0];
+            exitTarget[e] = exit[1];
+            doorX[e] = exit[2];
+            doorY[e] = exit[3];
+            insideX[e] = exit[4];
+            insideY[e] = exit[5];
+        }
+        exitReverse = pairExits(exitDoors);
+        queue = new int[rooms.size()];
+        parent = new int[rooms.size()];
+        visited = new int[Math.max(rooms.size(), count + 1)];
+        distance = new long[count + 1];
+        open = new long[count + 1];
+    }
+
+    private static void collectExits(Room room, int index, Map<Room, Integer> indexOf, ArrayList<int[]> exits,
+                                     ArrayList<Door> exitDoors) {
+        for (int wall = 0; wall < DIRECTIONS.length(); wall++) {
+            HashMap<Integer, Door> doors = room.getAllDoors().get(String.valueOf(DIRECTIONS.charAt(wall)));
+            if (doors == null) {
+                continue;
+            }
+            for (Map.Entry<Integer, Door> entry : doors.entrySet()) {
+                Integer target = indexOf.get(entry.getValue().getOtherRoom(room));
+                if (target != null) {
+                    exits.add(exitRecord(room, index, target, wall, entry.getKey()));
+                    exitDoors.add(entry.getValue());
+                }
+            }
+        }
+    }
+
+    private static int[] exitRecord(Room room, int index, int target, int wall, int pos) {
+        int x;
+        int y;
+        int dx = 0;
+        int dy = 0;
+        if (wall == NORTH) {
+            x = pos;
+            y = 0;
+            dy = 1;
+        } else if (wall == SOUTH) {
+            x = pos;
+            y = room.getHeight() - 1;
+            dy = -1;
+        } else if (wall == EAST) {
+            x = room.getWidth() - 1;
+            y = pos;
+            dx = -1;
+        } else {
+            x = 0;
+            y = pos;
+            dx = 1;
+        }
+        return new int[]{index, target, x, y, x + dx, y + dy};
+    }
+
+    private static int[] pairExits(ArrayList<Door> exitDoors) {
+        int[] reverse = new int[exitDoors.size()];
+        Arrays.fill(reverse, -1);
+        Map<Door, Integer> firstExit = new IdentityHashMap<>();
+        for (int e = 0; e < exitDoors.size(); e++) {
+            Integer other = firstExit.remove(exitDoors.get(e));
+            if (other == null) {
+                firstExit.put(exitDoors.get(e), e);
+            } else {
+                reverse[e] = other;
+                reverse[other] = e;
+            }
+        }
+        return reverse;
+    }
+
+    /**
+     * Gets the number of rooms in the graph.
+     *
+     * @return the room count
+     */
+    public int getRoomCount() {
+        return roomIds.length;
+    }
+
+    /**
+     * Gets the ids of the rooms one door away from a room.
+     *
+     * @param roomId as the id of the room
+     * @return the ids of the neighbouring rooms, empty if the room is unknown
+     */
+    public int[] getNeighbours(int roomId) {
+        Integer room = roomIndex.get(roomId);
+        if (room == null) {
+            return new int[0];
+        }
+        int[] neighbours = new int[exitStart[room + 1] - exitStart[room]];
+        for (int e = exitStart[room]; e < exitStart[room + 1]; e++) {
+            neighbours[e - exitStart[room]] = roomIds[exitTarget[e]];
+        }
+        return neighbours;
+    }
+
+    /**
+     * Finds a path through the fewest doors between two rooms.
+     *
+     * @param fromId as the id of the room to start in
+     * @param toId   as the id of the room to reach
+     * @return the ids of the rooms along the path including both ends, or null if there is no path
+     */
+    public int[] findRoomPath(int fromId, int toId) {
+        Integer from = roomIndex.get(fromId);
+        Integer to = roomIndex.get(toId);
+        if (from == null || to == null) {
+            return null;
+        }
+        int stamp = nextStamp();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        visited[from] = stamp;
+        parent[from] = -1;
+        while (head < tail && visited[to] != stamp) {
+            int room = queue[head++];
+            for (int e = exitStart[room]; e < exitStart[room + 1]; e++) {
+                int next = exitTarget[e];
+                if (visited[next] != stamp) {
+                    visited[next] = stamp;
+                    parent[next] = room;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        if (visited[to] != stamp) {
+            return null;
+        }
+        int length = 0;
+        for (int room = to; room != -1; room = parent[room]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int room = to; room != -1; room = parent[room]) {
+            path[--length] = roomIds[room];
+        }
+        return path;
+    }
+
+    /**
+     * Gets the number of doors that must be walked through to get from one room to another.
+     *
+     * @param fromId as the id of the room to start in
+     * @param toId   as the id of the room to reach
+     * @return the number of doors, or -1 if there is no path
+     */
+    public int roomDistance(int fromId, int toId) {
+        int[] path = findRoomPath(fromId, toId);
+        return path == null ? -1 : path.length - 1;
+    }
+
+    /**
+     * Precomputes the number of steps between every pair of doors that share a room, so walking
+     * distance queries only read a flat table. Calling this is optional.
+     */
+    public void precomputeDoorDistances() {
+        int[] starts = new int[exitTarget.length];
+        int pairs = 0;
+        for (int arrival = 0; arrival < exitTarget.length; arrival++) {
+            starts[arrival] = pairs;
+            pairs += exitStart[exitRoom[arrival] + 1] - exitStart[exitRoom[arrival]];
+        }
+        int[] costs = new int[pairs];
+        for (int arrival = 0; arrival < exitTarget.length; arrival++) {
+            int room = exitRoom[arrival];
+            for (int e = exitStart[room]; e < exitStart[room + 1]; e++) {
+                costs[starts[arrival] + e - exitStart[room]] = steps(arrival, e);
+            }
+        }
+        stepStart = starts;
+        stepCost = costs;
+    }
+
+    /**
+     * Finds the fewest moves needed to walk from a tile in one room to a tile in another,
+     * counting each step onto a door as one move.
+     *
+     * @param fromId as the id of the room to start in
+     * @param start  as the packed tile to start on
+     * @param toId   as the id of the room to reach
+     * @param goal   as the packed tile to reach
+     * @return the number of moves, or -1 if the goal cannot be reached
+     */
+    public long walkingDistance(int fromId, int start, int toId, int goal) {
+        Integer from = roomIndex.get(fromId);
+        Integer to = roomIndex.get(toId);
+        if (from == null || to == null) {
+            return -1;
+        }
+        int goalNode = exitTarget.length;
+        int stamp = nextStamp();
+        openSize = 0;
+        if (from.equals(to)) {
+            relax(stamp, goalNode,
+                    manhattan(Position.x(start), Position.y(start), Position.x(goal), Position.y(goal)));
+        }
+        for (int e = exitStart[from]; e < exitStart[from + 1]; e++) {
+            if (exitReverse[e] != -1) {
+                relax(stamp, exitReverse[e], manhattan(Position.x(start), Position.y(start), doorX[e], doorY[e]));
+            }
+        }
+        while (openSize > 0) {
+            long entry = poll();
+            int node = (int) (entry & INDEX_MASK);
+            long cost = entry >>> INDEX_BITS;
+            if (cost > distance[node]) {
+                continue;
+            }
+            if (node == goalNode) {
+                return cost;
+            }
+            expand(stamp, node, cost, to, goal);
+        }
+        return -1;
+    }
+
+    private void expand(int stamp, int arrival, long cost, int to, int goal) {
+        int room = exitRoom[arrival];
+        if (room == to) {
+            relax(stamp, exitTarget.length, cost + manhattan(insideX[arrival], insideY[arrival], Position.x(goal),
+                    Position.y(goal)));
+        }
+        for (int e = exitStart[room]; e < exitStart[room + 1]; e++) {
+            int step = stepCost == null ? steps(arrival, e) : stepCost[stepStart[arrival] + e - exitStart[room]];
+            if (exitReverse[e] != -1) {
+                relax(stamp, exitReverse[e], cost + step);
+            }
+        }
+    }
+
+    private void relax(int stamp, int node, long cost) {
+        if (visited[node] != stamp || cost < distance[node]) {
+            visited[node] = stamp;
+            distance[node] = cost;
+            push((cost << INDEX_BITS) | node);
+        }
+    }
+
+    /**
+     * Adds an entry to the open set, a binary min-heap kept in a flat array. A node may be in
+     * the heap more than once; entries costlier than its current distance are skipped on poll.
+     *
+     * @param entry as the cost in the high bits and the node in the low bits
+     */
+    private void push(long entry) {
+        if (openSize == open.length) {
+            open = Arrays.copyOf(open, open.length * 2);
+        }
+        int child = openSize++;
+        while (child > 0) {
+            int parentSlot = (child - 1) >>> 1;
+            if (open[parentSlot] <= entry) {
+                break;
+            }
+            open[child] = open[parentSlot];
+            child = parentSlot;
+        }
+        open[child] = entry;
+    }
+
+    private long poll() {
+        long first = open[0];
+        long last = open[--openSize];
+        int slot = 0;
+        int half = openSize >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            if (child + 1 < openSize && open[child + 1] < open[child]) {
+                child++;
+            }
+            if (last <= open[child]) {
+                break;
+            }
+            open[slot] = open[child];
+            slot = child;
+        }
+        open[slot] = last;
+        return first;
+    }
+
+    private int steps(int arrival, int exit) {
+        return manhattan(insideX[arrival], insideY[arrival], doorX[exit], doorY[exit]);
+    }
+
+    private static int manhattan(int x1, int y1, int x2, int y2) {
+        return Math.abs(x1 - x2) + Math.abs(y1 - y2);
+    }
+
+    private int nextStamp() {
+        queryStamp++;
+        if (queryStamp == 0) {
+            Arrays.fill(visited, 0);
+            queryStamp = 1;
+        }
+        return queryStamp;
+    }
+}
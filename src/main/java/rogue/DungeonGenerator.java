@@ -0,0 +1,337 @@
+package rogue;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Generates dungeons of any size in the same format as the rooms and symbols files the parser reads.
+ *
+ * <p>Rooms sit on a square grid and every door joins two neighbours on it. Each row is joined
+ * east to west and the first column north to south, so every room can be reached, and other
+ * north/south doors are added by chance to make loops. Everything about a room, its size, door
+ * positions, loot and monsters, is worked out from the seed and the room's position alone. That lets
+ * blocks of rooms be written in parallel on the common fork/join pool and still come out the
+ * same for the same seed, however the work is split. Blocks are written to disk in order as
+ * they finish, so only a few blocks are ever held in memory.
+ */
+public class DungeonGenerator {
+
+    public static final int MIN_ROOM_SIZE = 5;
+    private static final String[][] ITEM_KINDS = {
+        {"Food", "Mango", "my that was a yummy mango!"},
+        {"Potion", "Health Potion", "you feel better: The glass bottle shatters when it lands"},
+        {"Ring", "Ring of Fire", "Can create fire"},
+        {"Clothing", "Leather Jacket", "Nice and warm"},
+        {"SmallFood", "Biscuit", "crunchy: it crumbles when it lands"},
+        {"Scroll", "Scroll of Fireball", "A 20 foot ball of flame hurtles away from you"},
+    };
+    private static final String[][] SYMBOLS = {
+        {"PASSAGE", "#"}, {"DOOR", "+"}, {"FLOOR", "."}, {"PLAYER", "@"}, {"GOLD", "*"},
+        {"NS_WALL", "-"}, {"EW_WALL", "|"}, {"POTION", "!"}, {"SCROLL", "?"}, {"CLOTHING", "]"},
+        {"FOOD", ":"}, {"RING", "^"}, {"SMALLFOOD", ";"}, {"MONSTER", "M"},
+    };
+    private static final Behavior[] BEHAVIORS = Behavior.values();
+    private static final int MAX_MONSTER_HP = 5;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long DOOR_STREAM = 0x5DEECE66DL;
+    private static final long ITEM_STREAM = 0xB5AD4ECEDA1CE2A9L;
+    private static final int BLOCK_SIZE = 1024;
+    private static final int BLOCKS_PER_BATCH = 64;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private final long seed;
+    private int minSize = MIN_ROOM_SIZE;
+    private int maxSize = 20;
+    private double lootDensity = 0.02;
+    private double monsterDensity = 0.01;
+    private double loopChance = 0.25;
+    private int roomCount;
+    private int columns;
+    private int[] lootOffsets;
+
+    /**
+     * Generator constructor that takes the seed every choice is derived from.
+     *
+     * @param theSeed as the seed
+     */
+    public DungeonGenerator(long theSeed) {
+        this.seed = theSeed;
+    }
+
+    /**
+     * Sets the range of room widths and heights, walls included.
+     *
+     * @param min as the smallest size, at least MIN_ROOM_SIZE
+     * @param max as the largest size
+     */
+    public void setRoomSizes(int min, int max) {
+        if (min < MIN_ROOM_SIZE || max < min) {
+            throw new IllegalArgumentException("Room sizes must satisfy " + MIN_ROOM_SIZE + " <= min <= max");
+        }
+        this.minSize = min;
+        this.maxSize = max;
+    }
+
+    /**
+     * Sets the chance of each floor tile holding an item.
+     *
+     * @param density as a chance from 0 to 1
+     */
+    public void setLootDensity(double density) {
+        this.lootDensity = density;
+    }
+
+    /**
+     * Sets the chance of each floor tile left free of loot holding a monster. Monsters never
+     * stand just inside a door.
+     *
+     * @param density as a chance from 0 to 1
+     */
+    public void setMonsterDensity(double density) {
+        this.monsterDensity = density;
+    }
+
+    /**
+     * Sets the chance of two rooms above each other being joined when they do not need to be.
+     *
+     * @param chance as a chance from 0 to 1
+     */
+    public void setLoopChance(double chance) {
+        this.loopChance = chance;
+    }
+
+    /**
+     * Writes a rooms file, a symbols file and a file locations file pointing at them.
+     *
+     * @param rooms     as the number of rooms, at least 1
+     * @param directory as the directory to write to, created if needed
+     * @return the path of the file locations file
+     * @throws IOException if the files cannot be written
+     */
+    public String generate(int rooms, File directory) throws IOException {
+        if (rooms < 1) {
+            throw new IllegalArgumentException("A dungeon needs at least one room");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory);
+        }
+        roomCount = rooms;
+        columns = (int) Math.ceil(Math.sqrt(rooms));
+        lootOffsets = new int[rooms + 1];
+        Arrays.parallelSetAll(lootOffsets, i -> i < rooms ? new RoomPlan(i).lootCount : 0);
+        Arrays.parallelPrefix(lootOffsets, Integer::sum);
+        int itemCount = lootOffsets[rooms];
+        File roomsFile = new File(directory, "rooms.json");
+        File symbolsFile = new File(directory, "symbols.json");
+        File locationsFile = new File(directory, "fileLocations.json");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(roomsFile))) {
+            write(out, "{\"room\":[");
+            writeBlocks(out, rooms, this::renderRooms);
+            write(out, "\n],\n\"items\":[");
+            writeBlocks(out, itemCount, this::renderItems);
+            write(out, "\n]}\n");
+        }
+        try (OutputStream out = new FileOutputStream(symbolsFile)) {
+            write(out, renderSymbols());
+        }
+        try (OutputStream out = new FileOutputStream(locationsFile)) {
+            write(out, "{\"Rooms\":\"" + jsonPath(roomsFile) + "\",\"Symbols\":\"" + jsonPath(symbolsFile) + "\"}\n");
+        }
+        return locationsFile.getPath();
+    }
+
+    private static String jsonPath(File file) {
+        return file.getPath().replace("\\", "/");
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBlocks(OutputStream out, int count, IntFunction<String> renderBlock) throws IOException {
+        int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        for (int first = 0; first < blocks; first += BLOCKS_PER_BATCH) {
+            int start = first;
+            byte[][] batch = IntStream.range(start, Math.min(blocks, start + BLOCKS_PER_BATCH)).parallel()
+                    .mapToObj(block -> renderBlock.apply(block).getBytes(StandardCharsets.UTF_8))
+                    .toArray(byte[][]::new);
+            for (byte[] rendered : batch) {
+                out.write(rendered);
+            }
+        }
+    }
+
+    private String renderRooms(int block) {
+        StringBuilder json = new StringBuilder();
+        int end = Math.min(roomCount, (block + 1) * BLOCK_SIZE);
+        for (int i = block * BLOCK_SIZE; i < end; i++) {
+            new RoomPlan(i).render(json.append(i == 0 ? "\n" : ",\n"));
+        }
+        return json.toString();
+    }
+
+    private String renderItems(int block) {
+        StringBuilder json = new StringBuilder();
+        int end = Math.min(lootOffsets[roomCount], (block + 1) * BLOCK_SIZE);
+        for (int id = block * BLOCK_SIZE + 1; id <= end; id++) {
+            String[] kind = ITEM_KINDS[random(ITEM_STREAM, id).nextInt(ITEM_KINDS.length)];
+            json.append(id == 1 ? "\n" : ",\n").append("{\"id\":").append(id).append(",\"name\":\"")
+                    .append(kind[1]).append(' ').append(id).append("\",\"type\":\"").append(kind[0])
+                    .append("\",\"description\":\"").append(kind[2]).append("\"}");
+        }
+        return json.toString();
+    }
+
+    private static String renderSymbols() {
+        StringBuilder json = new StringBuilder("{\"symbols\":[");
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            json.append(i == 0 ? "\n" : ",\n").append("{\"name\":\"").append(SYMBOLS[i][0])
+                    .append("\",\"symbol\":\"").append(SYMBOLS[i][1]).append("\"}");
+        }
+        return json.append("\n]}\n").toString();
+    }
+
+    private SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(seed ^ stream ^ (index * GOLDEN_GAMMA));
+    }
+
+    private boolean hasSouthDoor(int index) {
+        if (index + columns >= roomCount) {
+            return false;
+        }
+        return index % columns == 0 || random(DOOR_STREAM, index).nextDouble() < loopChance;
+    }
+
+    /**
+     * Everything about one room, worked out from the seed and the room's position.
+     */
+    private final class RoomPlan {
+
+        private final int index;
+        private final int width;
+        private final int height;
+        private final int[] doorPos = new int[4];
+        private final int lootCount;
+        private final SplittableRandom random;
+
+        RoomPlan(int roomIndex) {
+            this.index = roomIndex;
+            random = DungeonGenerator.this.random(0, roomIndex);
+            width = minSize + random.nextInt(maxSize - minSize + 1);
+            height = minSize + random.nextInt(maxSize - minSize + 1);
+            doorPos[0] = 1 + random.nextInt(width - 2);
+            doorPos[1] = 1 + random.nextInt(width - 2);
+            doorPos[2] = 1 + random.nextInt(height - 2);
+            doorPos[3] = 1 + random.nextInt(height - 2);
+            int floor = (width - 2) * (height - 2) - (roomIndex == 0 ? 1 : 0);
+            lootCount = Math.min(floor, (int) (floor * lootDensity + random.nextDouble()));
+        }
+
+        void render(StringBuilder json) {
+            json.append("{\"id\":").append(index + 1).append(",\"start\":").append(index == 0)
+                    .append(",\"height\":").append(height).append(",\"width\":").append(width)
+                    .append(",\"doors\":[");
+            int column = index % columns;
+            int doors = 0;
+            int innerWidth = width - 2;
+            BitSet doorways = new BitSet(innerWidth * (height - 2));
+            if (index >= columns && hasSouthDoor(index - columns)) {
+                doors = door(json, doors, "N", index - columns, doorPos[0]);
+                doorways.set(doorPos[0] - 1);
+            }
+            if (hasSouthDoor(index)) {
+                doors = door(json, doors, "S", index + columns, doorPos[1]);
+                doorways.set(doorPos[1] - 1 + (height - 3) * innerWidth);
+            }
+            if (column + 1 < columns && index + 1 < roomCount) {
+                doors = door(json, doors, "E", index + 1, doorPos[2]);
+                doorways.set(innerWidth - 1 + (doorPos[2] - 1) * innerWidth);
+            }
+            if (column > 0) {
+                door(json, doors, "W", index - 1, doorPos[3]);
+                doorways.set((doorPos[3] - 1) * innerWidth);
+            }
+            json.append("],\"loot\":[");
+            BitSet taken = renderLoot(json);
+            json.append("],\"monsters\":[");
+            taken.or(doorways);
+            renderMonsters(json, taken);
+            json.append("]}");
+        }
+
+        private int door(StringBuilder json, int doors, String dir, int other, int pos) {
+            json.append(doors == 0 ? "" : ",").append("{\"dir\":\"").append(dir).append("\",\"con_room\":")
+                    .append(other + 1).append(",\"wall_pos\":").append(pos).append('}');
+            return doors + 1;
+        }
+
+        private BitSet renderLoot(StringBuilder json) {
+            int innerWidth = width - 2;
+            int tiles = innerWidth * (height - 2);
+            BitSet taken = new BitSet(tiles);
+            if (index == 0) {
+                taken.set(0);
+            }
+            int nextId = lootOffsets[index] - lootCount + 1;
+            for (int n = 0; n < lootCount; n++) {
+                int tile = random.nextInt(tiles);
+                if (taken.get(tile)) {
+                    tile = taken.nextClearBit(tile);
+                    tile = tile < tiles ? tile : taken.nextClearBit(0);
+                }
+                taken.set(tile);
+                json.append(n == 0 ? "" : ",").append("{\"id\":").append(nextId + n).append(",\"x\":")
+                        .append(1 + tile % innerWidth).append(",\"y\":").append(1 + tile / innerWidth).append('}');
+            }
+            return taken;
+        }
+
+        /**
+         * Places monsters on the tiles the loot left free, drawing on the room's random after
+         * the loot so the loot comes out the same whatever the monster density.
+         */
+        private void renderMonsters(StringBuilder json, BitSet taken) {
+            int innerWidth = width - 2;
+            int tiles = innerWidth * (height - 2);
+            int free = tiles - taken.cardinality();
+            int monsterCount = Math.min(free, (int) (free * monsterDensity + random.nextDouble()));
+            for (int n = 0; n < monsterCount; n++) {
+                int tile = random.nextInt(tiles);
+                if (taken.get(tile)) {
+                    tile = taken.nextClearBit(tile);
+                    tile = tile < tiles ? tile : taken.nextClearBit(0);
+                }
+                taken.set(tile);
+                json.append(n == 0 ? "" : ",").append("{\"x\":").append(1 + tile % innerWidth).append(",\"y\":")
+                        .append(1 + tile / innerWidth).append(",\"hp\":").append(1 + random.nextInt(MAX_MONSTER_HP))
+                        .append(",\"behavior\":\"")
+                        .append(BEHAVIORS[random.nextInt(BEHAVIORS.length)].getFileName()).append("\"}");
+            }
+        }
+    }
+
+    /**
+     * Writes a generated dungeon to a directory.
+     *
+     * @param args the number of rooms and the output directory, optionally followed by a seed
+     * @throws IOException if the files cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: DungeonGenerator <rooms> <output directory> [seed]");
+            return;
+        }
+        DungeonGenerator generator = new DungeonGenerator(args.length > 2 ? Long.parseLong(args[2]) : 0);
+        long start = System.nanoTime();
+        String locations = generator.generate(Integer.parseInt(args[0]), new File(args[1]));
+        System.out.printf("Wrote %s in %d ms%n", locations, (System.nanoTime() - start) / NANOS_PER_MILLI);
+    }
+}
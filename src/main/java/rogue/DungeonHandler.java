@@ -0,0 +1,253 @@
+package rogue;
+
+import java.util.Arrays;
+
+import org.json.simple.parser.ContentHandler;
+
+/**
+ * Streams the file locations, rooms and symbols files into a parser one value at a time,
+ * so no JSON tree is ever built. Only the record currently being read is held.
+ */
+class DungeonHandler implements ContentHandler {
+
+    private static final int ROOT = 1;
+    private static final int RECORD = 2;
+    private static final int NESTED = 3;
+    private static final int DEFAULT_HP = 3;
+    private final RogueParser parser;
+    private String[] keys = new String[NESTED + 1];
+    private int depth;
+    private String roomsFile;
+    private String symbolsFile;
+    private RoomData room;
+    private String doorDir;
+    private int doorPos;
+    private int doorRoom;
+    private int lootId;
+    private int lootX;
+    private int lootY;
+    private int monsterX;
+    private int monsterY;
+    private int monsterHp;
+    private Behavior monsterBehavior;
+    private int itemId;
+    private String itemName;
+    private String itemType;
+    private String itemDesc;
+    private String symbolName;
+    private String symbol;
+
+    /**
+     * Handler constructor that takes the parser to fill in.
+     *
+     * @param rogueParser as the parser receiving the rooms, items and symbols
+     */
+    DungeonHandler(RogueParser rogueParser) {
+        this.parser = rogueParser;
+    }
+
+    /**
+     * Gets the rooms file named by a file locations file.
+     *
+     * @return the rooms file location
+     */
+    String getRoomsFile() {
+        return roomsFile;
+    }
+
+    /**
+     * Gets the symbols file named by a file locations file.
+     *
+     * @return the symbols file location
+     */
+    String getSymbolsFile() {
+        return symbolsFile;
+    }
+
+    @Override
+    public void startJSON() {
+        depth = 0;
+        Arrays.fill(keys, null);
+    }
+
+    @Override
+    public void endJSON() {
+    }
+
+    @Override
+    public boolean startObject() {
+        depth++;
+        if (depth < keys.length) {
+            keys[depth] = null;
+        } else {
+            keys = Arrays.copyOf(keys, depth + 1);
+        }
+        if (depth == RECORD) {
+            startRecord();
+        } else if (depth == NESTED && "room".equals(keys[ROOT])) {
+            doorDir = null;
+            doorPos = -1;
+            doorRoom = -1;
+            monsterHp = DEFAULT_HP;
+            monsterBehavior = Behavior.WANDER;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean endObject() {
+        if (depth == RECORD) {
+            endRecord();
+        } else if (depth == NESTED && "room".equals(keys[ROOT]) && room != null) {
+            if ("doors".equals(keys[RECORD])) {
+                room.setDoor(doorDir, doorPos, doorRoom);
+            } else if ("loot".equals(keys[RECORD])) {
+                room.addLoot(lootId, lootX, lootY);
+            } else if ("monsters".equals(keys[RECORD])) {
+                room.addMonster(monsterX, monsterY, monsterHp, monsterBehavior);
+            }
+        }
+        depth--;
+        return true;
+    }
+
+    private void startRecord() {
+        if ("room".equals(keys[ROOT])) {
+            room = new RoomData();
+        }
+        itemId = 0;
+        itemName = null;
+        itemType = null;
+        itemDesc = null;
+        symbolName = null;
+        symbol = null;
+    }
+
+    private void endRecord() {
+        if ("room".equals(keys[ROOT]) && room != null) {
+            room.trimLoot();
+            parser.addRoom(room);
+            room = null;
+        } else if ("items".equals(keys[ROOT])) {
+            parser.addItemDefinition(new ItemData(itemId, itemName, itemType, itemDesc));
+        } else if ("symbols".equals(keys[ROOT]) && symbolName != null && symbol != null && !symbol.isEmpty()) {
+            parser.addSymbol(symbolName, symbol.charAt(0));
+        }
+    }
+
+    @Override
+    public boolean startObjectEntry(String key) {
+        keys[depth] = key;
+        return true;
+    }
+
+    @Override
+    public boolean endObjectEntry() {
+        return true;
+    }
+
+    @Override
+    public boolean startArray() {
+        return true;
+    }
+
+    @Override
+    public boolean endArray() {
+        return true;
+    }
+
+    @Override
+    public boolean primitive(Object value) {
+        if (depth == ROOT) {
+            rootValue(keys[ROOT], value);
+        } else if (depth == RECORD) {
+            recordValue(keys[ROOT], keys[RECORD], value);
+        } else if (depth == NESTED && "room".equals(keys[ROOT])) {
+            roomPartValue(keys[RECORD], keys[NESTED], value);
+        }
+        return true;
+    }
+
+    private void rootValue(String key, Object value) {
+        if ("Rooms".equals(key)) {
+            roomsFile = String.valueOf(value);
+        } else if ("Symbols".equals(key)) {
+            symbolsFile = String.valueOf(value);
+        }
+    }
+
+    private void recordValue(String section, String key, Object value) {
+        if ("room".equals(section)) {
+            roomValue(key, value);
+        } else if ("items".equals(section)) {
+            itemValue(key, value);
+        } else if ("symbols".equals(section)) {
+            if ("name".equals(key)) {
+                symbolName = String.valueOf(value);
+            } else if ("symbol".equals(key)) {
+                symbol = String.valueOf(value);
+            }
+        }
+    }
+
+    private void roomValue(String key, Object value) {
+        if ("id".equals(key)) {
+            room.setId(toInt(value));
+        } else if ("start".equals(key)) {
+            room.setStart(String.valueOf(value).equalsIgnoreCase("true"));
+        } else if ("height".equals(key)) {
+            room.setHeight(toInt(value));
+        } else if ("width".equals(key)) {
+            room.setWidth(toInt(value));
+        }
+    }
+
+    private void itemValue(String key, Object value) {
+        if ("id".equals(key)) {
+            itemId = toInt(value);
+        } else if ("name".equals(key)) {
+            itemName = String.valueOf(value);
+        } else if ("type".equals(key)) {
+            itemType = String.valueOf(value);
+        } else if ("description".equals(key)) {
+            itemDesc = String.valueOf(value);
+        }
+    }
+
+    private void roomPartValue(String part, String key, Object value) {
+        if ("doors".equals(part)) {
+            if ("dir".equals(key)) {
+                doorDir = String.valueOf(value);
+            } else if ("wall_pos".equals(key)) {
+                doorPos = toInt(value);
+            } else if ("con_room".equals(key)) {
+                doorRoom = toInt(value);
+            }
+        } else if ("loot".equals(part)) {
+            if ("id".equals(key)) {
+                lootId = toInt(value);
+            } else if ("x".equals(key)) {
+                lootX = toInt(value);
+            } else if ("y".equals(key)) {
+                lootY = toInt(value);
+            }
+        } else if ("monsters".equals(part)) {
+            if ("x".equals(key)) {
+                monsterX = toInt(value);
+            } else if ("y".equals(key)) {
+                monsterY = toInt(value);
+            } else if ("hp".equals(key)) {
+                monsterHp = toInt(value);
+            } else if ("behavior".equals(key)) {
+                monsterBehavior = Behavior.forName(String.valueOf(value));
+            }
+        }
+    }
+
+    private static int toInt(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt(String.valueOf(value));
+    }
+}
@@ -0,0 +1,196 @@
+package rogue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of validating the rooms of a game: which rooms break the placement rules, which
+ * doors lead nowhere, which rooms without doors were joined to another room, and which rooms
+ * cannot be reached from the player's room.
+ */
+public class DungeonReport {
+
+    private static final int MAX_LISTED = 10;
+    private final ArrayList<Integer> misplacedItemRooms = new ArrayList<>();
+    private final ArrayList<Integer> misplacedPlayerRooms = new ArrayList<>();
+    private final ArrayList<UnmatchedDoor> unmatchedDoors = new ArrayList<>();
+    private final ArrayList<Integer> repairedRooms = new ArrayList<>();
+    private final ArrayList<Integer> doorlessRooms = new ArrayList<>();
+    private final ArrayList<Integer> unreachableRooms = new ArrayList<>();
+    private int componentCount;
+
+    /**
+     * A door that is only connected to the room it is in.
+     */
+    public static class UnmatchedDoor {
+
+        private final int roomId;
+        private final String direction;
+        private final int position;
+
+        UnmatchedDoor(int theRoomId, String theDirection, int thePosition) {
+            this.roomId = theRoomId;
+            this.direction = theDirection;
+            this.position = thePosition;
+        }
+
+        /**
+         * Gets the id of the room the door is in.
+         *
+         * @return the room id
+         */
+        public int getRoomId() {
+            return roomId;
+        }
+
+        /**
+         * Gets the wall the door is on.
+         *
+         * @return N, S, E or W
+         */
+        public String getDirection() {
+            return direction;
+        }
+
+        /**
+         * Gets the position of the door along its wall.
+         *
+         * @return the wall position
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        @Override
+        public String toString() {
+            return "room " + roomId + " " + direction + " " + position;
+        }
+    }
+
+    /**
+     * Checks if the game can be played: every item, player and door is placed properly and every
+     * room has a door. Unreachable rooms do not make a game invalid.
+     *
+     * @return true if the game is valid
+     */
+    public boolean isValid() {
+        return misplacedItemRooms.isEmpty() && misplacedPlayerRooms.isEmpty() && unmatchedDoors.isEmpty()
+                && doorlessRooms.isEmpty();
+    }
+
+    /**
+     * Gets the ids of rooms holding an item on a wall, under the player or out of bounds.
+     *
+     * @return the room ids
+     */
+    public List<Integer> getMisplacedItemRooms() {
+        return Collections.unmodifiableList(misplacedItemRooms);
+    }
+
+    /**
+     * Gets the ids of rooms where the player stands on a wall, an item or out of bounds.
+     *
+     * @return the room ids
+     */
+    public List<Integer> getMisplacedPlayerRooms() {
+        return Collections.unmodifiableList(misplacedPlayerRooms);
+    }
+
+    /**
+     * Gets every door that leads nowhere.
+     *
+     * @return the unmatched doors
+     */
+    public List<UnmatchedDoor> getUnmatchedDoors() {
+        return Collections.unmodifiableList(unmatchedDoors);
+    }
+
+    /**
+     * Gets the ids of rooms that had no doors and were given one joining them to another room.
+     *
+     * @return the room ids
+     */
+    public List<Integer> getRepairedRooms() {
+        return Collections.unmodifiableList(repairedRooms);
+    }
+
+    /**
+     * Gets the ids of rooms that have no doors and could not be joined to any other room.
+     *
+     * @return the room ids
+     */
+    public List<Integer> getDoorlessRooms() {
+        return Collections.unmodifiableList(doorlessRooms);
+    }
+
+    /**
+     * Gets the ids of rooms that cannot be reached from the player's room.
+     *
+     * @return the room ids
+     */
+    public List<Integer> getUnreachableRooms() {
+        return Collections.unmodifiableList(unreachableRooms);
+    }
+
+    /**
+     * Gets the number of groups of rooms that are connected to each other but not to the rest.
+     *
+     * @return the number of connected components
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    void addMisplacedItems(int roomId) {
+        misplacedItemRooms.add(roomId);
+    }
+
+    void addMisplacedPlayer(int roomId) {
+        misplacedPlayerRooms.add(roomId);
+    }
+
+    void addUnmatchedDoor(int roomId, String direction, int position) {
+        unmatchedDoors.add(new UnmatchedDoor(roomId, direction, position));
+    }
+
+    void addRepaired(int roomId) {
+        repairedRooms.add(roomId);
+    }
+
+    void addDoorless(int roomId) {
+        doorlessRooms.add(roomId);
+    }
+
+    void addUnreachable(int roomId) {
+        unreachableRooms.add(roomId);
+    }
+
+    void setComponentCount(int count) {
+        componentCount = count;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder(isValid() ? "Dungeon is valid" : "This file cannot be used!");
+        appendList(report, "Rooms with misplaced items", misplacedItemRooms);
+        appendList(report, "Rooms with a misplaced player", misplacedPlayerRooms);
+        appendList(report, "Unmatched doors", unmatchedDoors);
+        appendList(report, "Rooms without doors", doorlessRooms);
+        appendList(report, "Rooms given a door", repairedRooms);
+        appendList(report, "Unreachable rooms", unreachableRooms);
+        report.append("\nConnected components: ").append(componentCount);
+        return report.toString();
+    }
+
+    private static void appendList(StringBuilder report, String label, List<?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        report.append('\n').append(label).append(" (").append(entries.size()).append("): ");
+        report.append(entries.subList(0, Math.min(MAX_LISTED, entries.size())));
+        if (entries.size() > MAX_LISTED) {
+            report.append(" ...");
+        }
+    }
+}
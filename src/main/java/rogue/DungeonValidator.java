@@ -0,0 +1,187 @@
+package rogue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Validates every room of a game in one linear sweep.
+ *
+ * <p>The placement rules of each room are checked in parallel, since they only read the room.
+ * Rooms without doors are then joined to the first room with a free wall, in room order, as
+ * before; a cursor over the rooms only ever moves forward because walls only fill up. Finally a
+ * union-find over the doors groups the rooms into connected components, so rooms that cannot be
+ * reached from the player's room are found without a search per room.
+ */
+public final class DungeonValidator {
+
+    private static final int MISPLACED_ITEMS = 1;
+    private static final int MISPLACED_PLAYER = 2;
+    private static final int UNMATCHED_DOORS = 4;
+    private static final int NO_DOORS = 8;
+    private static final String[] DIRECTIONS = {"N", "S", "E", "W"};
+    private final Rogue game;
+    private final ArrayList<Room> rooms;
+    private final DungeonReport report = new DungeonReport();
+    private int freeWallCursor;
+    private int[] parent;
+
+    private DungeonValidator(Rogue theGame) {
+        this.game = theGame;
+        this.rooms = theGame.getRooms();
+    }
+
+    /**
+     * Validates the rooms of a game, joining rooms without doors to another room where possible.
+     *
+     * @param game as the game to validate
+     * @return the report of every problem found
+     */
+    public static DungeonReport validate(Rogue game) {
+        DungeonValidator validator = new DungeonValidator(game);
+        int[] problems = validator.checkRooms();
+        validator.report(problems);
+        validator.findComponents();
+        return validator.report;
+    }
+
+    private int[] checkRooms() {
+        int[] problems = new int[rooms.size()];
+        IntStream.range(0, rooms.size()).parallel().forEach(i -> problems[i] = checkRoom(rooms.get(i)));
+        return problems;
+    }
+
+    private static int checkRoom(Room room) {
+        int problems = 0;
+        if (!room.checkItems()) {
+            problems |= MISPLACED_ITEMS;
+        }
+        if (!room.checkPlayer()) {
+            problems |= MISPLACED_PLAYER;
+        }
+        if (!room.checkDoors()) {
+            problems |= UNMATCHED_DOORS;
+        }
+        if (room.getDoors().isEmpty()) {
+            problems |= NO_DOORS;
+        }
+        return problems;
+    }
+
+    private void report(int[] problems) {
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            if ((problems[i] & MISPLACED_ITEMS) != 0) {
+                report.addMisplacedItems(room.getId());
+            }
+            if ((problems[i] & MISPLACED_PLAYER) != 0) {
+                report.addMisplacedPlayer(room.getId());
+            }
+            if ((problems[i] & UNMATCHED_DOORS) != 0) {
+                reportUnmatchedDoors(room);
+            }
+            if ((problems[i] & NO_DOORS) != 0 && room.getDoors().isEmpty()) {
+                if (joinToFreeWall(room)) {
+                    report.addRepaired(room.getId());
+                } else {
+                    report.addDoorless(room.getId());
+                }
+            }
+        }
+    }
+
+    private void reportUnmatchedDoors(Room room) {
+        for (String direction : DIRECTIONS) {
+            HashMap<Integer, Door> doors = room.getAllDoors().get(direction);
+            if (doors != null) {
+                for (Map.Entry<Integer, Door> door : doors.entrySet()) {
+                    if (door.getValue().getConnectedRooms().size() < 2) {
+                        report.addUnmatchedDoor(room.getId(), direction, door.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean joinToFreeWall(Room room) {
+        while (freeWallCursor < rooms.size()) {
+            Room candidate = rooms.get(freeWallCursor);
+            if (candidate == room) {
+                return joinAfterCursor(room);
+            }
+            if (game.findMatch(room, candidate)) {
+                return true;
+            }
+            freeWallCursor++;
+        }
+        return false;
+    }
+
+    private boolean joinAfterCursor(Room room) {
+        for (int i = freeWallCursor + 1; i < rooms.size(); i++) {
+            if (game.findMatch(room, rooms.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void findComponents() {
+        Map<Room, Integer> indexOf = new IdentityHashMap<>();
+        parent = new int[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            indexOf.put(rooms.get(i), i);
+            parent[i] = i;
+        }
+        int components = rooms.size();
+        for (int i = 0; i < rooms.size(); i++) {
+            for (HashMap<Integer, Door> doors : rooms.get(i).getAllDoors().values()) {
+                for (Door door : doors.values()) {
+                    for (Room other : door.getConnectedRooms()) {
+                        Integer j = indexOf.get(other);
+                        if (j != null && union(i, j)) {
+                            components--;
+                        }
+                    }
+                }
+            }
+        }
+        report.setComponentCount(components);
+        Player player = game.getPlayer();
+        Integer start = player == null ? null : indexOf.get(player.getCurrentRoom());
+        if (start != null) {
+            int startRoot = find(start);
+            for (int i = 0; i < rooms.size(); i++) {
+                if (find(i) != startRoot) {
+                    report.addUnreachable(rooms.get(i).getId());
+                }
+            }
+        }
+    }
+
+    private int find(int room) {
+        int root = room;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        int step = room;
+        while (parent[step] != root) {
+            int next = parent[step];
+            parent[step] = root;
+            step = next;
+        }
+        return root;
+    }
+
+    private boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return false;
+        }
+        parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        return true;
+    }
+}
@@ -1,7 +1,5 @@
 package rogue;
 
-import java.awt.Point;
-
 public class Food extends Item implements Edible {
 
     /**
@@ -18,9 +16,9 @@ public class Food extends Item implements Edible {
      * @param name       as the name of the item
      * @param desc       as the description of the item
      * @param type       as the type of the item
-     * @param xyLocation as the location of the item
+     * @param xyLocation as the packed location of the item
      */
-    public Food(int itemId, String name, String desc, String type, Point xyLocation) {
+    public Food(int itemId, String name, String desc, String type, int xyLocation) {
         super(itemId, name, desc, type, xyLocation);
     }
 
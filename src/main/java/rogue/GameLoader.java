@@ -0,0 +1,129 @@
+package rogue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Gets a game ready on background threads while a frontend starts up.
+ *
+ * <p>Parsing the dungeon files starts as soon as a loader is made. Once they are parsed, the
+ * start room is built on its own so it can be shown straight away. At the same time the whole
+ * dungeon is built and validated, and then the move journal recovers the game from it. The
+ * frontend builds its window or terminal in the meantime and only waits when it asks for a
+ * result, so the time to the first frame is the slowest of these steps rather than their sum.
+ */
+public final class GameLoader {
+
+    public static final String LOADING_MESSAGE = "Loading the dungeon...";
+    public static final String START_OVER_QUESTION = "Your saved progress cannot be recovered. Start over? (y/n)";
+    public static final char START_OVER = 'y';
+    private final CompletableFuture<Room> startRoom;
+    private final CompletableFuture<Rogue> game;
+    private final CompletableFuture<MoveJournal> journal;
+    private final String journalDirectory;
+
+    /**
+     * Loader constructor that starts loading straight away, journaling into the usual directory.
+     *
+     * @param fileLocations as the file locations json of the dungeon
+     */
+    public GameLoader(String fileLocations) {
+        this(fileLocations, GameSession.JOURNAL_DIRECTORY);
+    }
+
+    /**
+     * Loader constructor that starts loading straight away.
+     *
+     * @param fileLocations as the file locations json of the dungeon
+     * @param theDirectory  as the directory holding the move journal
+     */
+    public GameLoader(String fileLocations, String theDirectory) {
+        this.journalDirectory = theDirectory;
+        CompletableFuture<RogueParser> parser = CompletableFuture.supplyAsync(() -> new RogueParser(fileLocations));
+        startRoom = parser.thenApplyAsync(Rogue::buildStartRoom);
+        game = parser.thenApplyAsync(GameLoader::newGame);
+        journal = game.thenApplyAsync(this::openJournal);
+    }
+
+    private static Rogue newGame(RogueParser parser) {
+        Rogue theGame = new Rogue(parser);
+        if (theGame.getValidationReport().isValid()) {
+            theGame.setPlayer(new Player("Player"));
+        }
+        return theGame;
+    }
+
+    private MoveJournal openJournal(Rogue baseGame) {
+        if (!baseGame.getValidationReport().isValid()) {
+            return null;
+        }
+        try {
+            return new MoveJournal(journalDirectory, baseGame);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Shows the start room with a loading message as soon as it is built, waiting for it if
+     * need be. Nothing is shown if the dungeon has no start room.
+     *
+     * @param view as the frontend to show the room on
+     */
+    public void showStartRoom(GameView view) {
+        Room room = startRoom.join();
+        if (room != null) {
+            view.draw(Rogue.BLANK_OFFSET + LOADING_MESSAGE, room);
+        }
+    }
+
+    /**
+     * Gets the dungeon as parsed and built, before the journal is replayed onto it, waiting for
+     * it if need be.
+     *
+     * @return the game
+     */
+    public Rogue getBaseGame() {
+        return game.join();
+    }
+
+    /**
+     * Gets the journal with the recovered game, waiting for it if need be.
+     *
+     * @return the journal, or null if the dungeon failed validation
+     * @throws IOException if the journal cannot be used
+     */
+    public MoveJournal getJournal() throws IOException {
+        try {
+            return journal.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the journal with the recovered game, waiting for it if need be. If the journal cannot
+     * be recovered the player is asked whether to throw it away and start over.
+     *
+     * @param view as the frontend to ask the player on
+     * @return the journal, or null if the dungeon failed validation
+     * @throws IOException if the journal cannot be recovered and the player does not start over
+     */
+    public MoveJournal getJournal(GameView view) throws IOException {
+        try {
+            return getJournal();
+        } catch (IOException e) {
+            e.printStackTrace();
+            view.showOutput(START_OVER_QUESTION);
+            if (view.getInput() != START_OVER) {
+                throw e;
+            }
+            return new MoveJournal(journalDirectory, getBaseGame(), true);
+        }
+    }
+}
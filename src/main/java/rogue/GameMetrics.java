@@ -0,0 +1,139 @@
+package rogue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Where the time goes on every keystroke: latency histograms for moves by outcome, monster ticks,
+ * rendering, drawing, parsing, saving and loading, plus save sizes and the size of the game being played.
+ *
+ * <p>The histograms always record, whether or not anyone is looking, and {@link #register()}
+ * publishes them over JMX under the rogue domain, where jconsole or any JMX client can read them.
+ */
+public final class GameMetrics implements GameMetricsMBean {
+
+    public static final String DOMAIN = "rogue";
+    public static final String NANOS = "ns";
+    public static final String BYTES = "bytes";
+    public static final Histogram TICK = new Histogram(NANOS);
+    public static final Histogram RENDER = new Histogram(NANOS);
+    public static final Histogram DRAW = new Histogram(NANOS);
+    public static final Histogram PARSE = new Histogram(NANOS);
+    public static final Histogram SAVE = new Histogram(NANOS);
+    public static final Histogram LOAD = new Histogram(NANOS);
+    public static final Histogram SAVE_SIZE = new Histogram(BYTES);
+    public static final Histogram LOAD_SIZE = new Histogram(BYTES);
+    private static final CommandOutcome[] MOVE_OUTCOMES = {
+        CommandOutcome.MOVED, CommandOutcome.GOT_ITEM, CommandOutcome.TRANSITIONED, CommandOutcome.INVALID_MOVE,
+        CommandOutcome.ATTACKED, CommandOutcome.KILLED,
+    };
+    private static final Histogram[] MOVES = new Histogram[CommandOutcome.values().length];
+    private static volatile Supplier<Rogue> watched = () -> null;
+    private static boolean registered;
+
+    static {
+        for (CommandOutcome outcome : MOVE_OUTCOMES) {
+            MOVES[outcome.ordinal()] = new Histogram(NANOS);
+        }
+    }
+
+    private GameMetrics() {
+
+    }
+
+    /**
+     * Records how long a move took.
+     *
+     * @param outcome    as the outcome of the move
+     * @param startNanos as the time the move started, from System.nanoTime
+     */
+    public static void recordMove(CommandOutcome outcome, long startNanos) {
+        Histogram moves = MOVES[outcome.ordinal()];
+        if (moves != null) {
+            moves.recordSince(startNanos);
+        }
+    }
+
+    /**
+     * Gets the latency histogram of moves with an outcome.
+     *
+     * @param outcome as the outcome of the moves
+     * @return the histogram, or null if the outcome is not the outcome of a move
+     */
+    public static Histogram getMoveLatency(CommandOutcome outcome) {
+        return MOVES[outcome.ordinal()];
+    }
+
+    /**
+     * Sets the game whose rooms and items are reported. The supplier is asked on every read,
+     * so it can follow a game that is replaced by loading a save.
+     *
+     * @param game as the supplier of the game to report on
+     */
+    public static void watch(Supplier<Rogue> game) {
+        watched = game;
+    }
+
+    /**
+     * Publishes every histogram and the game gauges on the platform MBean server. Calling it
+     * more than once does nothing.
+     */
+    public static synchronized void register() {
+        if (registered) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(new GameMetrics(), name("Game", "game"));
+            for (CommandOutcome outcome : MOVE_OUTCOMES) {
+                server.registerMBean(MOVES[outcome.ordinal()], name("Move", outcome.name().toLowerCase(Locale.ROOT)));
+            }
+            server.registerMBean(TICK, name("Latency", "tick"));
+            server.registerMBean(RENDER, name("Latency", "render"));
+            server.registerMBean(DRAW, name("Latency", "draw"));
+            server.registerMBean(PARSE, name("Latency", "parse"));
+            server.registerMBean(SAVE, name("Latency", "save"));
+            server.registerMBean(LOAD, name("Latency", "load"));
+            server.registerMBean(SAVE_SIZE, name("Size", "save"));
+            server.registerMBean(LOAD_SIZE, name("Size", "load"));
+            registered = true;
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static ObjectName name(String type, String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + type + ",name=" + name);
+    }
+
+    @Override
+    public int getResidentRooms() {
+        Rogue game = watched.get();
+        return game == null ? -1 : game.getRooms().size();
+    }
+
+    @Override
+    public int getResidentItems() {
+        Rogue game = watched.get();
+        return game == null ? -1 : game.getItems().size();
+    }
+
+    @Override
+    public int getMonsterCount() {
+        Rogue game = watched.get();
+        return game == null ? -1 : game.getMonsters().size();
+    }
+
+    @Override
+    public long getMoveCount() {
+        long moves = 0;
+        for (CommandOutcome outcome : MOVE_OUTCOMES) {
+            moves += MOVES[outcome.ordinal()].getCount();
+        }
+        return moves;
+    }
+}
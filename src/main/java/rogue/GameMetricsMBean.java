@@ -0,0 +1,35 @@
+package rogue;
+
+/**
+ * The JMX view of the game being played.
+ */
+public interface GameMetricsMBean {
+
+    /**
+     * Gets how many rooms are built in the watched game.
+     *
+     * @return the room count, or -1 if no game is watched
+     */
+    int getResidentRooms();
+
+    /**
+     * Gets how many items exist in the watched game.
+     *
+     * @return the item count, or -1 if no game is watched
+     */
+    int getResidentItems();
+
+    /**
+     * Gets how many monsters are alive in the watched game.
+     *
+     * @return the monster count, or -1 if no game is watched
+     */
+    int getMonsterCount();
+
+    /**
+     * Gets how many moves have been made in every game.
+     *
+     * @return the move count
+     */
+    long getMoveCount();
+}
@@ -0,0 +1,344 @@
+package rogue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hosts many independent games over a line based telnet style protocol.
+ *
+ * <p>Every connection gets its own game built from one shared parser, which is only read after
+ * parsing, so a session costs its rooms, items and player and nothing else. One selector thread
+ * serves every connection: commands take microseconds to apply, so a session only needs a thread
+ * while it has input to handle, and idle sessions cost no thread at all. Building a game takes
+ * far longer, so new games are built on the common pool and only handed to the selector thread
+ * once they are ready.
+ *
+ * <p>A session that fails is closed on its own without stopping the others. A client that does not
+ * read its replies is not read from either once {@link #MAX_PENDING} bytes wait to be sent to it.
+ *
+ * <p>Clients send one command per line in the same form as a Simulator command file, or q to
+ * leave. Each command is answered with its outcome and the current room. A line longer than
+ * {@link #MAX_LINE} characters is not run but answered with an error.
+ */
+public class GameServer implements Runnable {
+
+    public static final int DEFAULT_PORT = 4000;
+    public static final int MAX_PENDING = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 256;
+    public static final int MAX_LINE = 80;
+    private static final String NEWLINE = "\r\n";
+    private final RogueParser dungeon;
+    private final ServerSocketChannel server;
+    private final Selector selector;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final Queue<SelectionKey> built = new ConcurrentLinkedQueue<>();
+    private int sessionCount;
+
+    /**
+     * Server constructor that starts listening straight away.
+     *
+     * @param theDungeon as the parsed dungeon every session plays
+     * @param port       as the port to listen on, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(RogueParser theDungeon, int port) throws IOException {
+        this.dungeon = theDungeon;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Gets the port the server is listening on.
+     *
+     * @return the port
+     * @throws IOException if the server is closed
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Gets the number of connected sessions.
+     *
+     * @return the session count
+     */
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    /**
+     * Serves connections until the server is stopped.
+     */
+    @Override
+    public void run() {
+        try {
+            while (server.isOpen()) {
+                selector.select();
+                startBuiltSessions();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (server.isOpen()) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Stops the server and drops every session.
+     *
+     * @throws IOException if the server cannot be closed
+     */
+    public void stop() throws IOException {
+        server.close();
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            try {
+                accept();
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+        try {
+            if (key.isReadable()) {
+                read(key);
+            }
+            if (key.isValid() && key.isWritable()) {
+                ((Session) key.attachment()).flush(key);
+            }
+        } catch (IOException e) {
+            close(key);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            close(key);
+        }
+    }
+
+    /**
+     * Registers a new connection without reading from it, and builds its game on the common pool.
+     */
+    private void accept() throws IOException {
+        SocketChannel client = server.accept();
+        if (client == null) {
+            return;
+        }
+        client.configureBlocking(false);
+        CompletableFuture<Simulator> game = CompletableFuture.supplyAsync(() -> new Simulator(new Rogue(dungeon)));
+        SelectionKey key = client.register(selector, 0, new Session(game));
+        sessionCount++;
+        game.whenComplete((simulator, failure) -> {
+            built.add(key);
+            selector.wakeup();
+        });
+    }
+
+    private void startBuiltSessions() {
+        SelectionKey key = built.poll();
+        while (key != null) {
+            Session session = (Session) key.attachment();
+            if (session != null) {
+                try {
+                    session.start();
+                    session.flush(key);
+                } catch (IOException e) {
+                    close(key);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                    close(key);
+                }
+            }
+            key = built.poll();
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        Session session = (Session) key.attachment();
+        readBuffer.clear();
+        int read = ((SocketChannel) key.channel()).read(readBuffer);
+        if (read == -1) {
+            close(key);
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+            char c = (char) (readBuffer.get() & 0xFF);
+            if (c == '\n') {
+                if (!session.handleLine()) {
+                    session.flush(key);
+                    close(key);
+                    return;
+                }
+            } else if (c != '\r') {
+                session.append(c);
+            }
+        }
+        session.flush(key);
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (key.attachment() != null) {
+            key.attach(null);
+            sessionCount--;
+        }
+    }
+
+    /**
+     * One connected player and the output still waiting to be written to them.
+     */
+    private static class Session {
+
+        private final CompletableFuture<Simulator> game;
+        private final StringBuilder line = new StringBuilder();
+        private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<>();
+        private Simulator simulator;
+        private int pendingBytes;
+        private boolean lineTooLong;
+
+        Session(CompletableFuture<Simulator> theGame) {
+            this.game = theGame;
+        }
+
+        /**
+         * Takes the game once it has been built and greets the player.
+         */
+        void start() {
+            simulator = game.join();
+            send("Welcome to my Rogue game" + NEWLINE + roomDisplay());
+        }
+
+        /**
+         * Buffers a character of the current line. A line that grows past {@link #MAX_LINE} is
+         * marked so it is refused rather than cut short.
+         *
+         * @param c as the character read
+         */
+        void append(char c) {
+            if (line.length() < MAX_LINE) {
+                line.append(c);
+            } else {
+                lineTooLong = true;
+            }
+        }
+
+        /**
+         * Applies the buffered line as a command and queues the reply.
+         *
+         * @return false if the player asked to leave
+         */
+        boolean handleLine() {
+            String command = line.toString().trim();
+            line.setLength(0);
+            if (lineTooLong) {
+                lineTooLong = false;
+                send("Line too long, at most " + MAX_LINE + " characters" + NEWLINE);
+                return true;
+            }
+            if (command.isEmpty()) {
+                return true;
+            }
+            if (command.equalsIgnoreCase("q")) {
+                send("Goodbye" + NEWLINE);
+                return false;
+            }
+            String message;
+            try {
+                message = simulator.apply(Simulator.parseCommand(command)).getMessage();
+            } catch (NumberFormatException e) {
+                message = "Unknown command";
+            }
+            send(message + NEWLINE + roomDisplay());
+            return true;
+        }
+
+        String roomDisplay() {
+            return simulator.getGame().getNextDisplay().replace("\n", NEWLINE) + NEWLINE;
+        }
+
+        void send(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            pending.add(ByteBuffer.wrap(bytes));
+            pendingBytes += bytes.length;
+        }
+
+        /**
+         * Writes as much pending output as the socket takes, and asks to be told when it can
+         * take the rest. Reading stops while too much output is waiting.
+         */
+        void flush(SelectionKey key) throws IOException {
+            SocketChannel channel = (SocketChannel) key.channel();
+            while (!pending.isEmpty()) {
+                ByteBuffer next = pending.peek();
+                pendingBytes -= channel.write(next);
+                if (next.hasRemaining()) {
+                    break;
+                }
+                pending.poll();
+            }
+            int interest = pendingBytes < MAX_PENDING ? SelectionKey.OP_READ : 0;
+            if (!pending.isEmpty()) {
+                interest |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(interest);
+        }
+    }
+
+    /**
+     * Serves a dungeon until the process is killed.
+     *
+     * @param args the file locations file, optionally followed by a port
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: GameServer <file locations json> [port]");
+            return;
+        }
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        RogueParser parser = new RogueParser(args[0]);
+        DungeonReport report = new Rogue(parser).getValidationReport();
+        if (!report.isValid()) {
+            System.out.println(report);
+            return;
+        }
+        GameServer gameServer = new GameServer(parser, port);
+        GameMetrics.register();
+        System.out.println("Serving " + args[0] + " on port " + gameServer.getPort());
+        gameServer.run();
+    }
+}
@@ -0,0 +1,299 @@
+package rogue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * One player's game played through a {@link GameView}: the game loop, the move journal that
+ * keeps the game durable and the recording of the session.
+ *
+ * <p>Nothing here touches a user interface toolkit, so the window and the text terminal run the
+ * same loop. Commands, loads, saves and renames are applied one at a time, so a frontend may call
+ * in from its own threads, such as the Swing event thread, while the loop waits for a key.
+ */
+public class GameSession {
+
+    public static final String JOURNAL_DIRECTORY = "journal";
+    public static final String RECORDING_DIRECTORY = "recordings";
+    public static final int MAX_RECORDINGS = 20;
+    private static final String RECORDING_PREFIX = "session-";
+    public static final char QUIT = 'q';
+    private final GameView view;
+    private final MoveJournal journal;
+    private volatile Rogue game;
+    private SessionRecorder recorder;
+    private IOException reportedFailure;
+
+    /**
+     * Session constructor that recovers the journaled game and starts recording it.
+     *
+     * @param theView  as the frontend to play through
+     * @param baseGame as the game to start from when the journal is empty
+     * @throws IOException if the journal cannot be used
+     */
+    public GameSession(GameView theView, Rogue baseGame) throws IOException {
+        this(theView, new MoveJournal(JOURNAL_DIRECTORY, baseGame));
+    }
+
+    /**
+     * Session constructor that plays the game of an open journal and starts recording it.
+     *
+     * @param theView    as the frontend to play through
+     * @param theJournal as the journal holding the recovered game
+     */
+    public GameSession(GameView theView, MoveJournal theJournal) {
+        this.view = theView;
+        this.journal = theJournal;
+        game = theJournal.getGame();
+        startRecording();
+    }
+
+    /**
+     * Gets the game being played.
+     *
+     * @return the game
+     */
+    public Rogue getGame() {
+        return game;
+    }
+
+    /**
+     * Shows the game for the first time.
+     *
+     * @param message as the message to greet the player with
+     */
+    public synchronized void start(String message) {
+        view.showInventory(game.getPlayer());
+        view.draw(message, game.getCurrentRoom());
+        view.showPlayerName(game.getPlayer().getName());
+        view.showOutput(message);
+    }
+
+    /**
+     * Plays until the player quits, then closes the journal and the recording.
+     */
+    public void play() {
+        char userInput = view.getInput();
+        while (userInput != QUIT) {
+            handleInput(userInput);
+            userInput = view.getInput();
+        }
+        close();
+    }
+
+    private void handleInput(char userInput) {
+        String message = handleInventoryCall(userInput);
+        synchronized (this) {
+            if (message == null) {
+                CommandOutcome outcome = move(userInput);
+                if (outcome == CommandOutcome.INVALID_MOVE) {
+                    message = outcome.getMessage();
+                    view.showOutput(message);
+                    view.draw(Rogue.BLANK_OFFSET + message, game.getCurrentRoom());
+                    return;
+                }
+                message = outcome.getMessage();
+            }
+            message = withJournalWarning(message);
+            view.draw(Rogue.BLANK_OFFSET + message, game.getCurrentRoom());
+            view.showInventory(game.getPlayer());
+            view.showOutput(message);
+        }
+    }
+
+    private String handleInventoryCall(char userInput) {
+        if (game.getPlayer().getInventory().size() != 0) {
+            if (userInput == Simulator.EAT) {
+                return handleItemCall(Simulator.EAT, Edible.class, "eat");
+            } else if (userInput == Simulator.WEAR) {
+                return handleItemCall(Simulator.WEAR, Wearable.class, "wear");
+            } else if (userInput == Simulator.TOSS) {
+                return handleItemCall(Simulator.TOSS, Tossable.class, "toss");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Lets the player pick an item and uses it. The dialog runs without holding the session, so
+     * the game and inventory the options were built from are checked again before the item is
+     * used.
+     */
+    private String handleItemCall(char action, Class<?> capability, String verb) {
+        Rogue shownGame;
+        long shownVersion;
+        String[] options;
+        synchronized (this) {
+            shownGame = game;
+            Inventory inventory = shownGame.getPlayer().getInventory();
+            shownVersion = inventory.getVersion();
+            options = inventory.getOptions(capability);
+        }
+        if (options.length == 0) {
+            return "You have nothing to " + verb + "!";
+        }
+        int choice = view.chooseItem(verb, options);
+        if (choice < 0) {
+            return null;
+        }
+        return useItem(shownGame, shownVersion, action, Integer.parseInt(options[choice].split(" ")[0]));
+    }
+
+    private synchronized CommandOutcome move(char userInput) {
+        CommandOutcome outcome = journal.move(userInput);
+        if (outcome != CommandOutcome.NO_MOVE) {
+            record(Simulator.encode(userInput));
+        }
+        return outcome;
+    }
+
+    private synchronized String useItem(Rogue shownGame, long shownVersion, char action, int itemNumber) {
+        Inventory inventory = game.getPlayer().getInventory();
+        if (game != shownGame || inventory.getVersion() != shownVersion) {
+            return "The inventory changed while you were choosing, nothing was used";
+        }
+        String message = journal.useItem(action, inventory.getItem(itemNumber - 1));
+        record(Simulator.encode(action, itemNumber));
+        view.showInventory(game.getPlayer());
+        return message;
+    }
+
+    /**
+     * Replaces the game, for example with a loaded save, and shows it.
+     *
+     * @param newGame as the game to play from now on
+     * @param message as the message to show
+     */
+    public synchronized void replaceGame(Rogue newGame, String message) {
+        game = newGame;
+        try {
+            journal.reset(newGame);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        startRecording();
+        view.draw(Rogue.BLANK_OFFSET + message, game.getCurrentRoom());
+        view.showOutput(message);
+        view.showInventory(game.getPlayer());
+    }
+
+    /**
+     * Saves the game into a file.
+     *
+     * @param filename as the file to save to
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void save(String filename) throws IOException {
+        SaveCodec.save(game, filename);
+        view.draw(Rogue.BLANK_OFFSET + "Saved file", game.getCurrentRoom());
+        view.showOutput("Saved file");
+    }
+
+    /**
+     * Renames the player.
+     *
+     * @param name as the new name
+     */
+    public synchronized void rename(String name) {
+        game.getPlayer().setName(name);
+        try {
+            journal.checkpoint();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        view.showPlayerName(name);
+        view.showOutput("Updated Player name to " + name);
+    }
+
+    /**
+     * Closes the journal and the recording.
+     */
+    public synchronized void close() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        stopRecording();
+    }
+
+    /**
+     * Warns the player, once, that the journal has stopped keeping their progress.
+     */
+    private String withJournalWarning(String message) {
+        IOException failure = journal.getFailure();
+        if (failure == null || failure == reportedFailure) {
+            return message;
+        }
+        reportedFailure = failure;
+        return message + " (Warning: your progress is no longer being saved)";
+    }
+
+    private void record(int command) {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.record(command);
+        } catch (IOException e) {
+            e.printStackTrace();
+            stopRecording();
+        }
+    }
+
+    /**
+     * Starts a new session recording of the game, ending the current one. Only the newest
+     * {@link #MAX_RECORDINGS} recordings are kept.
+     */
+    private void startRecording() {
+        stopRecording();
+        File directory = new File(RECORDING_DIRECTORY);
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            String name = RECORDING_PREFIX + System.currentTimeMillis() + SessionRecorder.EXTENSION;
+            recorder = new SessionRecorder(new File(directory, name).getPath(), game);
+            deleteOldRecordings(directory);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void deleteOldRecordings(File directory) throws IOException {
+        File[] recordings = directory.listFiles((dir, name) -> name.startsWith(RECORDING_PREFIX)
+                && name.endsWith(SessionRecorder.EXTENSION));
+        if (recordings == null || recordings.length <= MAX_RECORDINGS) {
+            return;
+        }
+        Arrays.sort(recordings, Comparator.comparingLong(GameSession::recordingTime));
+        for (int i = 0; i < recordings.length - MAX_RECORDINGS; i++) {
+            Files.deleteIfExists(recordings[i].toPath());
+        }
+    }
+
+    private static long recordingTime(File recording) {
+        String name = recording.getName();
+        try {
+            return Long.parseLong(name.substring(RECORDING_PREFIX.length(),
+                    name.length() - SessionRecorder.EXTENSION.length()));
+        } catch (NumberFormatException e) {
+            return recording.lastModified();
+        }
+    }
+
+    private void stopRecording() {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        recorder = null;
+    }
+}
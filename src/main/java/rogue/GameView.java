@@ -0,0 +1,53 @@
+package rogue;
+
+/**
+ * A frontend a {@link GameSession} is played through: where the player's keys come from and
+ * where the room, the messages and the side panels are shown.
+ */
+public interface GameView {
+
+    /**
+     * Waits for the player to press a key.
+     *
+     * @return the command for the key, with arrow keys turned into movement keys
+     */
+    char getInput();
+
+    /**
+     * Shows the message line and a room.
+     *
+     * @param message as the message to display above the room
+     * @param room    as the room to display
+     */
+    void draw(String message, Room room);
+
+    /**
+     * Shows the outcome of the last command.
+     *
+     * @param message as the outcome
+     */
+    void showOutput(String message);
+
+    /**
+     * Shows what a player carries and wears.
+     *
+     * @param player as the player whose inventory is shown
+     */
+    void showInventory(Player player);
+
+    /**
+     * Shows the player's name.
+     *
+     * @param name as the name of the player
+     */
+    void showPlayerName(String name);
+
+    /**
+     * Asks the player to pick an item.
+     *
+     * @param verb    as what will be done with the item, such as eat
+     * @param options as the items to pick from, each its inventory number followed by its name
+     * @return the index of the picked option, or -1 if the player picked nothing
+     */
+    int chooseItem(String verb, String[] options);
+}
@@ -0,0 +1,160 @@
+package rogue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values, cheap enough to leave on for every move.
+ *
+ * <p>Values are counted in log-linear buckets: each power of two is split into eight buckets,
+ * so a percentile is never off by more than an eighth of its value. Recording a value is one
+ * atomic increment of its bucket plus two adder updates, and never blocks, so any number of
+ * threads can record into one histogram while JMX reads it.
+ */
+public class Histogram implements HistogramMBean {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = Long.SIZE << SUB_BITS;
+    private static final double PERCENT = 100.0;
+    private static final double P50 = 50;
+    private static final double P90 = 90;
+    private static final double P99 = 99;
+    private static final double P999 = 99.9;
+    private final String unit;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Histogram constructor.
+     *
+     * @param theUnit as the unit values are recorded in
+     */
+    public Histogram(String theUnit) {
+        this.unit = theUnit;
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value as the value to record
+     */
+    public void record(long value) {
+        long clamped = Math.max(value, 0);
+        buckets.incrementAndGet(bucketOf(clamped));
+        count.increment();
+        sum.add(clamped);
+        long largest = max.get();
+        while (clamped > largest && !max.compareAndSet(largest, clamped)) {
+            largest = max.get();
+        }
+    }
+
+    /**
+     * Records the time since a start time taken from System.nanoTime.
+     *
+     * @param startNanos as the start time
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMean() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : (double) sum.sum() / recorded;
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public long getPercentile50() {
+        return getPercentile(P50);
+    }
+
+    @Override
+    public long getPercentile90() {
+        return getPercentile(P90);
+    }
+
+    @Override
+    public long getPercentile99() {
+        return getPercentile(P99);
+    }
+
+    @Override
+    public long getPercentile999() {
+        return getPercentile(P999);
+    }
+
+    /**
+     * Gets the value that a percentage of recorded values are at or below, to within an eighth.
+     *
+     * @param percent as the percentage, from 0 to 100
+     * @return the largest value in the bucket holding the percentile, capped at the maximum
+     */
+    public long getPercentile(double percent) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percent / PERCENT * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) | (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >> SUB_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
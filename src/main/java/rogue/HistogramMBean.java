@@ -0,0 +1,68 @@
+package rogue;
+
+/**
+ * The JMX view of a {@link Histogram}.
+ */
+public interface HistogramMBean {
+
+    /**
+     * Gets the unit every value is recorded in.
+     *
+     * @return the unit, such as ns or bytes
+     */
+    String getUnit();
+
+    /**
+     * Gets how many values have been recorded.
+     *
+     * @return the count
+     */
+    long getCount();
+
+    /**
+     * Gets the mean of every recorded value.
+     *
+     * @return the mean, or 0 if nothing was recorded
+     */
+    double getMean();
+
+    /**
+     * Gets the largest recorded value.
+     *
+     * @return the maximum, or 0 if nothing was recorded
+     */
+    long getMax();
+
+    /**
+     * Gets the median.
+     *
+     * @return the 50th percentile
+     */
+    long getPercentile50();
+
+    /**
+     * Gets the 90th percentile.
+     *
+     * @return the 90th percentile
+     */
+    long getPercentile90();
+
+    /**
+     * Gets the 99th percentile.
+     *
+     * @return the 99th percentile
+     */
+    long getPercentile99();
+
+    /**
+     * Gets the 99.9th percentile.
+     *
+     * @return the 99.9th percentile
+     */
+    long getPercentile999();
+
+    /**
+     * Forgets every recorded value.
+     */
+    void reset();
+}
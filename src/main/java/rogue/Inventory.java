@@ -1,11 +1,45 @@
 package rogue;
 
 import java.io.Serializable;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * The items a player carries, in the order they were picked up.
+ *
+ * <p>Items sit in slots in pickup order. Removing one only empties its slot, and a Fenwick tree
+ * over the slots turns an inventory number into a slot and back in logarithmic time, so adding,
+ * removing and looking up items stays fast with thousands of items. Slots are compacted once
+ * more than half are empty. The item lists for each capability, the dialog options and the
+ * HTML listing are cached and kept up to date in place: picking an item up appends to them, and
+ * removing one takes out its line and renumbers only the options after it.
+ */
 public class Inventory implements Serializable {
 
-    private ArrayList<Item> inventory = new ArrayList<>();
+    private static final int INITIAL_SLOTS = 16;
+    private static final String HTML_HEADER = "<html>Inventory:<br>";
+    private static final String LINE_BREAK = "<br>";
+    private static final String WORN_PREFIX = "W: ";
+    private Item[] slots = new Item[INITIAL_SLOTS];
+    private int[] tree = new int[INITIAL_SLOTS + 1];
+    private int end;
+    private int size;
+    private long version;
+    private IdentityHashMap<Item, Integer> slotOf = new IdentityHashMap<>();
+    private HashMap<Integer, Item> byId = new HashMap<>();
+    private transient List<Item> view;
+    private transient HashMap<Class<?>, ArrayList<Item>> capable;
+    private transient HashMap<Class<?>, String[]> options;
+    private transient StringBuilder html;
+    private transient String htmlText;
+    private transient Item htmlWorn;
 
     /**
      * Default constructor.
@@ -15,20 +49,33 @@ public class Inventory implements Serializable {
 
 
     /**
-     * Displays the inventory contents.
+     * Displays the inventory contents. The listing is cached, so this only does work after the
+     * inventory or the worn item changed.
      * @param player as corresponding player to this inventory instance
      * @return the completed string representation of the inventory
      */
     public String displayInventory(Player player) {
-        StringBuilder builder = new StringBuilder();
-        for (Item item : inventory) {
-            if (player.getWearableItem() == item) {
-                builder.append("W: ").append(item.getName()).append("\n");
-            } else {
-                builder.append(item.getName()).append("\n");
+        if (html == null || htmlWorn != player.getWearableItem()) {
+            htmlWorn = player.getWearableItem();
+            html = new StringBuilder(HTML_HEADER);
+            for (int slot = 0; slot < end; slot++) {
+                if (slots[slot] != null) {
+                    appendHtml(slots[slot]);
+                }
             }
+            htmlText = null;
+        }
+        if (htmlText == null) {
+            htmlText = html.toString();
         }
-        return "<html>Inventory:<br>" + builder.toString().replaceAll("\n", "<br>");
+        return htmlText;
+    }
+
+    private void appendHtml(Item item) {
+        if (item == htmlWorn) {
+            html.append(WORN_PREFIX);
+        }
+        html.append(item.getName()).append(LINE_BREAK);
     }
 
     /**
@@ -36,25 +83,265 @@ public class Inventory implements Serializable {
      * @param item as the item to remove
      */
    public void removeItem(Item item) {
-        inventory.remove(item);
+        Integer slot = slotOf.get(item);
+        if (slot == null) {
+            return;
+        }
+        int number = getNumber(item);
+        if (html != null) {
+            int start = HTML_HEADER.length();
+            for (int before = 0; before < slot; before++) {
+                if (slots[before] != null) {
+                    start += htmlLength(slots[before]);
+                }
+            }
+            html.delete(start, start + htmlLength(item));
+            htmlText = null;
+        }
+        slotOf.remove(item);
+        slots[slot] = null;
+        addToTree(slot, -1);
+        size--;
+        version++;
+        if (byId.get(item.getId()) == item) {
+            byId.remove(item.getId());
+        }
+        if (capable != null) {
+            forget(item, number);
+        }
+        if (end > INITIAL_SLOTS && size < end / 2) {
+            compact();
+        }
    }
 
+    private int htmlLength(Item item) {
+        int length = String.valueOf(item.getName()).length() + LINE_BREAK.length();
+        return item == htmlWorn ? length + WORN_PREFIX.length() : length;
+    }
+
+    /**
+     * Takes a removed item out of the cached capability lists. Its own options are dropped, and
+     * the other options only renumber the items that came after it.
+     *
+     * @param item   as the removed item
+     * @param number as the inventory number the item had
+     */
+    private void forget(Item item, int number) {
+        for (Map.Entry<Class<?>, ArrayList<Item>> entry : capable.entrySet()) {
+            ArrayList<Item> items = entry.getValue();
+            if (entry.getKey().isInstance(item)) {
+                for (int i = 0; i < items.size(); i++) {
+                    if (items.get(i) == item) {
+                        items.remove(i);
+                        break;
+                    }
+                }
+                options.remove(entry.getKey());
+            } else {
+                String[] labels = options.get(entry.getKey());
+                if (labels != null) {
+                    for (int i = firstFrom(items, number); i < labels.length; i++) {
+                        labels[i] = getNumber(items.get(i)) + " " + items.get(i).getName();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the first item in a list kept in inventory order whose number is at least a given one.
+     *
+     * @param items  as the items, all in the inventory
+     * @param number as the inventory number
+     * @return the index of the item, or the list size if there is none
+     */
+    private int firstFrom(List<Item> items, int number) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getNumber(items.get(mid)) < number) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     /**
      * Adds an item to the inventory.
      *
      * @param item as the item to add
      */
     public void addItem(Item item) {
-        inventory.add(item);
+        if (end == slots.length) {
+            if (size < end / 2) {
+                compact();
+            } else {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+                buildTree();
+            }
+        }
+        slots[end] = item;
+        slotOf.put(item, end);
+        byId.putIfAbsent(item.getId(), item);
+        addToTree(end, 1);
+        end++;
+        size++;
+        version++;
+        if (capable != null) {
+            for (Map.Entry<Class<?>, ArrayList<Item>> entry : capable.entrySet()) {
+                if (entry.getKey().isInstance(item)) {
+                    entry.getValue().add(item);
+                    options.remove(entry.getKey());
+                }
+            }
+        }
+        if (html != null) {
+            appendHtml(item);
+            htmlText = null;
+        }
     }
 
     /**
-     * Gets the inventory of the player.
+     * Gets the inventory of the player, in pickup order. The list is a read only view.
      *
      * @return the inventory for the player
      */
-    public ArrayList<Item> getItems() {
-        return inventory;
+    public List<Item> getItems() {
+        if (view == null) {
+            view = new AbstractList<Item>() {
+                @Override
+                public Item get(int index) {
+                    return getItem(index);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public int indexOf(Object item) {
+                    return getNumber((Item) item) - 1;
+                }
+            };
+        }
+        return view;
+    }
+
+    /**
+     * Gets an item by its position in the inventory.
+     *
+     * @param index as the 0 based position
+     * @return the item
+     * @throws IndexOutOfBoundsException if there is no item at that position
+     */
+    public Item getItem(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Item " + index + " of " + size);
+        }
+        int slot = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(end); step > 0; step >>= 1) {
+            if (slot + step <= end && tree[slot + step] < remaining) {
+                slot += step;
+                remaining -= tree[slot];
+            }
+        }
+        return slots[slot];
+    }
+
+    /**
+     * Gets the 1 based inventory number of an item, as used by item commands.
+     *
+     * @param item as the item to look for
+     * @return the inventory number, or 0 if the item is not in the inventory
+     */
+    public int getNumber(Item item) {
+        Integer slot = slotOf.get(item);
+        if (slot == null) {
+            return 0;
+        }
+        int number = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i) {
+            number += tree[i];
+        }
+        return number;
+    }
+
+    /**
+     * Gets a carried item by its id. Item ids are unique within a game.
+     *
+     * @param itemId as the id of the item
+     * @return the item, or null if no carried item has that id
+     */
+    public Item getItemById(int itemId) {
+        return byId.get(itemId);
+    }
+
+    /**
+     * Gets how many items are carried.
+     *
+     * @return the item count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the carried items that can be used in one way, such as every {@link Edible}, in
+     * inventory order.
+     *
+     * @param capability as the interface the items implement
+     * @return a read only list of the items
+     */
+    public List<Item> getItems(Class<?> capability) {
+        if (capable == null) {
+            capable = new HashMap<>();
+            options = new HashMap<>();
+        }
+        ArrayList<Item> items = capable.get(capability);
+        if (items == null) {
+            items = new ArrayList<>();
+            for (int slot = 0; slot < end; slot++) {
+                if (capability.isInstance(slots[slot])) {
+                    items.add(slots[slot]);
+                }
+            }
+            capable.put(capability, items);
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Gets a dialog option for every carried item that can be used in one way, each its
+     * inventory number followed by its name.
+     *
+     * @param capability as the interface the items implement
+     * @return the options, in inventory order
+     */
+    public String[] getOptions(Class<?> capability) {
+        List<Item> items = getItems(capability);
+        String[] labels = options.get(capability);
+        if (labels == null) {
+            labels = new String[items.size()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = getNumber(items.get(i)) + " " + items.get(i).getName();
+            }
+            options.put(capability, labels);
+        }
+        return labels.clone();
+    }
+
+    /**
+     * Gets a number that changes every time an item is added or removed.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
     }
 
     /**
@@ -62,7 +349,65 @@ public class Inventory implements Serializable {
      *
      * @param inv as the new inventory for the player
      */
-    public void setInventory(ArrayList<Item> inv) {
-        this.inventory = inv;
+    public void setInventory(Collection<Item> inv) {
+        slots = new Item[Math.max(INITIAL_SLOTS, Integer.highestOneBit(Math.max(inv.size(), 1)) * 2)];
+        slotOf = new IdentityHashMap<>();
+        byId = new HashMap<>();
+        end = 0;
+        size = 0;
+        for (Item item : inv) {
+            slots[end] = item;
+            slotOf.put(item, end);
+            byId.putIfAbsent(item.getId(), item);
+            end++;
+            size++;
+        }
+        buildTree();
+        changed();
+    }
+
+    private void changed() {
+        version++;
+        capable = null;
+        options = null;
+        html = null;
+    }
+
+    /**
+     * Moves every item into the first slots, keeping their order.
+     */
+    private void compact() {
+        int next = 0;
+        for (int slot = 0; slot < end; slot++) {
+            if (slots[slot] != null) {
+                slots[next] = slots[slot];
+                slotOf.put(slots[next], next);
+                next++;
+            }
+        }
+        Arrays.fill(slots, next, end, null);
+        end = next;
+        buildTree();
+    }
+
+    private void buildTree() {
+        tree = new int[slots.length + 1];
+        for (int slot = 0; slot < end; slot++) {
+            if (slots[slot] != null) {
+                tree[slot + 1]++;
+            }
+        }
+        for (int i = 1; i <= slots.length; i++) {
+            int parent = i + (i & -i);
+            if (parent <= slots.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private void addToTree(int slot, int delta) {
+        for (int i = slot + 1; i <= slots.length; i += i & -i) {
+            tree[i] += delta;
+        }
     }
 }
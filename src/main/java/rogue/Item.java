@@ -1,6 +1,5 @@
 package rogue;
 
-import java.awt.Point;
 import java.io.Serializable;
 
 /**
@@ -11,7 +10,8 @@ public class Item implements Serializable {
     private int id;
     private String itemName;
     private String itemType;
-    private Point xYLocation;
+    private TileKind kind = TileKind.UNKNOWN;
+    private int xYLocation = Position.NONE;
     private Character displayCharacter;
     private String description;
     private Room currentRoom;
@@ -32,12 +32,12 @@ public class Item implements Serializable {
      * @param name       as the name of the item
      * @param desc       as the description of the item
      * @param type       as the type of the item
-     * @param xyLocation as the location of the item
+     * @param xyLocation as the packed location of the item
      */
-    public Item(int itemId, String name, String desc, String type, Point xyLocation) {
+    public Item(int itemId, String name, String desc, String type, int xyLocation) {
         this.id = itemId;
         this.itemName = name;
-        this.itemType = type;
+        setItemType(type);
         this.xYLocation = xyLocation;
         this.description = desc;
     }
@@ -48,13 +48,13 @@ public class Item implements Serializable {
      * @param itemId     as the id of the item
      * @param name       as the name of the item
      * @param type       as the type of the item
-     * @param xyLocation as the location of the item
+     * @param xyLocation as the packed location of the item
      * @param newRoom    as the current room the item resides in
      */
-    public Item(int itemId, String name, String type, Point xyLocation, Room newRoom) {
+    public Item(int itemId, String name, String type, int xyLocation, Room newRoom) {
         this.id = itemId;
         this.itemName = name;
-        this.itemType = type;
+        setItemType(type);
         this.xYLocation = xyLocation;
         this.currentRoom = newRoom;
     }
@@ -66,10 +66,10 @@ public class Item implements Serializable {
      * @param name       as the name of the item
      * @param desc       as the description of the item
      * @param type       as the type of item
-     * @param xyLocation as the location of the item
+     * @param xyLocation as the packed location of the item
      * @return the new item subclass instance
      */
-    public static Item createItem(int itemId, String name, String desc, String type, Point xyLocation) {
+    public static Item createItem(int itemId, String name, String desc, String type, int xyLocation) {
         if (type.equalsIgnoreCase("Food")) {
             return new Food(itemId, name, desc, type, xyLocation);
         } else if (type.equalsIgnoreCase("Clothing")) {
@@ -166,6 +166,7 @@ public class Item implements Serializable {
      */
     public void setItemType(String newItemType) {
         this.itemType = newItemType;
+        this.kind = TileKind.forItemType(newItemType);
     }
 
     /**
@@ -174,7 +175,16 @@ public class Item implements Serializable {
      * @param newItemType as the new type for the item
      */
     public void setType(String newItemType) {
-        this.itemType = newItemType;
+        setItemType(newItemType);
+    }
+
+    /**
+     * Gets the kind of tile the item is drawn as, resolved from its type.
+     *
+     * @return the tile kind
+     */
+    public TileKind getKind() {
+        return kind;
     }
 
     /**
@@ -216,18 +226,18 @@ public class Item implements Serializable {
     /**
      * Gets the point where the item resides at currently.
      *
-     * @return the point at which the item is found
+     * @return the packed point at which the item is found
      */
-    public Point getXyLocation() {
+    public int getXyLocation() {
         return xYLocation;
     }
 
     /**
      * Sets the location of the item.
      *
-     * @param newXyLocation as the new point the item will reside at
+     * @param newXyLocation as the new packed point the item will reside at
      */
-    public void setXyLocation(Point newXyLocation) {
+    public void setXyLocation(int newXyLocation) {
         this.xYLocation = newXyLocation;
     }
 
@@ -0,0 +1,65 @@
+package rogue;
+
+import java.io.Serializable;
+
+/**
+ * The parsed definition of an item: everything about it except where it is placed.
+ */
+public class ItemData implements Serializable {
+
+    private final int id;
+    private final String name;
+    private final String type;
+    private final String description;
+
+    /**
+     * Item data constructor.
+     *
+     * @param itemId   as the id of the item
+     * @param itemName as the name of the item
+     * @param itemType as the type of the item
+     * @param desc     as the description of the item
+     */
+    public ItemData(int itemId, String itemName, String itemType, String desc) {
+        this.id = itemId;
+        this.name = itemName;
+        this.type = itemType;
+        this.description = desc;
+    }
+
+    /**
+     * Gets the id of the item.
+     *
+     * @return the id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of the item.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the type of the item.
+     *
+     * @return the type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Gets the description of the item.
+     *
+     * @return the description
+     */
+    public String getDescription() {
+        return description;
+    }
+}
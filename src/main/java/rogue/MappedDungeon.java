@@ -0,0 +1,468 @@
+package rogue;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A parsed dungeon kept in a memory-mapped file instead of on the heap.
+ *
+ * <p>The file holds fixed-size records: one per room with its size, doors and where its loot
+ * starts, three ints per piece of loot, and id indexes sorted so a room or item is found by
+ * binary search. Rooms are handed out as flyweight views that read their record on every
+ * call, and item definitions are decoded only when asked for. Opening a dungeon reads a
+ * header and the symbols and nothing else, and every process that maps the same file shares one
+ * copy of it through the page cache. Each section is mapped on its own, so a section is limited
+ * to 2 GB but the file is not.
+ *
+ * <p>Paired with a lazy game, only the rooms around the player are ever built on the heap.
+ */
+public class MappedDungeon extends RogueParser {
+
+    public static final int MAGIC = 0x52574C44;
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".rwld";
+    private static final int SECTIONS = 6;
+    private static final int HEADER_SIZE = 6 * Integer.BYTES + SECTIONS * 2 * Long.BYTES;
+    private static final int ROOM_FIELDS = 14;
+    private static final int ROOM_SIZE = ROOM_FIELDS * Integer.BYTES;
+    private static final int LOOT_SIZE = 3 * Integer.BYTES;
+    private static final int INDEX_SIZE = 2 * Integer.BYTES;
+    private static final int WALLS = 4;
+    private static final int DOORS = 4;
+    private static final int CONNECTED = DOORS + WALLS;
+    private static final int LOOT_START = CONNECTED + WALLS;
+    private static final int ROOMS = 0;
+    private static final int LOOT = 1;
+    private static final int ROOM_INDEX = 2;
+    private static final int ITEM_INDEX = 3;
+    private static final int ITEMS = 4;
+    private static final int SYMBOLS = 5;
+    private static final String DIRECTIONS = "NSEW";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final ByteBuffer[] sections = new ByteBuffer[SECTIONS];
+    private final int roomCount;
+    private final int itemCount;
+    private final int startRoomId;
+    private ArrayList<RoomDefinition> roomViews;
+    private HashMap<Integer, ItemData> itemDefinitions;
+
+    /**
+     * Maps a dungeon file written by {@link #write(RogueParser, String)}.
+     *
+     * @param filename as the dungeon file
+     * @throws IOException if the file cannot be mapped or is not a dungeon file
+     */
+    public MappedDungeon(String filename) throws IOException {
+        try (FileChannel channel = new RandomAccessFile(filename, "r").getChannel()) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a dungeon file: " + filename);
+            }
+            roomCount = header.getInt();
+            itemCount = header.getInt();
+            startRoomId = header.getInt();
+            header.getInt();
+            for (int i = 0; i < SECTIONS; i++) {
+                long offset = header.getLong();
+                long length = header.getLong();
+                if (length > Integer.MAX_VALUE || offset + length > channel.size()) {
+                    throw new IOException("Corrupt dungeon file: " + filename);
+                }
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            }
+        }
+        ByteBuffer symbols = sections[SYMBOLS].duplicate();
+        while (symbols.hasRemaining()) {
+            char symbol = symbols.getChar();
+            addSymbol(readString(symbols), symbol);
+        }
+    }
+
+    /**
+     * Gets a room by id as a view over its record.
+     *
+     * @param roomId as the id of the room
+     * @return the room view, or null if there is no room with that id
+     */
+    @Override
+    public RoomDefinition getRoomData(int roomId) {
+        int record = findIndex(sections[ROOM_INDEX], roomCount, roomId);
+        return record == -1 ? null : new RoomView(record * ROOM_SIZE);
+    }
+
+    @Override
+    public int getStartRoomId() {
+        return startRoomId;
+    }
+
+    /**
+     * Decodes the definition of an item.
+     *
+     * @param itemId as the id of the item
+     * @return the item definition, or null if there is none
+     */
+    @Override
+    public ItemData getItemDefinition(int itemId) {
+        int offset = findIndex(sections[ITEM_INDEX], itemCount, itemId);
+        if (offset == -1) {
+            return null;
+        }
+        ByteBuffer items = sections[ITEMS].duplicate();
+        items.position(offset);
+        return new ItemData(items.getInt(), readString(items), readString(items), readString(items));
+    }
+
+    /**
+     * Gets a view of every room. This touches every room record, so a lazy game never calls it.
+     *
+     * @return the room views in file order
+     */
+    @Override
+    public ArrayList<RoomDefinition> getRooms() {
+        if (roomViews == null) {
+            roomViews = new ArrayList<>(roomCount);
+            for (int i = 0; i < roomCount; i++) {
+                roomViews.add(new RoomView(i * ROOM_SIZE));
+            }
+        }
+        return roomViews;
+    }
+
+    /**
+     * Decodes every item definition. This touches every item record, so a lazy game never calls it.
+     *
+     * @return a map from item id to definition
+     */
+    @Override
+    public Map<Integer, ItemData> getAllPossibleItems() {
+        if (itemDefinitions == null) {
+            itemDefinitions = new HashMap<>();
+            ByteBuffer index = sections[ITEM_INDEX];
+            for (int i = 0; i < itemCount; i++) {
+                ItemData item = getItemDefinition(index.getInt(i * INDEX_SIZE));
+                itemDefinitions.put(item.getId(), item);
+            }
+        }
+        return itemDefinitions;
+    }
+
+    /**
+     * Gets the number of rooms in the dungeon.
+     *
+     * @return the room count
+     */
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    private static int findIndex(ByteBuffer index, int count, int id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = index.getInt(mid * INDEX_SIZE);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return index.getInt(mid * INDEX_SIZE + Integer.BYTES);
+            }
+        }
+        return -1;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A room whose every field is read from its record in the mapped file. Dungeon files hold no
+     * monsters, so a view never has any.
+     */
+    private final class RoomView implements RoomDefinition {
+
+        private final int offset;
+
+        RoomView(int recordOffset) {
+            this.offset = recordOffset;
+        }
+
+        private int field(int index) {
+            return sections[ROOMS].getInt(offset + index * Integer.BYTES);
+        }
+
+        @Override
+        public int getId() {
+            return field(0);
+        }
+
+        @Override
+        public boolean isStart() {
+            return field(1) != 0;
+        }
+
+        @Override
+        public int getWidth() {
+            return field(2);
+        }
+
+        @Override
+        public int getHeight() {
+            return field(3);
+        }
+
+        @Override
+        public int getDoorPosition(String direction) {
+            int wall = RoomData.wallIndex(direction);
+            return wall == -1 ? -1 : field(DOORS + wall);
+        }
+
+        @Override
+        public int getConnectedRoom(String direction) {
+            int wall = RoomData.wallIndex(direction);
+            return wall == -1 ? -1 : field(CONNECTED + wall);
+        }
+
+        @Override
+        public int getLootCount() {
+            return field(LOOT_START + 1);
+        }
+
+        @Override
+        public int getLootId(int index) {
+            return loot(index, 0);
+        }
+
+        @Override
+        public int getLootX(int index) {
+            return loot(index, 1);
+        }
+
+        @Override
+        public int getLootY(int index) {
+            return loot(index, 2);
+        }
+
+        private int loot(int index, int part) {
+            return sections[LOOT].getInt((field(LOOT_START) + index) * LOOT_SIZE + part * Integer.BYTES);
+        }
+
+        @Override
+        public int getMonsterCount() {
+            return 0;
+        }
+
+        @Override
+        public int getMonsterX(int index) {
+            throw noMonster(index);
+        }
+
+        @Override
+        public int getMonsterY(int index) {
+            throw noMonster(index);
+        }
+
+        @Override
+        public int getMonsterHp(int index) {
+            throw noMonster(index);
+        }
+
+        @Override
+        public Behavior getMonsterBehavior(int index) {
+            throw noMonster(index);
+        }
+
+        private IndexOutOfBoundsException noMonster(int index) {
+            return new IndexOutOfBoundsException("Mapped rooms have no monster " + index);
+        }
+    }
+
+    /**
+     * Writes a parsed dungeon to a file that can be mapped.
+     *
+     * @param parser   as the parsed dungeon
+     * @param filename as the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(RogueParser parser, String filename) throws IOException {
+        try (FileChannel channel = new FileOutputStream(filename).getChannel()) {
+            SectionWriter out = new SectionWriter(channel);
+            ArrayList<RoomDefinition> rooms = parser.getRooms();
+            Map<Integer, ItemData> items = parser.getAllPossibleItems();
+            long[] bounds = new long[SECTIONS * 2];
+            out.skip(HEADER_SIZE);
+            bounds[ROOMS * 2] = out.position();
+            int lootStart = 0;
+            for (RoomDefinition room : rooms) {
+                writeRoom(out, room, lootStart);
+                lootStart += room.getLootCount();
+            }
+            out.end(bounds, ROOMS);
+            for (RoomDefinition room : rooms) {
+                for (int i = 0; i < room.getLootCount(); i++) {
+                    out.putInt(room.getLootId(i)).putInt(room.getLootX(i)).putInt(room.getLootY(i));
+                }
+            }
+            out.end(bounds, LOOT);
+            writeRoomIndex(out, rooms);
+            out.end(bounds, ROOM_INDEX);
+            int[] itemIds = items.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            int itemOffset = 0;
+            for (int id : itemIds) {
+                out.putInt(id).putInt(itemOffset);
+                itemOffset += itemSize(items.get(id));
+            }
+            out.end(bounds, ITEM_INDEX);
+            for (int id : itemIds) {
+                ItemData item = items.get(id);
+                out.putInt(item.getId()).putString(item.getName()).putString(item.getType())
+                        .putString(item.getDescription());
+            }
+            out.end(bounds, ITEMS);
+            for (Map.Entry<String, Character> symbol : parser.getSymbols().entrySet()) {
+                out.putChar(symbol.getValue()).putString(symbol.getKey());
+            }
+            out.end(bounds, SYMBOLS);
+            out.flush();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(rooms.size()).putInt(itemIds.length)
+                    .putInt(parser.getStartRoomId()).putInt(0);
+            for (long bound : bounds) {
+                header.putLong(bound);
+            }
+            header.flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+    }
+
+    private static void writeRoom(SectionWriter out, RoomDefinition room, int lootStart) throws IOException {
+        out.putInt(room.getId()).putInt(room.isStart() ? 1 : 0).putInt(room.getWidth()).putInt(room.getHeight());
+        for (int wall = 0; wall < WALLS; wall++) {
+            out.putInt(room.getDoorPosition(String.valueOf(DIRECTIONS.charAt(wall))));
+        }
+        for (int wall = 0; wall < WALLS; wall++) {
+            out.putInt(room.getConnectedRoom(String.valueOf(DIRECTIONS.charAt(wall))));
+        }
+        out.putInt(lootStart).putInt(room.getLootCount());
+    }
+
+    private static void writeRoomIndex(SectionWriter out, ArrayList<RoomDefinition> rooms) throws IOException {
+        long[] sorted = new long[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            sorted[i] = ((long) rooms.get(i).getId() << Integer.SIZE) | i;
+        }
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            int id = (int) (sorted[i] >> Integer.SIZE);
+            if (i == 0 || id != (int) (sorted[i - 1] >> Integer.SIZE)) {
+                out.putInt(id).putInt((int) sorted[i]);
+            }
+        }
+    }
+
+    private static int itemSize(ItemData item) {
+        return Integer.BYTES + stringSize(item.getName()) + stringSize(item.getType())
+                + stringSize(item.getDescription());
+    }
+
+    private static int stringSize(String text) {
+        return Integer.BYTES + String.valueOf(text).getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Writes sections through one reused buffer and records where each one starts and ends.
+     */
+    private static final class SectionWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private long written;
+
+        SectionWriter(FileChannel theChannel) {
+            this.channel = theChannel;
+        }
+
+        long position() {
+            return written + buffer.position();
+        }
+
+        void skip(int bytes) throws IOException {
+            for (int i = 0; i < bytes; i++) {
+                ensure(1);
+                buffer.put((byte) 0);
+            }
+        }
+
+        SectionWriter putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+            return this;
+        }
+
+        SectionWriter putChar(char value) throws IOException {
+            ensure(Character.BYTES);
+            buffer.putChar(value);
+            return this;
+        }
+
+        SectionWriter putString(String text) throws IOException {
+            byte[] bytes = String.valueOf(text).getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            for (int i = 0; i < bytes.length; i += BUFFER_SIZE) {
+                int length = Math.min(BUFFER_SIZE, bytes.length - i);
+                ensure(length);
+                buffer.put(bytes, i, length);
+            }
+            return this;
+        }
+
+        void end(long[] bounds, int section) {
+            bounds[section * 2 + 1] = position() - bounds[section * 2];
+            if (section + 1 < SECTIONS) {
+                bounds[(section + 1) * 2] = position();
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Converts a file locations file and the files it names into a dungeon file.
+     *
+     * @param args the file locations file and the dungeon file to write
+     * @throws IOException if the dungeon file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: MappedDungeon <file locations json> <dungeon file>");
+            return;
+        }
+        write(new RogueParser(args[0]), args[1]);
+        System.out.println("Wrote " + args[1]);
+    }
+}
@@ -0,0 +1,463 @@
+package rogue;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Every monster in a game, kept as parallel arrays of primitives rather than one object each.
+ *
+ * <p>A monster is an index into the arrays: its room, packed position, hit points, behavior,
+ * and the tick it next acts on. Removing a monster moves the last one into its index, so the
+ * arrays stay dense and {@link #tick(Player)} is one linear pass over them that allocates
+ * nothing. The monsters in each room are chained through the next and previous arrays, so a
+ * room is drawn without looking at any other room's monsters. Every tile of every room that has
+ * held a monster also has a bit in one occupancy array, laid out room after room in the order
+ * the rooms got their first monster. Whether a tile holds a monster is one bit test, so the
+ * player, items and other monsters are kept from walking into each other in constant time, and
+ * as monsters are mostly stored in room order a tick reads the bits nearly in sequence. The
+ * tiles just inside doors and under items are kept as bits in the same layout, refreshed from
+ * a room only after the room reports that its doors or items changed, so a monster's step
+ * does not touch its room at all.
+ *
+ * <p>Turns are worked out from the tick and the monster's index alone, so replaying the same
+ * moves from the same state, such as a save or a journal checkpoint, gives the same game.
+ */
+public final class Monsters implements Serializable {
+
+    public static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long MIX_1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX_2 = 0x94D049BB133111EBL;
+    private static final int MIX_SHIFT_1 = 30;
+    private static final int MIX_SHIFT_2 = 27;
+    private static final int MIX_SHIFT_3 = 31;
+    private static final int DIRECTION_SHIFT = 62;
+    private static final int INT_BITS = 32;
+    private static final int WORD_SHIFT = 6;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private int count;
+    private int tick;
+    private int[] roomSlot = new int[INITIAL_CAPACITY];
+    private int[] position = new int[INITIAL_CAPACITY];
+    private int[] hp = new int[INITIAL_CAPACITY];
+    private byte[] behavior = new byte[INITIAL_CAPACITY];
+    private int[] readyAt = new int[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] prev = new int[INITIAL_CAPACITY];
+    private int roomCount;
+    private Room[] rooms = new Room[INITIAL_CAPACITY];
+    private int[] heads = new int[INITIAL_CAPACITY];
+    private int[] roomWidth = new int[INITIAL_CAPACITY];
+    private int[] roomHeight = new int[INITIAL_CAPACITY];
+    private int[] firstTile = new int[INITIAL_CAPACITY];
+    private int tileCount;
+    private long[] occupied = new long[INITIAL_CAPACITY];
+    private long[] blocked = new long[INITIAL_CAPACITY];
+    private boolean[] stale = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * Gets how many monsters there are.
+     *
+     * @return the monster count
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets how many ticks have passed.
+     *
+     * @return the tick count
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Sets how many ticks have passed, as when loading a save.
+     *
+     * @param ticks as the tick count
+     */
+    void setTick(int ticks) {
+        this.tick = ticks;
+    }
+
+    /**
+     * Puts a monster on a floor tile. The tile must be inside the walls, not just inside a door,
+     * and free of items, the player and other monsters.
+     *
+     * @param room      as the room to put the monster in
+     * @param pos       as the packed position of the monster
+     * @param hitPoints as the hits it takes to kill the monster, at least 1
+     * @param kind      as what the monster does on its turns
+     * @return the index of the new monster, or {@link #NONE} if the tile is not free
+     */
+    public int add(Room room, int pos, int hitPoints, Behavior kind) {
+        int slot = slotOf(room);
+        if (hitPoints < 1 || !isOpenFloor(room, pos) || (slot != NONE && isOccupied(slot, pos))) {
+            return NONE;
+        }
+        if (slot == NONE) {
+            slot = addRoom(room);
+        }
+        if (count == position.length) {
+            grow();
+        }
+        int index = count++;
+        roomSlot[index] = slot;
+        position[index] = pos;
+        hp[index] = hitPoints;
+        behavior[index] = (byte) kind.ordinal();
+        readyAt[index] = kind.getDelay() == 0 ? Integer.MAX_VALUE : tick + kind.getDelay();
+        prev[index] = NONE;
+        next[index] = heads[slot];
+        if (heads[slot] != NONE) {
+            prev[heads[slot]] = index;
+        }
+        heads[slot] = index;
+        flip(slot, pos);
+        return index;
+    }
+
+    /**
+     * Removes a monster. The last monster takes its index.
+     *
+     * @param index as the index of the monster to remove
+     */
+    public void remove(int index) {
+        flip(roomSlot[index], position[index]);
+        unlink(index);
+        int last = --count;
+        if (index != last) {
+            roomSlot[index] = roomSlot[last];
+            position[index] = position[last];
+            hp[index] = hp[last];
+            behavior[index] = behavior[last];
+            readyAt[index] = readyAt[last];
+            next[index] = next[last];
+            prev[index] = prev[last];
+            if (prev[index] == NONE) {
+                heads[roomSlot[index]] = index;
+            } else {
+                next[prev[index]] = index;
+            }
+            if (next[index] != NONE) {
+                prev[next[index]] = index;
+            }
+        }
+    }
+
+    /**
+     * Hits a monster once, removing it when it runs out of hit points.
+     *
+     * @param index as the index of the monster
+     * @return true if the monster was killed
+     */
+    public boolean hit(int index) {
+        if (--hp[index] > 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    /**
+     * Finds the monster on a tile. An empty tile is answered by one bit test, and only an
+     * occupied one walks the room's monsters.
+     *
+     * @param room as the room to look in
+     * @param pos  as the packed position to look at
+     * @return the index of the monster, or {@link #NONE} if the tile has none
+     */
+    public int at(Room room, int pos) {
+        int slot = slotOf(room);
+        if (slot == NONE || !isOccupied(slot, pos)) {
+            return NONE;
+        }
+        int index = heads[slot];
+        while (index != NONE && position[index] != pos) {
+            index = next[index];
+        }
+        return index;
+    }
+
+    /**
+     * Gets the first monster in a room, to walk the room's monsters with {@link #next(int)}.
+     *
+     * @param room as the room
+     * @return the index of a monster, or {@link #NONE} if the room has none
+     */
+    public int first(Room room) {
+        int slot = slotOf(room);
+        return slot == NONE ? NONE : heads[slot];
+    }
+
+    /**
+     * Gets the next monster in the same room.
+     *
+     * @param index as the index of a monster
+     * @return the index of the next monster, or {@link #NONE} if it was the last one
+     */
+    public int next(int index) {
+        return next[index];
+    }
+
+    /**
+     * Gets the room a monster is in.
+     *
+     * @param index as the index of the monster
+     * @return the room
+     */
+    public Room getRoom(int index) {
+        return rooms[roomSlot[index]];
+    }
+
+    /**
+     * Gets where a monster stands.
+     *
+     * @param index as the index of the monster
+     * @return the packed position
+     */
+    public int getPosition(int index) {
+        return position[index];
+    }
+
+    /**
+     * Gets how many more hits a monster takes to kill.
+     *
+     * @param index as the index of the monster
+     * @return the hit points
+     */
+    public int getHp(int index) {
+        return hp[index];
+    }
+
+    /**
+     * Gets what a monster does on its turns.
+     *
+     * @param index as the index of the monster
+     * @return the behavior
+     */
+    public Behavior getBehavior(int index) {
+        return Behavior.forOrdinal(behavior[index]);
+    }
+
+    /**
+     * Gets the tick a monster next acts on.
+     *
+     * @param index as the index of the monster
+     * @return the tick, or Integer.MAX_VALUE if the monster never acts
+     */
+    public int getReadyAt(int index) {
+        return readyAt[index];
+    }
+
+    /**
+     * Sets the tick a monster next acts on, as when loading a save.
+     *
+     * @param index as the index of the monster
+     * @param ready as the tick
+     */
+    void setReadyAt(int index, int ready) {
+        readyAt[index] = ready;
+    }
+
+    /**
+     * Marks the doors and items of a room as changed, so the tiles they block are looked up
+     * again before a monster in the room next steps.
+     *
+     * @param room as the room that changed
+     */
+    void invalidate(Room room) {
+        int slot = slotOf(room);
+        if (slot != NONE) {
+            stale[slot] = true;
+        }
+    }
+
+    /**
+     * Advances every monster by one tick. Monsters whose turn it is wander a step at random,
+     * or step towards the player if they chase and share the player's room. A monster whose
+     * step is blocked stays where it is.
+     *
+     * @param player as the player to chase and keep off, or null
+     */
+    public void tick(Player player) {
+        tick++;
+        Room playerRoom = player == null ? null : player.getCurrentRoom();
+        int playerSlot = playerRoom == null ? NONE : slotOf(playerRoom);
+        int target = player == null ? Position.NONE : player.getXyLocation();
+        for (int i = 0; i < count; i++) {
+            if (readyAt[i] <= tick) {
+                Behavior kind = Behavior.forOrdinal(behavior[i]);
+                readyAt[i] = tick + kind.getDelay();
+                if (kind == Behavior.CHASE && roomSlot[i] == playerSlot) {
+                    chase(i, target);
+                } else {
+                    step(i, DIRECTIONS[(int) (mix(tick, i) >>> DIRECTION_SHIFT)], roomSlot[i] == playerSlot, target);
+                }
+            }
+        }
+    }
+
+    private void chase(int index, int target) {
+        int dx = Position.x(target) - Position.x(position[index]);
+        int dy = Position.y(target) - Position.y(position[index]);
+        Direction across = dx < 0 ? Direction.WEST : Direction.EAST;
+        Direction along = dy < 0 ? Direction.NORTH : Direction.SOUTH;
+        boolean acrossFirst = Math.abs(dx) >= Math.abs(dy);
+        Direction primary = acrossFirst ? across : along;
+        Direction secondary = acrossFirst ? along : across;
+        if ((acrossFirst ? dx : dy) == 0 || !step(index, primary, true, target)) {
+            if ((acrossFirst ? dy : dx) != 0) {
+                step(index, secondary, true, target);
+            }
+        }
+    }
+
+    /**
+     * Moves a monster a tile if nothing stands in the way.
+     *
+     * @return true if the monster moved
+     */
+    private boolean step(int index, Direction direction, boolean withPlayer, int playerPos) {
+        int slot = roomSlot[index];
+        int to = direction.step(position[index]);
+        int x = Position.x(to);
+        int y = Position.y(to);
+        if (x <= 0 || x >= roomWidth[slot] - 1 || y <= 0 || y >= roomHeight[slot] - 1
+                || (withPlayer && to == playerPos)) {
+            return false;
+        }
+        if (stale[slot]) {
+            refresh(slot);
+        }
+        int bit = firstTile[slot] + y * roomWidth[slot] + x;
+        if (((occupied[bit >>> WORD_SHIFT] | blocked[bit >>> WORD_SHIFT]) & (1L << bit)) != 0) {
+            return false;
+        }
+        flip(slot, position[index]);
+        position[index] = to;
+        flip(slot, to);
+        return true;
+    }
+
+    /**
+     * Looks up again which tiles of a room are just inside a door or under an item.
+     */
+    private void refresh(int slot) {
+        Room room = rooms[slot];
+        int end = firstTile[slot] + roomWidth[slot] * roomHeight[slot];
+        for (int bit = firstTile[slot]; bit < end; bit++) {
+            blocked[bit >>> WORD_SHIFT] &= ~(1L << bit);
+        }
+        for (Direction wall : DIRECTIONS) {
+            int door = room.getDoorPoint(wall);
+            if (door != Position.NONE) {
+                block(slot, wall.opposite().step(door));
+            }
+        }
+        for (Item item : room.getRoomItems()) {
+            block(slot, item.getXyLocation());
+        }
+        stale[slot] = false;
+    }
+
+    private void block(int slot, int pos) {
+        int bit = tileBit(slot, pos);
+        if (bit != -1) {
+            blocked[bit >>> WORD_SHIFT] |= 1L << bit;
+        }
+    }
+
+    private static boolean isOpenFloor(Room room, int pos) {
+        int x = Position.x(pos);
+        int y = Position.y(pos);
+        return x > 0 && x < room.getWidth() - 1 && y > 0 && y < room.getHeight() - 1
+                && !room.isDoorway(pos) && !room.isPlayer(pos) && !room.isOnItem(pos);
+    }
+
+    private static long mix(int ticks, int index) {
+        long z = ((long) ticks << INT_BITS | index) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> MIX_SHIFT_1)) * MIX_1;
+        z = (z ^ (z >>> MIX_SHIFT_2)) * MIX_2;
+        return z ^ (z >>> MIX_SHIFT_3);
+    }
+
+    private void unlink(int index) {
+        if (prev[index] == NONE) {
+            heads[roomSlot[index]] = next[index];
+        } else {
+            next[prev[index]] = next[index];
+        }
+        if (next[index] != NONE) {
+            prev[next[index]] = prev[index];
+        }
+    }
+
+    private void grow() {
+        int capacity = position.length * 2;
+        roomSlot = Arrays.copyOf(roomSlot, capacity);
+        position = Arrays.copyOf(position, capacity);
+        hp = Arrays.copyOf(hp, capacity);
+        behavior = Arrays.copyOf(behavior, capacity);
+        readyAt = Arrays.copyOf(readyAt, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+    }
+
+    private int slotOf(Room room) {
+        int slot = room.getMonsterSlot() - 1;
+        return slot >= 0 && slot < roomCount && rooms[slot] == room ? slot : NONE;
+    }
+
+    private int addRoom(Room room) {
+        if (roomCount == rooms.length) {
+            rooms = Arrays.copyOf(rooms, roomCount * 2);
+            heads = Arrays.copyOf(heads, roomCount * 2);
+            roomWidth = Arrays.copyOf(roomWidth, roomCount * 2);
+            roomHeight = Arrays.copyOf(roomHeight, roomCount * 2);
+            firstTile = Arrays.copyOf(firstTile, roomCount * 2);
+            stale = Arrays.copyOf(stale, roomCount * 2);
+        }
+        rooms[roomCount] = room;
+        heads[roomCount] = NONE;
+        roomWidth[roomCount] = room.getWidth();
+        roomHeight[roomCount] = room.getHeight();
+        firstTile[roomCount] = tileCount;
+        stale[roomCount] = true;
+        tileCount += room.getWidth() * room.getHeight();
+        int words = (tileCount >>> WORD_SHIFT) + 1;
+        if (words > occupied.length) {
+            occupied = Arrays.copyOf(occupied, Math.max(words, occupied.length * 2));
+            blocked = Arrays.copyOf(blocked, occupied.length);
+        }
+        room.setMonsterSlot(roomCount + 1);
+        return roomCount++;
+    }
+
+    /**
+     * Gets the bit of a tile in the occupancy array.
+     *
+     * @return the bit, or -1 if the tile is outside the room
+     */
+    private int tileBit(int slot, int pos) {
+        int x = Position.x(pos);
+        int y = Position.y(pos);
+        if (x < 0 || x >= roomWidth[slot] || y < 0 || y >= roomHeight[slot]) {
+            return -1;
+        }
+        return firstTile[slot] + y * roomWidth[slot] + x;
+    }
+
+    private boolean isOccupied(int slot, int pos) {
+        int bit = tileBit(slot, pos);
+        return bit != -1 && (occupied[bit >>> WORD_SHIFT] & (1L << bit)) != 0;
+    }
+
+    private void flip(int slot, int pos) {
+        int bit = tileBit(slot, pos);
+        occupied[bit >>> WORD_SHIFT] ^= 1L << bit;
+    }
+}
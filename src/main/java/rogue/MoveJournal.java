@@ -0,0 +1,499 @@
+package rogue;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * Keeps a game durable by appending every command that changes it to a journal file.
+ *
+ * <p>The journal lives in a directory next to a checkpoint, a saved game from which the journal
+ * is replayed. Both carry a generation number in their file names. A checkpoint of generation n+1
+ * holds everything in journal n, so recovery loads the newest checkpoint that reads back and
+ * replays only the journal of the same generation. Generation 0 has no checkpoint and replays
+ * on top of the base game. A checkpoint that does not read back is renamed aside with
+ * {@link #CORRUPT_SUFFIX}, and recovery fails rather than drop a journal newer than the
+ * checkpoint it could load. A journal whose header is whole but wrong, such as one of an older
+ * version, fails recovery too. Only an explicit start over discards such a journal.
+ *
+ * <p>Checkpoints and journals start with a header holding a hash of the rooms and symbols files
+ * of the base game. If the dungeon files have changed since, nothing is replayed and the journal
+ * starts a new generation from the base game.
+ *
+ * <p>Each record is written to the file as soon as it is applied, so a crash of the game loses
+ * nothing. The file is only forced to disk every {@link #SYNC_INTERVAL} records, so a power
+ * failure may lose that many moves. A record that was only partly written is dropped on recovery.
+ *
+ * <p>A command is applied even if its record cannot be written. The journal then checkpoints the
+ * game so no command goes missing, and if that fails too it stops recording until a later
+ * checkpoint succeeds. {@link #getFailure()} tells the player their progress is not being kept.
+ */
+public class MoveJournal implements Closeable {
+
+    public static final int MAGIC = 0x524A4E4C;
+    public static final int VERSION = 2;
+    public static final int SYNC_INTERVAL = 32;
+    public static final int CHECKPOINT_INTERVAL = 4096;
+    public static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final int HEADER_SIZE = 24;
+    private static final int OTHER_DUNGEON = -1;
+    private static final long DUNGEON_PRIME = 31;
+    private static final int RECORD_SIZE = 10;
+    private static final int CHECKED_SIZE = 6;
+    private static final int NO_ITEM = -1;
+    private static final String CHECKPOINT_PREFIX = "checkpoint-";
+    private static final String CHECKPOINT_SUFFIX = ".sav";
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+    private final File directory;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final long dungeon;
+    private Rogue game;
+    private long generation;
+    private FileChannel journal;
+    private int unsynced;
+    private int sinceCheckpoint;
+    private int replayed;
+    private IOException failure;
+
+    /**
+     * Opens the journal in a directory, recovering the game it describes.
+     * If the directory holds no journal the base game is used as is.
+     *
+     * @param journalDirectory as the directory holding the checkpoints and journals
+     * @param baseGame         as the game to replay onto when there is no checkpoint
+     * @throws IOException if the directory cannot be used
+     */
+    public MoveJournal(String journalDirectory, Rogue baseGame) throws IOException {
+        this(journalDirectory, baseGame, false);
+    }
+
+    /**
+     * Opens the journal in a directory, either recovering the game it describes or throwing it
+     * away and starting over from the base game.
+     *
+     * @param journalDirectory as the directory holding the checkpoints and journals
+     * @param baseGame         as the game to replay onto, or to start over from
+     * @param startOver        as true to discard every journaled command
+     * @throws IOException if the directory cannot be used, or the journal cannot be recovered
+     */
+    public MoveJournal(String journalDirectory, Rogue baseGame, boolean startOver) throws IOException {
+        directory = new File(journalDirectory);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create journal directory " + journalDirectory);
+        }
+        game = baseGame;
+        dungeon = dungeonHash(baseGame);
+        if (startOver) {
+            startOver();
+        } else {
+            recover();
+        }
+    }
+
+    /**
+     * Gets the game as recovered and changed by the journaled commands.
+     *
+     * @return the game
+     */
+    public Rogue getGame() {
+        return game;
+    }
+
+    /**
+     * Gets how many commands were replayed when the journal was opened.
+     *
+     * @return the number of replayed commands
+     */
+    public int getReplayedCount() {
+        return replayed;
+    }
+
+    /**
+     * Gets why the journal stopped recording commands.
+     *
+     * @return the failure, or null while every command is being recorded
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Moves the player and records the move if it changed anything.
+     *
+     * @param userInput as the movement key
+     * @return the outcome of the move
+     */
+    public CommandOutcome move(char userInput) {
+        CommandOutcome outcome = game.applyMove(userInput);
+        if (outcome != CommandOutcome.INVALID_MOVE && outcome != CommandOutcome.NO_MOVE) {
+            append(userInput, NO_ITEM);
+        }
+        return outcome;
+    }
+
+    /**
+     * Eats, wears or tosses an item and records it.
+     *
+     * @param action as Simulator.EAT, Simulator.WEAR or Simulator.TOSS
+     * @param item   as the item from the player's inventory
+     * @return the message describing what happened
+     */
+    public String useItem(char action, Item item) {
+        String message = applyItem(action, item);
+        append(action, item.getId());
+        return message;
+    }
+
+    /**
+     * Replaces the game, for example after a different dungeon or save is loaded,
+     * and checkpoints it straight away.
+     *
+     * @param newGame as the game to journal from now on
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void reset(Rogue newGame) throws IOException {
+        game = newGame;
+        checkpoint();
+    }
+
+    /**
+     * Saves the whole game as a new checkpoint and starts an empty journal after it. This also
+     * starts recording again after a failure.
+     *
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void checkpoint() throws IOException {
+        try {
+            writeCheckpoint();
+            failure = null;
+        } catch (IOException e) {
+            if (journal == null) {
+                failure = e;
+            }
+            throw e;
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        long start = System.nanoTime();
+        long next = generation + 1;
+        File temp = new File(directory, CHECKPOINT_PREFIX + next + CHECKPOINT_SUFFIX + ".tmp");
+        ByteBuffer encoded = SaveCodec.encode(game);
+        GameMetrics.SAVE_SIZE.record(encoded.remaining());
+        ByteBuffer header = header(next);
+        try (FileChannel channel = new RandomAccessFile(temp, "rw").getChannel()) {
+            channel.truncate(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+            channel.force(true);
+        }
+        Files.move(temp.toPath(), checkpointFile(next).toPath(), StandardCopyOption.ATOMIC_MOVE);
+        closeJournal();
+        long previous = generation;
+        generation = next;
+        openJournal(0);
+        deleteGeneration(previous);
+        sinceCheckpoint = 0;
+        GameMetrics.SAVE.recordSince(start);
+    }
+
+    /**
+     * Forces every recorded command to disk.
+     *
+     * @throws IOException if the journal cannot be synced
+     */
+    public void sync() throws IOException {
+        if (journal != null && unsynced > 0) {
+            journal.force(false);
+            unsynced = 0;
+        }
+    }
+
+    /**
+     * Syncs and closes the journal.
+     *
+     * @throws IOException if the journal cannot be synced
+     */
+    @Override
+    public void close() throws IOException {
+        sync();
+        closeJournal();
+    }
+
+    private String applyItem(char action, Item item) {
+        if (action == Simulator.EAT) {
+            return game.eatItem(item);
+        } else if (action == Simulator.WEAR) {
+            return game.wearItem(item);
+        } else if (action == Simulator.TOSS) {
+            return game.tossItem(item);
+        }
+        throw new IllegalArgumentException("Not an item action: " + action);
+    }
+
+    private void append(char action, int itemId) {
+        if (journal == null) {
+            return; //Stopped recording after a failure
+        }
+        record.clear();
+        record.putChar(action);
+        record.putInt(itemId);
+        crc.reset();
+        crc.update(record.array(), 0, CHECKED_SIZE);
+        record.putInt((int) crc.getValue());
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                journal.write(record);
+            }
+            if (++unsynced >= SYNC_INTERVAL) {
+                sync();
+            }
+        } catch (IOException e) {
+            appendFailed(e);
+            return;
+        }
+        if (++sinceCheckpoint >= CHECKPOINT_INTERVAL) {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Keeps the journal free of holes after a record could not be written: a checkpoint holds the
+     * command that was lost, and without one nothing more is recorded.
+     */
+    private void appendFailed(IOException cause) {
+        cause.printStackTrace();
+        try {
+            checkpoint();
+        } catch (IOException e) {
+            e.printStackTrace();
+            try {
+                closeJournal();
+            } catch (IOException closeFailure) {
+                closeFailure.printStackTrace();
+            }
+            failure = cause;
+        }
+    }
+
+    private void recover() throws IOException {
+        Rogue baseGame = game;
+        long newest = newestGeneration(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+        while (newest > 0 && generation == 0) {
+            File checkpoint = checkpointFile(newest);
+            Rogue saved;
+            try {
+                saved = readCheckpoint(checkpoint, newest);
+            } catch (IOException e) {
+                e.printStackTrace();
+                File aside = new File(directory, checkpoint.getName() + CORRUPT_SUFFIX);
+                Files.move(checkpoint.toPath(), aside.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                newest = newestGeneration(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+                continue;
+            }
+            if (saved == null) {
+                startOver();
+                return;
+            }
+            game = saved;
+            generation = newest;
+        }
+        long lost = newestGeneration(JOURNAL_PREFIX, JOURNAL_SUFFIX);
+        if (lost > generation) {
+            throw new IOException("No checkpoint for journal " + lost + " can be loaded from " + directory);
+        }
+        long end = replay();
+        if (end == OTHER_DUNGEON) {
+            game = baseGame;
+            startOver();
+            return;
+        }
+        openJournal(end);
+        deleteOtherGenerations();
+    }
+
+    /**
+     * Starts a new generation from the current game above every generation in the directory,
+     * and deletes the others.
+     */
+    private void startOver() throws IOException {
+        generation = Math.max(newestGeneration(CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX),
+                newestGeneration(JOURNAL_PREFIX, JOURNAL_SUFFIX));
+        checkpoint();
+        deleteOtherGenerations();
+    }
+
+    /**
+     * Reads a checkpoint back.
+     *
+     * @return the saved game, or null if it was saved from other dungeon files
+     */
+    private Rogue readCheckpoint(File file, long gen) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        GameMetrics.LOAD_SIZE.record(buffer.remaining());
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getLong() != gen) {
+            throw new IOException("Not a checkpoint of generation " + gen + ": " + file);
+        }
+        if (buffer.getLong() != dungeon) {
+            return null;
+        }
+        Rogue saved = SaveCodec.decode(buffer);
+        GameMetrics.LOAD.recordSince(start);
+        return saved;
+    }
+
+    private long replay() throws IOException {
+        File file = journalFile(generation);
+        if (!file.isFile()) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if (buffer.remaining() < HEADER_SIZE) {
+            return 0; //The header was only partly written, so no command was recorded
+        }
+        int magic = buffer.getInt();
+        int version = buffer.getInt();
+        if (magic != MAGIC || version != VERSION || buffer.getLong() != generation) {
+            throw new IOException("Journal " + file + " is not a version " + VERSION + " journal of generation "
+                    + generation + " (version " + version + ")");
+        }
+        if (buffer.getLong() != dungeon) {
+            return OTHER_DUNGEON;
+        }
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int start = buffer.position();
+            char action = buffer.getChar();
+            int itemId = buffer.getInt();
+            crc.reset();
+            crc.update(buffer.array(), start, CHECKED_SIZE);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                buffer.position(start);
+                break;
+            }
+            replayRecord(action, itemId);
+            replayed++;
+        }
+        sinceCheckpoint = replayed;
+        return buffer.position();
+    }
+
+    private void replayRecord(char action, int itemId) {
+        if (itemId == NO_ITEM) {
+            game.applyMove(action);
+            return;
+        }
+        Item item = game.getPlayer().getInventory().getItemById(itemId);
+        if (item != null) {
+            applyItem(action, item);
+        }
+    }
+
+    private void openJournal(long validLength) throws IOException {
+        journal = new RandomAccessFile(journalFile(generation), "rw").getChannel();
+        if (validLength < HEADER_SIZE) {
+            ByteBuffer header = header(generation);
+            journal.truncate(0);
+            while (header.hasRemaining()) {
+                journal.write(header, header.position());
+            }
+            journal.force(true);
+            validLength = HEADER_SIZE;
+        }
+        journal.truncate(validLength);
+        journal.position(validLength);
+    }
+
+    private ByteBuffer header(long gen) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(gen).putLong(dungeon);
+        header.flip();
+        return header;
+    }
+
+    private static long dungeonHash(Rogue baseGame) {
+        long hash = 0;
+        for (String source : baseGame.getRogueParser().getSourceFiles()) {
+            hash = hash * DUNGEON_PRIME + SessionRecorder.fileChecksum(source);
+        }
+        return hash;
+    }
+
+    private void closeJournal() throws IOException {
+        unsynced = 0;
+        if (journal != null) {
+            FileChannel channel = journal;
+            journal = null;
+            channel.close();
+        }
+    }
+
+    private long newestGeneration(String prefix, String suffix) {
+        long newest = 0;
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                newest = Math.max(newest, generationOf(name, prefix, suffix));
+            }
+        }
+        return newest;
+    }
+
+    private static long generationOf(String name, String prefix, String suffix) {
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void deleteOtherGenerations() throws IOException {
+        String[] names = directory.list();
+        if (names == null) {
+            return;
+        }
+        for (String name : names) {
+            long checkpoint = generationOf(name, CHECKPOINT_PREFIX, CHECKPOINT_SUFFIX);
+            long log = generationOf(name, JOURNAL_PREFIX, JOURNAL_SUFFIX);
+            boolean stale = (checkpoint != -1 && checkpoint != generation) || (log != -1 && log != generation)
+                    || name.endsWith(".tmp");
+            if (stale) {
+                Files.deleteIfExists(new File(directory, name).toPath());
+            }
+        }
+    }
+
+    private void deleteGeneration(long old) throws IOException {
+        Files.deleteIfExists(checkpointFile(old).toPath());
+        Files.deleteIfExists(journalFile(old).toPath());
+    }
+
+    private File checkpointFile(long gen) {
+        return new File(directory, CHECKPOINT_PREFIX + gen + CHECKPOINT_SUFFIX);
+    }
+
+    private File journalFile(long gen) {
+        return new File(directory, JOURNAL_PREFIX + gen + JOURNAL_SUFFIX);
+    }
+}
@@ -0,0 +1,79 @@
+package rogue;
+
+/**
+ * What the side panels of the window show: the game output, the inventory listing and the
+ * player's name.
+ *
+ * <p>A state never changes once made, so the game thread can hand one to the Swing event thread
+ * without locking. A null part has not been set yet and leaves its label as it is.
+ */
+final class PanelState {
+
+    static final PanelState EMPTY = new PanelState(null, null, null);
+    private final String description;
+    private final String inventory;
+    private final String playerName;
+
+    private PanelState(String desc, String inv, String name) {
+        this.description = desc;
+        this.inventory = inv;
+        this.playerName = name;
+    }
+
+    /**
+     * Gets the text of the game output panel.
+     *
+     * @return the text, or null if it has not been set
+     */
+    String getDescription() {
+        return description;
+    }
+
+    /**
+     * Gets the HTML inventory listing.
+     *
+     * @return the listing, or null if it has not been set
+     */
+    String getInventory() {
+        return inventory;
+    }
+
+    /**
+     * Gets the text of the player name panel.
+     *
+     * @return the text, or null if it has not been set
+     */
+    String getPlayerName() {
+        return playerName;
+    }
+
+    /**
+     * Makes a state with a different game output.
+     *
+     * @param desc as the text of the game output panel
+     * @return the new state
+     */
+    PanelState withDescription(String desc) {
+        return new PanelState(desc, inventory, playerName);
+    }
+
+    /**
+     * Makes a state with a different inventory listing. The same listing gives back this state.
+     *
+     * @param inv as the HTML inventory listing
+     * @return the new state
+     */
+    PanelState withInventory(String inv) {
+        return inv == inventory ? this : new PanelState(description, inv, playerName);
+    }
+
+    /**
+     * Makes a state with a different player name.
+     *
+     * @param name as the text of the player name panel
+     * @return the new state
+     */
+    PanelState withPlayerName(String name) {
+        return new PanelState(description, inventory, name);
+    }
+}
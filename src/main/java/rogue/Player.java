@@ -1,6 +1,5 @@
 package rogue;
 
-import java.awt.Point;
 import java.io.Serializable;
 
 /**
@@ -10,7 +9,7 @@ public class Player implements Serializable {
 
     private String name;
     private Room currentRoom;
-    private Point xyLocation;
+    private int xyLocation = Position.NONE;
     private Inventory inventory = new Inventory();
     private Item wearableItem;
 
@@ -30,9 +29,9 @@ public class Player implements Serializable {
     /** Constructor that takes both a name and a position for the player.
      *
      * @param names takes a name for the player
-     * @param xyPosition takes a position for the player to start in
+     * @param xyPosition takes a packed position for the player to start in
      */
-    public Player(String names, Point xyPosition) { //Player name and location constructor
+    public Player(String names, int xyPosition) { //Player name and location constructor
         this.name = names;
         this.xyLocation = xyPosition;
     }
@@ -87,17 +86,17 @@ public class Player implements Serializable {
 
     /** Gets the players current xy location.
      *
-     * @return the location of the player
+     * @return the packed location of the player
      */
-    public Point getXyLocation() {
+    public int getXyLocation() {
         return xyLocation;
     } //Gets player location
 
     /** Sets the current players location.
      *
-     * @param newXyLocation is the new location of the player
+     * @param newXyLocation is the new packed location of the player
      */
-    public void setXyLocation(Point newXyLocation) {
+    public void setXyLocation(int newXyLocation) {
         this.xyLocation = newXyLocation;
     } //Sets player location
 
@@ -0,0 +1,59 @@
+package rogue;
+
+/**
+ * Packs a tile position into one int, so positions are passed and compared as plain values
+ * instead of objects. The x coordinate is kept in the high 16 bits and the y coordinate in the
+ * low 16 bits, both signed, so each can range from -32768 to 32767.
+ */
+public final class Position {
+
+    /** A position that no room contains, used where there is no position. */
+    public static final int NONE = Integer.MIN_VALUE;
+    private static final int Y_BITS = 16;
+    private static final int Y_MASK = 0xFFFF;
+
+    private Position() {
+
+    }
+
+    /**
+     * Packs a position.
+     *
+     * @param x as the x coordinate
+     * @param y as the y coordinate
+     * @return the packed position
+     */
+    public static int pack(int x, int y) {
+        return (x << Y_BITS) | (y & Y_MASK);
+    }
+
+    /**
+     * Gets the x coordinate of a packed position.
+     *
+     * @param position as the packed position
+     * @return the x coordinate
+     */
+    public static int x(int position) {
+        return position >> Y_BITS;
+    }
+
+    /**
+     * Gets the y coordinate of a packed position.
+     *
+     * @param position as the packed position
+     * @return the y coordinate
+     */
+    public static int y(int position) {
+        return (short) position;
+    }
+
+    /**
+     * Formats a packed position as x,y.
+     *
+     * @param position as the packed position
+     * @return the formatted position, or none for {@link #NONE}
+     */
+    public static String toString(int position) {
+        return position == NONE ? "none" : x(position) + "," + y(position);
+    }
+}
@@ -1,11 +1,9 @@
 package rogue;
 
 
-import java.awt.Point;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Map;
 
 
 public class Rogue implements Serializable {
@@ -18,11 +16,14 @@ public class Rogue implements Serializable {
     private Player player;
     private ArrayList<Room> rooms = new ArrayList<>();
     private ArrayList<Item> items = new ArrayList<>();
+    private HashMap<Integer, Room> roomsById = new HashMap<>();
+    private HashMap<Integer, Item> itemsById = new HashMap<>();
     private HashMap<String, Character> symbols = new HashMap<>();
+    private Monsters monsters = new Monsters();
     private boolean roomTransition = false;
-    private int prevRoomWidth;
-    private int prevRoomHeight;
     private RogueParser rogueParser;
+    private transient DungeonReport validationReport;
+    private transient RoomCache roomCache;
 
     /**
      * Default rogue constructor.
@@ -41,6 +42,34 @@ public class Rogue implements Serializable {
         setupRooms();
     }
 
+    /**
+     * Rogue constructor that only builds the rooms around the player.
+     * Rooms are built when the player comes within one door of them, and the least recently
+     * used rooms are dropped once more than the given number are built. Rooms are not
+     * validated up front and such a game cannot be saved.
+     *
+     * @param parser        as the parser to be passed in
+     * @param residentRooms as the most rooms to keep built, though the player's room and its
+     *                      neighbours are always kept
+     */
+    public Rogue(RogueParser parser, int residentRooms) {
+        this.rogueParser = parser;
+        roomCache = new RoomCache(this, parser::getRoomData, residentRooms);
+        Room start = roomCache.materialize(parser.getStartRoomId());
+        if (start != null) {
+            roomCache.enter(start);
+        }
+    }
+
+    /**
+     * Checks if rooms are built as the player approaches them rather than all up front.
+     *
+     * @return true if rooms are built lazily
+     */
+    public boolean isLazy() {
+        return roomCache != null;
+    }
+
     /**
      * Rogue constructor with current player.
      *
@@ -64,42 +93,141 @@ public class Rogue implements Serializable {
         return rogueParser;
     }
 
+    /**
+     * Sets the rogue parser without building any rooms from it.
+     *
+     * @param parser as the parser holding the symbols and item definitions
+     */
+    void setRogueParser(RogueParser parser) {
+        this.rogueParser = parser;
+    }
+
     /**
      * Setup all rooms to be stored in subsequent objects correctly.
      */
     public void setupRooms() {
-        for (Map<String, String> roomMap : rogueParser.getRooms()) {
-            addRoom(roomMap);
+        for (RoomDefinition roomData : rogueParser.getRooms()) {
+            addRoom(roomData);
         }
-        verifyAllRooms();
+        validationReport = DungeonValidator.validate(this);
+    }
+
+    /**
+     * Gets the report from validating the rooms when they were set up.
+     *
+     * @return the validation report, or null if the rooms were not set up from a parser
+     */
+    public DungeonReport getValidationReport() {
+        return validationReport;
     }
 
     /**
      * Adds a room to the game based off parsed data.
      *
-     * @param toAdd as the room map to add
+     * @param toAdd as the parsed room to add
+     */
+    public void addRoom(RoomDefinition toAdd) {
+        buildRoom(toAdd, toAdd.isStart());
+    }
+
+    /**
+     * Builds just the room the player starts in, with its items and doors, in a game of its own.
+     * It can be shown while the rest of the dungeon is still being built. If several rooms are
+     * marked as the start the last one is used, as in a full game.
+     *
+     * @param parser as the parsed dungeon
+     * @return the start room, or null if no room is marked as the start
+     */
+    static Room buildStartRoom(RogueParser parser) {
+        RoomDefinition start = null;
+        for (RoomDefinition room : parser.getRooms()) {
+            if (room.isStart()) {
+                start = room;
+            }
+        }
+        if (start == null) {
+            return null;
+        }
+        Rogue preview = new Rogue();
+        preview.rogueParser = parser;
+        return preview.buildRoom(start, true);
+    }
+
+    /**
+     * Builds a room with its items, doors and monsters and adds it to the game. Games that
+     * build rooms lazily have no monsters.
+     *
+     * @param toAdd       as the parsed room to build
+     * @param placePlayer as whether to put a new player in the room
+     * @return the built room
      */
-    public void addRoom(Map<String, String> toAdd) {
-        int width = Integer.parseInt(toAdd.get("width"));
-        int height = Integer.parseInt(toAdd.get("height"));
-        int id = Integer.parseInt(toAdd.get("id"));
-        ArrayList<Map<String, String>> itemMap = rogueParser.getRoomItems(id); //Get items with room
-        Room createRoom = new Room(width, height, id, this);
-        if (toAdd.get("start").equalsIgnoreCase("true")) {
-            createRoom.setPlayer(new Player("Yo", new Point(1, 1)));
+    Room buildRoom(RoomDefinition toAdd, boolean placePlayer) {
+        Room createRoom = new Room(toAdd.getWidth(), toAdd.getHeight(), toAdd.getId(), this);
+        if (placePlayer) {
+            createRoom.setPlayer(new Player("Yo", Position.pack(1, 1)));
             createRoom.getPlayer().setCurrentRoom(createRoom);
             setPlayer(createRoom.getPlayer());
         }
-        addRoomItems(itemMap, createRoom);
+        addRoomItems(toAdd, createRoom);
         setDoors(createRoom, toAdd);
-        rooms.add(createRoom);
+        if (!isLazy()) {
+            addRoomMonsters(toAdd, createRoom);
+        }
+        registerRoom(createRoom);
+        return createRoom;
+    }
+
+    /**
+     * Adds a fully built room to the game's room list and id lookup.
+     *
+     * @param room as the room to add
+     */
+    void registerRoom(Room room) {
+        rooms.add(room);
+        roomsById.putIfAbsent(room.getId(), room);
+    }
+
+    /**
+     * Removes a room and the items lying in it from the game's lists and lookups.
+     *
+     * @param room as the room to remove
+     */
+    void unregisterRoom(Room room) {
+        rooms.remove(room);
+        roomsById.remove(room.getId(), room);
+        for (Item item : room.getRoomItems()) {
+            items.remove(item);
+            itemsById.remove(item.getId(), item);
+        }
+    }
+
+    /**
+     * Adds an existing item to the game's item list and id lookup.
+     *
+     * @param item as the item to add
+     */
+    void registerItem(Item item) {
+        items.add(item);
+        itemsById.putIfAbsent(item.getId(), item);
+    }
+
+    private void addRoomItems(RoomDefinition roomData, Room createRoom) {
+        for (int i = 0; i < roomData.getLootCount(); i++) { //For each item in the room, add the item
+            ItemData itemData = rogueParser.getItemDefinition(roomData.getLootId(i));
+            if (itemData != null && !itemsById.containsKey(itemData.getId())) { //Items are placed once
+                Item newItem = addItem(itemData, Position.pack(roomData.getLootX(i), roomData.getLootY(i)));
+                addRoomItem(newItem, createRoom);
+            }
+        }
     }
 
-    private void addRoomItems(ArrayList<Map<String, String>> itemMap, Room createRoom) {
-        for (Map<String, String> item : itemMap) { //For each item in the room, add the item
-            addItem(item);
-            Item newItem = getItem(Integer.parseInt(item.get("id")));
-            addRoomItem(newItem, createRoom);
+    /**
+     * Adds the monsters of a room. A monster that is not on a free floor tile is left out.
+     */
+    private void addRoomMonsters(RoomDefinition roomData, Room createRoom) {
+        for (int i = 0; i < roomData.getMonsterCount(); i++) {
+            monsters.add(createRoom, Position.pack(roomData.getMonsterX(i), roomData.getMonsterY(i)),
+                    roomData.getMonsterHp(i), roomData.getMonsterBehavior(i));
         }
     }
 
@@ -114,7 +242,7 @@ public class Rogue implements Serializable {
             createRoom.addItem(newItem);
             newItem.setCurrentRoom(createRoom);
         } catch (ImpossiblePositionException e) {
-            Point newItemSpot = lookForEmptyTile(createRoom);
+            int newItemSpot = lookForEmptyTile(createRoom);
             newItem.setXyLocation(newItemSpot);
             try {
                 createRoom.addItem(newItem);
@@ -130,52 +258,33 @@ public class Rogue implements Serializable {
     /**
      * Adds an item to the game based off parsed information.
      *
-     * @param toAdd as the item map to add
+     * @param toAdd    as the parsed item to add
+     * @param location as where the item is placed
+     * @return the new item
      */
-    public void addItem(Map<String, String> toAdd) {
-        int itemId = Integer.parseInt(toAdd.get("id"));
-        String name = toAdd.get("name");
-        String type = toAdd.get("type");
-        String desc = toAdd.get("description");
-        Point loc = new Point(Integer.parseInt(toAdd.get("x")), Integer.parseInt(toAdd.get("y")));
-        Item newItem = Item.createItem(itemId, name, desc, type, loc);
-        items.add(newItem);
-    }
-
-    private void verifyAllRooms() {
-        for (Room room : getRooms()) {
-            try {
-                if (!room.verifyRoom()) {
-                    System.exit(1);
-                }
-            } catch (NotEnoughDoorsException e) {
-                handleNotEnoughDoorsException(room);
-            }
-        }
+    public Item addItem(ItemData toAdd, int location) {
+        Item newItem = Item.createItem(toAdd.getId(), toAdd.getName(), toAdd.getDescription(), toAdd.getType(),
+                location);
+        registerItem(newItem);
+        return newItem;
     }
 
-    private void handleNotEnoughDoorsException(Room room) {
-        for (Room r : getRooms()) {
-            if (r != room) {
-                if (findMatch(room, r)) {
-                    return;
-                }
-            }
-        }
-        System.out.println("This file cannot be used!");
-        System.exit(1);
-    }
-
-    private boolean findMatch(Room room, Room r) {
-        String[] directions = {"N", "S", "E", "W"};
-        for (String direction : directions) {
+    /**
+     * Joins a room without doors to another room through a new door on a free wall of the other room.
+     *
+     * @param room as the room without doors
+     * @param r    as the room to join it to
+     * @return true if the other room had a free wall
+     */
+    boolean findMatch(Room room, Room r) {
+        for (Direction direction : Direction.values()) {
             int loc = r.getDoorLocation(direction);
             if (loc == -1) {
                 Door door = new Door();
                 door.connectRoom(r);
-                r.setDoor(direction, 1, door);
+                r.setDoor(direction.getCode(), 1, door);
                 door.connectRoom(room);
-                room.setDoor(getOpposingDirection(direction), 1, door);
+                room.setDoor(direction.opposite().getCode(), 1, door);
                 return true;
             }
         }
@@ -189,28 +298,23 @@ public class Rogue implements Serializable {
      * @return the item with the associated id
      */
     public Item getItem(int id) {
-        for (Item item : getItems()) {
-            if (item.getId() == id) {
-                return item;
-            }
-        }
-        return null;
+        return itemsById.get(id);
     }
 
     /**
      * Sets up doors for each room.
      *
      * @param createRoom as the room being created
-     * @param roomMap    as the parsed data for the room
+     * @param roomData   as the parsed data for the room
      */
-    private void setDoors(Room createRoom, Map<String, String> roomMap) {
-        String[] directions = {"N", "S", "E", "W"};
-        for (String direction : directions) {
-            int doorPos = Integer.parseInt(roomMap.get(direction));
+    private void setDoors(Room createRoom, RoomDefinition roomData) {
+        for (Direction wall : Direction.values()) {
+            String direction = wall.getCode();
+            int doorPos = roomData.getDoorPosition(direction);
             if (doorPos != -1) {
-                Room connectedRoom = getRoom(Integer.parseInt(roomMap.get(direction + "C")));
+                Room connectedRoom = getRoom(roomData.getConnectedRoom(direction));
                 if (connectedRoom != null) {
-                    Door connectedDoor = connectedRoom.getDoor(getOpposingDirection(direction));
+                    Door connectedDoor = connectedRoom.getDoor(wall.opposite());
                     if (connectedDoor != null) {
                         connectedDoor.connectRoom(createRoom);
                         createRoom.setDoor(direction, doorPos, connectedDoor);
@@ -224,27 +328,6 @@ public class Rogue implements Serializable {
         }
     }
 
-    /**
-     * Gets the opposite direction for a N S E W input.
-     *
-     * @param direction as the direction to be inverted
-     * @return the opposing direction
-     */
-    private String getOpposingDirection(String direction) {
-        switch (direction) {
-            case "N":
-                return "S";
-            case "S":
-                return "N";
-            case "E":
-                return "W";
-            case "W":
-                return "E";
-            default:
-                return "I";
-        }
-    }
-
     /**
      * Gets a room based off its id.
      *
@@ -252,32 +335,17 @@ public class Rogue implements Serializable {
      * @return the corresponding room
      */
     private Room getRoom(int id) {
-        for (Room room : getRooms()) {
-            if (room.getId() == id) {
-                return room;
-            }
-        }
-        return null;
+        return roomsById.get(id);
     }
 
     /**
      * Look for an empty tile in a room.
      *
      * @param room as the room to look in
-     * @return the point at which an empty tile is found
-     */
-    public static Point lookForEmptyTile(Room room) {
-        Point point = new Point();
-        for (int i = 1; i < room.getHeight() - 1; i++) {
-            for (int j = 1; j < room.getWidth() - 1; j++) {
-                point.x = j;
-                point.y = i;
-                if (!(room.isOnItem(point) || room.isPlayer(point))) {
-                    return point;
-                }
-            }
-        }
-        return null;
+     * @return the packed point at which an empty tile is found, or {@link Position#NONE}
+     */
+    public static int lookForEmptyTile(Room room) {
+        return room.findEmptyTile();
     }
 
     /**
@@ -298,6 +366,15 @@ public class Rogue implements Serializable {
         return items;
     }
 
+    /**
+     * Gets every monster in the game.
+     *
+     * @return the monsters
+     */
+    public Monsters getMonsters() {
+        return monsters;
+    }
+
     /**
      * Gets the current player in the game.
      *
@@ -321,6 +398,15 @@ public class Rogue implements Serializable {
         return totalDisplay.toString();
     }
 
+    /**
+     * Gets the room the player is currently in.
+     *
+     * @return the current room
+     */
+    public Room getCurrentRoom() {
+        return getPlayer().getCurrentRoom();
+    }
+
     /**
      * Gets the next room to display.
      *
@@ -339,22 +425,103 @@ public class Rogue implements Serializable {
      */
 
     public String makeMove(char userInput) throws InvalidMoveException {
+        CommandOutcome outcome = applyMove(userInput);
+        if (outcome == CommandOutcome.INVALID_MOVE) {
+            throw new InvalidMoveException();
+        }
+        return outcome.getMessage();
+    }
+
+    /**
+     * Moves the player without throwing on an invalid move. Unless the move was invalid, every
+     * monster then gets a tick. A key that is not a direction changes nothing, not even the
+     * monsters.
+     *
+     * @param userInput as the input from the user
+     * @return the outcome of the move, or NO_MOVE if the key is not a direction
+     */
+    public CommandOutcome applyMove(char userInput) {
+        Direction direction = moveDirection(userInput);
+        if (direction == null) {
+            return CommandOutcome.NO_MOVE;
+        }
+        long start = System.nanoTime();
+        CommandOutcome outcome = move(direction);
+        if (outcome != CommandOutcome.INVALID_MOVE) {
+            long tickStart = System.nanoTime();
+            monsters.tick(getPlayer());
+            GameMetrics.TICK.recordSince(tickStart);
+        }
+        GameMetrics.recordMove(outcome, start);
+        return outcome;
+    }
+
+    private CommandOutcome move(Direction direction) {
         Room currentRoom = getPlayer().getCurrentRoom();
-        Point newLoc = new Point(getPlayer().getXyLocation());
-        moveUser(userInput, newLoc);
+        int newLoc = direction.step(getPlayer().getXyLocation());
         if (doorCheck(currentRoom, newLoc)) {
-            return "Transitioned rooms";
+            if (roomCache != null) {
+                roomCache.enter(getCurrentRoom());
+            }
+            return CommandOutcome.TRANSITIONED;
+        }
+        int monster = monsters.at(currentRoom, newLoc);
+        if (monster != Monsters.NONE) {
+            return monsters.hit(monster) ? CommandOutcome.KILLED : CommandOutcome.ATTACKED;
         }
         if (itemCheck(currentRoom, newLoc)) {
-            return "Got item";
+            return CommandOutcome.GOT_ITEM;
         }
         if (movedOnFloorCheck(currentRoom, newLoc)) {
-            return "Moved";
+            return CommandOutcome.MOVED;
+        }
+        return CommandOutcome.INVALID_MOVE;
+    }
+
+    /**
+     * Has the player eat an item, removing it from their inventory.
+     *
+     * @param item as the item to eat
+     * @return the message describing what happened
+     */
+    public String eatItem(Item item) {
+        if (item instanceof Edible) {
+            String message = ((Edible) item).eat(getPlayer());
+            getPlayer().getInventory().removeItem(item);
+            return message;
         }
-        throw new InvalidMoveException();
+        return "That item cannot be eaten!";
     }
 
-    private boolean movedOnFloorCheck(Room currentRoom, Point newLoc) {
+    /**
+     * Has the player wear an item.
+     *
+     * @param item as the item to wear
+     * @return the message describing what happened
+     */
+    public String wearItem(Item item) {
+        if (item instanceof Wearable) {
+            return ((Wearable) item).wear(getPlayer());
+        }
+        return "That item cannot be worn!";
+    }
+
+    /**
+     * Has the player toss an item back into the current room, removing it from their inventory.
+     *
+     * @param item as the item to toss
+     * @return the message describing what happened
+     */
+    public String tossItem(Item item) {
+        if (item instanceof Tossable) {
+            String message = ((Tossable) item).toss(getPlayer());
+            getPlayer().getInventory().removeItem(item);
+            return message;
+        }
+        return "That item cannot be tossed!";
+    }
+
+    private boolean movedOnFloorCheck(Room currentRoom, int newLoc) {
         if (!currentRoom.isWall(newLoc)) {
             getPlayer().setXyLocation(newLoc);
             return true;
@@ -362,11 +529,12 @@ public class Rogue implements Serializable {
         return false;
     }
 
-    private boolean itemCheck(Room currentRoom, Point newLoc) {
+    private boolean itemCheck(Room currentRoom, int newLoc) {
         if (!currentRoom.isWall(newLoc)) {
-            if (currentRoom.isOnItem(newLoc)) {
-                getPlayer().getInventory().addItem(currentRoom.getItem(newLoc));
-                currentRoom.getRoomItems().remove(currentRoom.getItem(newLoc));
+            Item item = currentRoom.getItem(newLoc);
+            if (item != null) {
+                getPlayer().getInventory().addItem(item);
+                currentRoom.removeItem(item);
                 getPlayer().setXyLocation(newLoc);
                 return true;
             }
@@ -374,47 +542,37 @@ public class Rogue implements Serializable {
         return false;
     }
 
-    private boolean doorCheck(Room currentRoom, Point newLoc) {
+    private boolean doorCheck(Room currentRoom, int newLoc) {
         if (currentRoom.isOnDoor(newLoc)) {
-            Door door = currentRoom.getDoor(currentRoom.getWallDir(newLoc));
+            Direction wall = currentRoom.getWallDir(newLoc);
+            Door door = currentRoom.getDoor(wall);
             Room connectedRoom = door.getOtherRoom(currentRoom);
+            if (connectedRoom == null) {
+                return false;
+            }
             getPlayer().setCurrentRoom(connectedRoom);
             currentRoom.setPlayer(null);
             connectedRoom.setPlayer(getPlayer());
-            getPlayer().setXyLocation(connectedRoom.getDoorPoint(getOpposingDirection(currentRoom.getWallDir(newLoc))));
-            incrementPlayerPos(getPlayer(), getOpposingDirection(currentRoom.getWallDir(newLoc)));
-            prevRoomWidth = currentRoom.getWidth();
-            prevRoomHeight = currentRoom.getHeight();
+            getPlayer().setXyLocation(wall.step(connectedRoom.getDoorPoint(wall.opposite())));
             roomTransition = true;
             return true;
         }
         return false;
     }
 
-    private void moveUser(char userInput, Point newLoc) {
-        if (userInput == Rogue.DOWN) {
-            newLoc.y++;
-        } else if (userInput == Rogue.UP) {
-            newLoc.y--;
-        } else if (userInput == Rogue.LEFT) {
-            newLoc.x--;
-        } else if (userInput == Rogue.RIGHT) {
-            newLoc.x++;
-        }
-    }
-
-    private void incrementPlayerPos(Player p, String dir) {
-        Point newPoint = new Point(p.getXyLocation());
-        if (dir.equalsIgnoreCase("N")) {
-            newPoint.y++;
-        } else if (dir.equalsIgnoreCase("S")) {
-            newPoint.y--;
-        } else if (dir.equalsIgnoreCase("E")) {
-            newPoint.x--;
-        } else if (dir.equalsIgnoreCase("W")) {
-            newPoint.x++;
+    private static Direction moveDirection(char userInput) {
+        switch (userInput) {
+            case DOWN:
+                return Direction.SOUTH;
+            case UP:
+                return Direction.NORTH;
+            case LEFT:
+                return Direction.WEST;
+            case RIGHT:
+                return Direction.EAST;
+            default:
+                return null;
         }
-        p.setXyLocation(newPoint);
     }
 
     /**
@@ -429,19 +587,4 @@ public class Rogue implements Serializable {
         }
         return false;
     }
-
-    /**
-     * Clears screen upon room transition.
-     *
-     * @return blanks in place of a cleared room
-     */
-    public String printBlanks() {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < prevRoomHeight * (2 * 2); i++) {
-            for (int j = 0; j < prevRoomWidth * (2 * 2); j++) {
-                builder.append(" ");
-            }
-        }
-        return builder.toString();
-    }
 }
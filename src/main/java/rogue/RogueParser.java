@@ -1,26 +1,32 @@
 package rogue;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.Reader;
 
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
 public class RogueParser implements Serializable {
 
-    private ArrayList<Map<String, String>> rooms = new ArrayList<>();
-    private ArrayList<Map<String, String>> items = new ArrayList<>();
-    private ArrayList<Map<String, String>> itemLocations = new ArrayList<>();
-    private Map<Integer, Map<String, String>> itemMap = new HashMap<>();
+    private ArrayList<RoomDefinition> rooms = new ArrayList<>();
+    private Map<Integer, ItemData> itemMap = new HashMap<>();
     private HashMap<String, Character> symbols = new HashMap<>();
+    private char[] glyphs = emptyGlyphs();
+    private transient HashMap<Integer, RoomDefinition> roomsById;
+    private transient ArrayList<String> sourceFiles = new ArrayList<>();
 
     /**
      * Default constructor.
@@ -35,7 +41,9 @@ public class RogueParser implements Serializable {
      * @param filename (String) name of file that contains file location for rooms and symbols
      */
     public RogueParser(String filename) {
+        long start = System.nanoTime();
         parse(filename);
+        GameMetrics.PARSE.recordSince(start);
     }
 
     /**
@@ -43,40 +51,69 @@ public class RogueParser implements Serializable {
      *
      * @return a map that maps an item id to any existing item
      */
-    public Map<Integer, Map<String, String>> getAllPossibleItems() {
+    public Map<Integer, ItemData> getAllPossibleItems() {
         return itemMap;
     }
 
     /**
-     * Gets the items for a specific room based upon the rooms id.
+     * Gets all parsed rooms in the game.
+     * @return all parsed rooms
+     */
+    public ArrayList<RoomDefinition> getRooms() {
+        return rooms;
+    }
+
+    /**
+     * Gets the definition of an item.
+     *
+     * @param itemId as the id of the item
+     * @return the item definition, or null if there is none
+     */
+    public ItemData getItemDefinition(int itemId) {
+        return getAllPossibleItems().get(itemId);
+    }
+
+    /**
+     * Gets a parsed room by id. If two rooms share an id the first one is returned.
      *
      * @param roomId as the id of the room
-     * @return a list of all item maps for that room
+     * @return the room data, or null if there is none
      */
-    public ArrayList<Map<String, String>> getRoomItems(int roomId) {
-        ArrayList<Map<String, String>> roomItems = new ArrayList<>();
-        for (Map<String, String> roomItem : getItems()) {
-            if (String.valueOf(roomId).equalsIgnoreCase(roomItem.get("room"))) {
-                roomItems.add(roomItem);
+    public RoomDefinition getRoomData(int roomId) {
+        if (roomsById == null) {
+            roomsById = new HashMap<>();
+            for (RoomDefinition room : getRooms()) {
+                roomsById.putIfAbsent(room.getId(), room);
             }
         }
-        return roomItems;
+        return roomsById.get(roomId);
     }
 
     /**
-     * Gets all items in the game.
-     * @return a list of all parsed items
+     * Gets the id of the room the player starts in. If several rooms are marked as the start
+     * the last one is used.
+     *
+     * @return the start room id, or -1 if no room is marked as the start
      */
-    public ArrayList<Map<String, String>> getItems() {
-        return items;
+    public int getStartRoomId() {
+        int startId = -1;
+        for (RoomDefinition room : getRooms()) {
+            if (room.isStart()) {
+                startId = room.getId();
+            }
+        }
+        return startId;
     }
 
     /**
-     * Gets all parsed rooms in the game.
-     * @return all parsed rooms
+     * Gets the files this dungeon was parsed from: the file locations file, then the rooms and
+     * symbols files it names. A dungeon that was not parsed from files, such as one read from a
+     * save, has none.
+     *
+     * @return the file names
      */
-    public ArrayList<Map<String, String>> getRooms() {
-        return rooms;
+    public List<String> getSourceFiles() {
+        return sourceFiles == null ? Collections.emptyList() : Collections.unmodifiableList(sourceFiles);
     }
 
     /**
@@ -93,168 +130,145 @@ public class RogueParser implements Serializable {
     }
 
     /**
-     * Read the file containing the file locations.
+     * Gets the display character for every tile kind, indexed by the kind's ordinal.
+     * Kinds without a symbol are drawn as a space.
      *
-     * @param filename (String) Name of the file
+     * @return the glyph table
      */
-    private void parse(String filename) {
-        JSONParser parser = new JSONParser();
-        try {
-            JSONObject configurationJSON = (JSONObject) parser.parse(new FileReader(filename));
-            String roomsFileLocation = configurationJSON.get("Rooms").toString();
-            String symbolsFileLocation = configurationJSON.get("Symbols").toString();
-            JSONObject roomsJSON = (JSONObject) parser.parse(new FileReader(roomsFileLocation));
-            JSONObject symbolsJSON = (JSONObject) parser.parse(new FileReader(symbolsFileLocation));
-            extractInfo(roomsJSON, symbolsJSON);
-            itemMap = constructItemMap(roomsJSON);
-        } catch (FileNotFoundException e) {
-            System.out.println("Cannot find file named: " + filename);
-        } catch (IOException e) {
-            e.printStackTrace();
-        } catch (ParseException e) {
-            System.out.println("Error parsing JSON file");
-        }
-    }
-
-    private void extractInfo(JSONObject roomsJSON, JSONObject symbolsJSON) {
-        extractRoomInfo(roomsJSON);
-        extractItemInfo(roomsJSON);
-        extractSymbolInfo(symbolsJSON);
+    public char[] getGlyphs() {
+        return glyphs;
     }
 
     /**
-     * Get the symbol information.
+     * Gets the display character for a tile kind.
      *
-     * @param symbolsJSON (JSONObject) Contains information about the symbols
+     * @param kind as the tile kind
+     * @return the display character
      */
-    private void extractSymbolInfo(JSONObject symbolsJSON) {
-        JSONArray symbolsJSONArray = (JSONArray) symbolsJSON.get("symbols");
-        for (Object o : symbolsJSONArray) {
-            JSONObject symbolObj = (JSONObject) o;
-            symbols.put(symbolObj.get("name").toString(), String.valueOf(symbolObj.get("symbol")).charAt(0));
-        }
+    public char getGlyph(TileKind kind) {
+        return glyphs[kind.ordinal()];
+    }
+
+    private static char[] emptyGlyphs() {
+        char[] empty = new char[TileKind.values().length];
+        Arrays.fill(empty, ' ');
+        return empty;
     }
 
     /**
-     * Get the room information.
+     * Gets every symbol name mapped to its display character.
      *
-     * @param roomsJSON (JSONObject) Contains information about the rooms
+     * @return the symbol map
      */
-    private void extractRoomInfo(JSONObject roomsJSON) {
-        JSONArray roomsJSONArray = (JSONArray) roomsJSON.get("room");
-        for (Object o : roomsJSONArray) {
-            rooms.add(singleRoom((JSONObject) o));
-        }
+    Map<String, Character> getSymbols() {
+        return symbols;
     }
 
     /**
-     * Get a room's information.
+     * Adds a parsed room.
      *
-     * @param roomJSON (JSONObject) Contains information about one room
-     * @return (Map < String, String >) Contains key/values that has information about the room
+     * @param room as the room to add
      */
-    private Map<String, String> singleRoom(JSONObject roomJSON) {
-        HashMap<String, String> room = new HashMap<>();
-        initializeRoomData(room, roomJSON);
-        JSONArray doorArray = (JSONArray) roomJSON.get("doors");
-        for (Object o : doorArray) {
-            JSONObject doorObj = (JSONObject) o;
-            String dir = String.valueOf(doorObj.get("dir"));
-            String cDir = dir + "C";
-            room.replace(dir, doorObj.get("wall_pos").toString());
-            room.replace(cDir, doorObj.get("con_room").toString());
-        }
-        JSONArray lootArray = (JSONArray) roomJSON.get("loot");
-        for (Object o : lootArray) {
-            itemLocations.add(itemPosition((JSONObject) o, roomJSON.get("id").toString()));
-        }
-        return room;
-    }
-
-    private void initializeRoomData(HashMap<String, String> room, JSONObject roomJSON) {
-        room.put("id", roomJSON.get("id").toString());
-        room.put("start", roomJSON.get("start").toString());
-        room.put("height", roomJSON.get("height").toString());
-        room.put("width", roomJSON.get("width").toString());
-        room.put("E", "-1");
-        room.put("N", "-1");
-        room.put("S", "-1");
-        room.put("W", "-1");
-        room.put("EC", "-1");
-        room.put("NC", "-1");
-        room.put("SC", "-1");
-        room.put("WC", "-1");
+    void addRoom(RoomDefinition room) {
+        rooms.add(room);
+        roomsById = null;
     }
 
     /**
-     * Create a map for information about an item in a room.
+     * Adds a parsed item definition.
      *
-     * @param lootJSON (JSONObject) Loot key from the rooms file
-     * @param roomID   (String) Room id value
-     * @return (Map < String, String >) Contains information about the item, where it is and what room
+     * @param item as the item to add
      */
-    private Map<String, String> itemPosition(JSONObject lootJSON, String roomID) {
-        HashMap<String, String> loot = new HashMap<>();
-        loot.put("room", roomID);
-        loot.put("id", lootJSON.get("id").toString());
-        loot.put("x", lootJSON.get("x").toString());
-        loot.put("y", lootJSON.get("y").toString());
-        return loot;
+    void addItemDefinition(ItemData item) {
+        itemMap.put(item.getId(), item);
     }
 
     /**
-     * Get the item information out of the item json array.
-     * @param roomsJSON as the jsonarray that holds all items
+     * Adds a parsed symbol.
+     *
+     * @param symbolName as the name of the symbol
+     * @param symbol     as the display character for the symbol
      */
-    private void extractItemInfo(JSONObject roomsJSON) {
-        JSONArray itemsJSONArray = (JSONArray) roomsJSON.get("items");
-        for (Object o : itemsJSONArray) {
-            items.add(singleItem((JSONObject) o));
+    void addSymbol(String symbolName, char symbol) {
+        symbols.put(symbolName, symbol);
+        TileKind kind = TileKind.forSymbolName(symbolName);
+        if (kind != null) {
+            glyphs[kind.ordinal()] = symbol;
         }
     }
 
     /**
-     * Get a single item from its JSON object.
+     * Read the file containing the file locations, then stream the rooms and symbols files it names.
+     * The symbols file is streamed on another thread into a parser of its own while the rooms file
+     * is streamed here, and is merged in afterwards, so the result is the same as reading the
+     * files one after another.
      *
-     * @param itemsJSON (JSONObject) JSON version of an item
-     * @return (Map < String, String >) Contains information about a single item
+     * @param filename (String) Name of the file
      */
-    private Map<String, String> singleItem(JSONObject itemsJSON) {
-        HashMap<String, String> item = new HashMap<>();
-        item.put("id", itemsJSON.get("id").toString());
-        item.put("name", itemsJSON.get("name").toString());
-        item.put("type", itemsJSON.get("type").toString());
-        item.put("description", itemsJSON.get("description").toString());
-        for (Map<String, String> itemLocation : itemLocations) {
-            if (itemLocation.get("id").equals(item.get("id"))) {
-                item.put("room", itemLocation.get("room"));
-                item.put("x", itemLocation.get("x"));
-                item.put("y", itemLocation.get("y"));
-                break;
+    private void parse(String filename) {
+        DungeonHandler handler = new DungeonHandler(this);
+        try {
+            stream(filename, handler);
+            RogueParser symbolsPart = new RogueParser();
+            String symbolsFile = handler.getSymbolsFile();
+            CompletableFuture<Void> symbols = CompletableFuture.runAsync(() -> {
+                try {
+                    symbolsPart.stream(symbolsFile, new DungeonHandler(symbolsPart));
+                } catch (IOException | ParseException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            stream(handler.getRoomsFile(), handler);
+            join(symbols);
+            merge(symbolsPart);
+        } catch (FileNotFoundException e) {
+            System.out.println("Cannot find file named: " + filename);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (ParseException e) {
+            System.out.println("Error parsing JSON file");
+        }
+    }
+
+    private void stream(String filename, DungeonHandler handler) throws IOException, ParseException {
+        if (filename == null) {
+            throw new FileNotFoundException();
+        }
+        sourceFiles.add(filename);
+        try (Reader reader = new BufferedReader(new FileReader(filename))) {
+            new JSONParser().parse(reader, handler);
+        }
+    }
+
+    private static void join(CompletableFuture<Void> part) throws IOException, ParseException {
+        try {
+            part.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            } else if (e.getCause() instanceof ParseException) {
+                throw (ParseException) e.getCause();
             }
+            throw e;
         }
-        return item;
     }
 
     /**
-     * Maps out all possibly existing items in the game to a map for easy lookup.
+     * Adds everything another parser read after what this one read.
      *
-     * @param roomsJSON as the items jsonarray in the file
-     * @return the associated item id mapped to its name type and description
+     * @param part as the parser to take the rooms, items, symbols and files of
      */
-    private Map<Integer, Map<String, String>> constructItemMap(JSONObject roomsJSON) {
-        JSONArray itemArray = (JSONArray) roomsJSON.get("items");
-        Map<Integer, Map<String, String>> bigMap = new HashMap<>();
-        for (Object o : itemArray) {
-            Map<String, String> itemInfo = new HashMap<>();
-            JSONObject jsonObject = (JSONObject) o;
-            int id = Integer.parseInt(jsonObject.get("id").toString());
-            itemInfo.put("name", jsonObject.get("name").toString());
-            itemInfo.put("type", jsonObject.get("type").toString());
-            itemInfo.put("description", jsonObject.get("description").toString());
-            bigMap.put(id, itemInfo);
+    private void merge(RogueParser part) {
+        for (RoomDefinition room : part.getRooms()) {
+            addRoom(room);
+        }
+        for (ItemData item : part.getAllPossibleItems().values()) {
+            addItemDefinition(item);
+        }
+        for (Map.Entry<String, Character> symbol : part.getSymbols().entrySet()) {
+            addSymbol(symbol.getKey(), symbol.getValue());
         }
-        return bigMap;
+        sourceFiles.addAll(part.sourceFiles);
     }
 
 }
@@ -1,9 +1,10 @@
 package rogue;
 
-import java.awt.Point;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.Map;
 
 
 /**
@@ -20,6 +21,14 @@ public class Room implements Serializable {
     private HashMap<String, HashMap<Integer, Door>> roomDoors = new HashMap<>();
     private HashMap<String, Character> symbols;
     private Rogue rogue;
+    private int monsterSlot;
+    private transient int[] itemSlots;
+    private transient BitSet occupiedTiles;
+    private transient int indexedItems;
+    private transient int[] doorLocations;
+    private transient Door[] wallDoors;
+    private transient char[] staticLayer;
+    private transient char[] staticGlyphs;
 
     /**
      * Default room constructor.
@@ -61,6 +70,7 @@ public class Room implements Serializable {
      */
     public void setWidth(int newWidth) {
         this.currentWidth = newWidth;
+        invalidateLayout();
     }
 
     /**
@@ -79,6 +89,7 @@ public class Room implements Serializable {
      */
     public void setHeight(int newHeight) {
         this.currentHeight = newHeight;
+        invalidateLayout();
     }
 
     /**
@@ -114,13 +125,15 @@ public class Room implements Serializable {
      * @param location as the location of the item
      * @return the item at that location
      */
-    public Item getItem(Point location) {
-        for (Item item : getRoomItems()) {
-            if (item.getXyLocation().getX() == location.getX()) {
-                if (item.getXyLocation().getY() == location.getY()) {
-                    return item;
-                }
-            }
+    public Item getItem(int location) {
+        return getItem(Position.x(location), Position.y(location));
+    }
+
+    private Item getItem(int x, int y) {
+        ensureTileIndex();
+        int tile = tileIndex(x, y);
+        if (tile != -1 && occupiedTiles.get(tile)) {
+            return roomItems.get(itemSlots[tile]);
         }
         return null;
     }
@@ -132,6 +145,54 @@ public class Room implements Serializable {
      */
     public void setRoomItems(ArrayList<Item> newRoomItems) {
         this.roomItems = newRoomItems;
+        indexTiles();
+        invalidateMonsterView();
+    }
+
+    /**
+     * Removes an item from the room.
+     *
+     * @param toRemove as the item to remove
+     * @return whether the item was in the room
+     */
+    public boolean removeItem(Item toRemove) {
+        ensureTileIndex();
+        int tile = tileIndex(toRemove.getXyLocation());
+        invalidateMonsterView();
+        if (tile == -1 || !occupiedTiles.get(tile) || roomItems.get(itemSlots[tile]) != toRemove) {
+            return roomItems.remove(toRemove); //Index is rebuilt on the next lookup
+        }
+        int slot = itemSlots[tile];
+        Item last = roomItems.remove(roomItems.size() - 1);
+        if (last != toRemove) { //Move the last item into the freed slot
+            roomItems.set(slot, last);
+            itemSlots[tileIndex(last.getXyLocation())] = slot;
+        }
+        occupiedTiles.clear(tile);
+        indexedItems--;
+        return true;
+    }
+
+    /**
+     * Finds the first empty floor tile in the room, scanning row by row.
+     *
+     * @return the packed empty tile, or {@link Position#NONE} if the room is full
+     */
+    public int findEmptyTile() {
+        ensureTileIndex();
+        int tile = occupiedTiles.nextClearBit(getWidth() + 1);
+        while (tile < itemSlots.length) {
+            int x = tile % getWidth();
+            int y = tile / getWidth();
+            if (y >= getHeight() - 1) {
+                break;
+            }
+            if (x != 0 && x != getWidth() - 1 && !isPlayer(x, y) && !isMonster(Position.pack(x, y))) {
+                return Position.pack(x, y);
+            }
+            tile = occupiedTiles.nextClearBit(tile + 1);
+        }
+        return Position.NONE;
     }
 
     /**
@@ -178,13 +239,19 @@ public class Room implements Serializable {
      * @return the location
      */
     public int getDoorLocation(String direction) {
-        HashMap<Integer, Door> map = getAllDoors().get(direction);
-        if (map != null) {
-            for (int distance : map.keySet()) {
-                return distance;
-            }
-        }
-        return -1;
+        Direction wall = Direction.forCode(direction);
+        return wall == null ? -1 : getDoorLocation(wall);
+    }
+
+    /**
+     * Gets the location of the door on a wall.
+     *
+     * @param wall as the wall the door is located on
+     * @return the location, or -1 if the wall has no door
+     */
+    public int getDoorLocation(Direction wall) {
+        ensureDoorIndex();
+        return doorLocations[wall.ordinal()];
     }
 
     /**
@@ -194,11 +261,19 @@ public class Room implements Serializable {
      * @return the associated door
      */
     public Door getDoor(String direction) {
-        HashMap<Integer, Door> map = getAllDoors().get(direction);
-        for (Door door : map.values()) {
-            return door;
-        }
-        return null;
+        Direction wall = Direction.forCode(direction);
+        return wall == null ? null : getDoor(wall);
+    }
+
+    /**
+     * Gets the door on a wall.
+     *
+     * @param wall as the wall the door is located on
+     * @return the door, or null if the wall has no door
+     */
+    public Door getDoor(Direction wall) {
+        ensureDoorIndex();
+        return wallDoors[wall.ordinal()];
     }
 
     /**
@@ -238,6 +313,7 @@ location is a number between 0 and the length of the wall
         HashMap<Integer, Door> door = getAllDoors().computeIfAbsent(direction, k -> new HashMap<>());
         door.put(location, new Door());
         roomDoors.put(direction, door);
+        invalidateLayout();
     }
 
     /**
@@ -251,6 +327,7 @@ location is a number between 0 and the length of the wall
         HashMap<Integer, Door> doors = getAllDoors().computeIfAbsent(direction, k -> new HashMap<>());
         doors.put(location, door);
         getAllDoors().computeIfAbsent(direction, k -> roomDoors.put(direction, doors));
+        invalidateLayout();
     }
 
     /**
@@ -261,10 +338,16 @@ location is a number between 0 and the length of the wall
      * @throws NoSuchItemException         if the item does not have a valid id
      */
     public void addItem(Item toAdd) throws ImpossiblePositionException, NoSuchItemException {
-        Point itemPos = toAdd.getXyLocation();
-        if (!(isWall(itemPos) || isOnItem(itemPos) || !(isInRoomBounds(itemPos)) || isPlayer(itemPos))) {
-            if (rogue.getRogueParser().getAllPossibleItems().get(toAdd.getId()) != null) {
+        int itemPos = toAdd.getXyLocation();
+        if (!(isWall(itemPos) || isOnItem(itemPos) || !(isInRoomBounds(itemPos)) || isPlayer(itemPos)
+                || isMonster(itemPos))) {
+            if (rogue.getRogueParser().getItemDefinition(toAdd.getId()) != null) {
                 roomItems.add(toAdd);
+                int tile = tileIndex(itemPos);
+                itemSlots[tile] = roomItems.size() - 1;
+                occupiedTiles.set(tile);
+                indexedItems++;
+                invalidateMonsterView();
             } else {
                 throw new NoSuchItemException();
             }
@@ -297,9 +380,14 @@ location is a number between 0 and the length of the wall
         return true;
     }
 
-    private boolean checkItems() {
+    /**
+     * Checks that every item is inside the room, off the walls and not under the player.
+     *
+     * @return true if every item is placed properly
+     */
+    boolean checkItems() {
         for (Item item : getRoomItems()) {
-            Point itemPos = item.getXyLocation();
+            int itemPos = item.getXyLocation();
             if (isWall(itemPos) || isPlayer(itemPos) || !(isInRoomBounds(itemPos))) {
                 return false;
             }
@@ -307,15 +395,25 @@ location is a number between 0 and the length of the wall
         return true;
     }
 
-    private boolean checkPlayer() {
+    /**
+     * Checks that the player, if in this room, is on a free floor tile.
+     *
+     * @return true if the player is placed properly
+     */
+    boolean checkPlayer() {
         if (getPlayer() != null) {
-            Point playerLoc = getPlayer().getXyLocation();
+            int playerLoc = getPlayer().getXyLocation();
             return isInRoomBounds(playerLoc) && !isWall(playerLoc) && !isOnItem(playerLoc);
         }
         return true;
     }
 
-    private boolean checkDoors() {
+    /**
+     * Checks that every door leads to another room.
+     *
+     * @return true if every door joins two rooms
+     */
+    boolean checkDoors() {
         for (Door door : getDoors()) {
             if (door.getConnectedRooms().size() < 2) {
                 return false;
@@ -327,107 +425,150 @@ location is a number between 0 and the length of the wall
     /**
      * Check if a location is a wall.
      *
-     * @param point as the location to check
+     * @param point as the packed location to check
      * @return true if it is a wall or false if it isnt
      */
-    public boolean isWall(Point point) {
-        boolean horizontalWall = point.getX() == 0 || point.getX() == getWidth() - 1;
-        boolean verticalWall = point.getY() == 0 || point.getY() == getHeight() - 1;
+    public boolean isWall(int point) {
+        int x = Position.x(point);
+        int y = Position.y(point);
+        boolean horizontalWall = x == 0 || x == getWidth() - 1;
+        boolean verticalWall = y == 0 || y == getHeight() - 1;
         return horizontalWall || verticalWall;
     }
 
     /**
      * Check if a location is on an item.
      *
-     * @param point as the location to check
+     * @param point as the packed location to check
      * @return true if it is on an item and false if it isnt
      */
-    public boolean isOnItem(Point point) {
-        for (Item item : getRoomItems()) {
-            if (item.getXyLocation().getX() == point.getX() && item.getXyLocation().getY() == point.getY()) {
-                return true;
-            }
-        }
-        return false;
+    public boolean isOnItem(int point) {
+        return getItem(point) != null;
     }
 
     /**
      * Check if a point is within the rooms bounds.
      *
-     * @param point as the point to check
+     * @param point as the packed point to check
      * @return whether the point is within the room
      */
-    public boolean isInRoomBounds(Point point) {
-        return point.getX() >= 0 && point.getX() < getWidth() && point.getY() >= 0 && point.getY() < getHeight();
+    public boolean isInRoomBounds(int point) {
+        return tileIndex(point) != -1;
     }
 
     /**
      * Checks if a location is on the player.
      *
-     * @param point as the location to check
+     * @param point as the packed location to check
      * @return if the location is on a player
      */
-    public boolean isPlayer(Point point) {
+    public boolean isPlayer(int point) {
         Player player = getPlayer();
-        if (player != null) {
-            return point.getX() == player.getXyLocation().getX() && point.getY() == player.getXyLocation().getY();
-        }
-        return false;
+        return player != null && player.getXyLocation() == point;
+    }
+
+    private boolean isPlayer(int x, int y) {
+        return isPlayer(Position.pack(x, y));
+    }
+
+    /**
+     * Checks if a monster stands on a location.
+     *
+     * @param point as the packed location to check
+     * @return if the location is on a monster
+     */
+    public boolean isMonster(int point) {
+        return rogue != null && rogue.getMonsters().at(this, point) != Monsters.NONE;
+    }
+
+    /**
+     * Checks if a location is the floor tile just inside a door, where the player lands on
+     * coming through it.
+     *
+     * @param point as the packed location to check
+     * @return if the location is inside a door
+     */
+    public boolean isDoorway(int point) {
+        int x = Position.x(point);
+        int y = Position.y(point);
+        return (x == 1 && getDoorLocation(Direction.WEST) == y)
+                || (x == getWidth() - 2 && getDoorLocation(Direction.EAST) == y)
+                || (y == 1 && getDoorLocation(Direction.NORTH) == x)
+                || (y == getHeight() - 2 && getDoorLocation(Direction.SOUTH) == x);
+    }
+
+    /**
+     * Gets this room's slot in the game's monsters.
+     *
+     * @return the slot plus one, or 0 if the room has never held a monster
+     */
+    int getMonsterSlot() {
+        return monsterSlot;
+    }
+
+    /**
+     * Sets this room's slot in the game's monsters.
+     *
+     * @param slot as the slot plus one
+     */
+    void setMonsterSlot(int slot) {
+        this.monsterSlot = slot;
     }
 
     /**
      * Checks to see if a point is on a door.
      *
-     * @param point as the point to check
+     * @param point as the packed point to check
      * @return true if on a door, false if not
      */
-    public boolean isOnDoor(Point point) {
-        Point loc = getDoorPoint(getWallDir(point));
-        if (loc != null) {
-            return loc.getX() == point.getX() && loc.getY() == point.getY();
-        }
-        return false;
+    public boolean isOnDoor(int point) {
+        Direction wall = getWallDir(point);
+        return wall != null && getDoorPoint(wall) == point;
     }
 
     /**
-     * Gets the string representation of a wall face.
+     * Gets the wall a point is on.
      *
-     * @param point as the point to check if on a wall face or not
-     * @return the string representation of the wall face
-     */
-    public String getWallDir(Point point) {
-        if (point.getX() == 0) {
-            return "W";
-        } else if (point.getX() == getWidth() - 1) {
-            return "E";
-        } else if (point.getY() == 0) {
-            return "N";
-        } else if (point.getY() == getHeight() - 1) {
-            return "S";
+     * @param point as the packed point to check
+     * @return the wall, or null if the point is not on a wall
+     */
+    public Direction getWallDir(int point) {
+        int x = Position.x(point);
+        int y = Position.y(point);
+        if (x == 0) {
+            return Direction.WEST;
+        } else if (x == getWidth() - 1) {
+            return Direction.EAST;
+        } else if (y == 0) {
+            return Direction.NORTH;
+        } else if (y == getHeight() - 1) {
+            return Direction.SOUTH;
         }
-        return "I";
+        return null;
     }
 
     /**
      * Gets a doors location based off a direction.
      *
-     * @param direction as the direction to be checked
-     * @return the point where the door resides at
-     */
-    public Point getDoorPoint(String direction) {
-        int loc = getDoorLocation(direction);
-        if (loc != -1) {
-            if (direction.equalsIgnoreCase("N")) {
-                return new Point(loc, 0);
-            } else if (direction.equalsIgnoreCase("S")) {
-                return new Point(loc, getHeight() - 1);
-            } else if (direction.equalsIgnoreCase("E")) {
-                return new Point(getWidth() - 1, loc);
-            } else if (direction.equalsIgnoreCase("W")) {
-                return new Point(0, loc);
-            }
+     * @param wall as the wall to be checked
+     * @return the packed point where the door resides at, or {@link Position#NONE} if the wall
+     *         has no door
+     */
+    public int getDoorPoint(Direction wall) {
+        int loc = getDoorLocation(wall);
+        if (loc == -1) {
+            return Position.NONE;
+        }
+        switch (wall) {
+            case NORTH:
+                return Position.pack(loc, 0);
+            case SOUTH:
+                return Position.pack(loc, getHeight() - 1);
+            case EAST:
+                return Position.pack(getWidth() - 1, loc);
+            default:
+                return Position.pack(0, loc);
         }
-        return null;
     }
 
     /**
@@ -436,64 +577,202 @@ location is a number between 0 and the length of the wall
      * @return (String) String representation of how the room looks
      */
     public String displayRoom() {
+        char[] tiles = renderTiles(null);
         StringBuilder room = new StringBuilder();
         room.append(Rogue.BLANK_OFFSET);
         for (int i = 0; i < getHeight(); i++) {
-            for (int j = 0; j < getWidth(); j++) {
-                checkNorthSouth(room, i, j);
-            }
+            room.append(tiles, i * getWidth(), getWidth());
             room.append("\n" + Rogue.BLANK_OFFSET);
         }
         return room.toString();
     }
 
-    private void checkNorthSouth(StringBuilder room, int i, int j) {
+    /**
+     * Renders every tile of the room into a row-major array of display characters.
+     *
+     * <p>Walls, doors and floor come from a cached copy of the room's static layer, so only the
+     * player, the items and the monsters are drawn on each call. Every frontend renders through
+     * here, so this is what the render latency histogram times.
+     *
+     * @param tiles as an array to render into, or null to allocate a new one
+     * @return the rendered tiles, holding width * height characters
+     */
+    public char[] renderTiles(char[] tiles) {
+        long start = System.nanoTime();
+        char[] rendered = tiles;
+        if (rendered == null || rendered.length < getWidth() * getHeight()) {
+            rendered = new char[getWidth() * getHeight()];
+        }
+        char[] glyphs = rogue.getRogueParser().getGlyphs();
+        System.arraycopy(staticLayer(glyphs), 0, rendered, 0, getWidth() * getHeight());
+        ensureTileIndex();
+        for (int i = 0; i < roomItems.size(); i++) {
+            Item item = roomItems.get(i);
+            int tile = interiorTile(item.getXyLocation());
+            if (tile != -1 && occupiedTiles.get(tile) && itemSlots[tile] == i) {
+                rendered[tile] = glyphs[item.getKind().ordinal()];
+            }
+        }
+        Monsters monsters = rogue.getMonsters();
+        for (int m = monsters.first(this); m != Monsters.NONE; m = monsters.next(m)) {
+            int tile = interiorTile(monsters.getPosition(m));
+            if (tile != -1) {
+                rendered[tile] = glyphs[TileKind.MONSTER.ordinal()];
+            }
+        }
+        if (getPlayer() != null) {
+            int tile = interiorTile(getPlayer().getXyLocation());
+            if (tile != -1) {
+                rendered[tile] = glyphs[TileKind.PLAYER.ordinal()];
+            }
+        }
+        GameMetrics.RENDER.recordSince(start);
+        return rendered;
+    }
+
+    /**
+     * Gets the walls, doors and floor of the room, rendering them again only if the doors or
+     * size have changed since they were last rendered.
+     *
+     * @param glyphs as the glyph table to render with
+     * @return the static layer, holding width * height characters
+     */
+    private char[] staticLayer(char[] glyphs) {
+        if (staticLayer == null || staticGlyphs != glyphs) {
+            char[] layer = new char[Math.max(getWidth() * getHeight(), 0)];
+            for (int i = 0; i < getHeight(); i++) {
+                for (int j = 0; j < getWidth(); j++) {
+                    layer[i * getWidth() + j] = checkNorthSouth(glyphs, i, j);
+                }
+            }
+            staticGlyphs = glyphs;
+            staticLayer = layer;
+        }
+        return staticLayer;
+    }
+
+    private char checkNorthSouth(char[] glyphs, int i, int j) {
         if (i == 0) {
-            if (getDoorLocation("N") == j) {
-                room.append(rogue.getRogueParser().getSymbol("DOOR"));
-            } else {
-                room.append(rogue.getRogueParser().getSymbol("NS_WALL"));
+            if (getDoorLocation(Direction.NORTH) == j) {
+                return glyphs[TileKind.DOOR.ordinal()];
             }
+            return glyphs[TileKind.NS_WALL.ordinal()];
         } else if (i == getHeight() - 1) {
-            if (getDoorLocation("S") == j) {
-                room.append(rogue.getRogueParser().getSymbol("DOOR"));
-            } else {
-                room.append(rogue.getRogueParser().getSymbol("NS_WALL"));
+            if (getDoorLocation(Direction.SOUTH) == j) {
+                return glyphs[TileKind.DOOR.ordinal()];
             }
-        } else {
-            checkEastWest(room, i, j);
+            return glyphs[TileKind.NS_WALL.ordinal()];
         }
+        return checkEastWest(glyphs, i, j);
     }
 
-    private void checkEastWest(StringBuilder room, int i, int j) {
+    private char checkEastWest(char[] glyphs, int i, int j) {
         if (j == 0) {
-            if (getDoorLocation("W") == i) {
-                room.append(rogue.getRogueParser().getSymbol("DOOR"));
-            } else {
-                room.append(rogue.getRogueParser().getSymbol("EW_WALL"));
+            if (getDoorLocation(Direction.WEST) == i) {
+                return glyphs[TileKind.DOOR.ordinal()];
             }
+            return glyphs[TileKind.EW_WALL.ordinal()];
         } else if (j == getWidth() - 1) {
-            if (getDoorLocation("E") == i) {
-                room.append(rogue.getRogueParser().getSymbol("DOOR"));
-            } else {
-                room.append(rogue.getRogueParser().getSymbol("EW_WALL"));
+            if (getDoorLocation(Direction.EAST) == i) {
+                return glyphs[TileKind.DOOR.ordinal()];
             }
-        } else {
-            room.append(checkPlayerAndLoot(j, i));
+            return glyphs[TileKind.EW_WALL.ordinal()];
         }
+        return glyphs[TileKind.FLOOR.ordinal()];
     }
 
-    private char checkPlayerAndLoot(int x, int y) {
-        if (getPlayer() != null) {
-            if (getPlayer().getXyLocation().getX() == x && getPlayer().getXyLocation().getY() == y) {
-                return rogue.getRogueParser().getSymbol("PLAYER");
+    /**
+     * Gets the index of a tile that is inside the walls.
+     *
+     * @param position as the packed position of the tile
+     * @return the tile index, or -1 if the tile is a wall or outside the room
+     */
+    private int interiorTile(int position) {
+        int x = Position.x(position);
+        int y = Position.y(position);
+        if (x <= 0 || x >= getWidth() - 1 || y <= 0 || y >= getHeight() - 1) {
+            return -1;
+        }
+        return y * getWidth() + x;
+    }
+
+    private int tileIndex(int position) {
+        return tileIndex(Position.x(position), Position.y(position));
+    }
+
+    /**
+     * Gets the index of a tile in the item grid.
+     *
+     * @param x as the x coordinate of the tile
+     * @param y as the y coordinate of the tile
+     * @return the tile index, or -1 if the tile is outside the room
+     */
+    private int tileIndex(int x, int y) {
+        if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) {
+            return -1;
+        }
+        return y * getWidth() + x;
+    }
+
+    private void ensureTileIndex() {
+        if (itemSlots == null || itemSlots.length != getWidth() * getHeight() || indexedItems != roomItems.size()) {
+            indexTiles();
+        }
+    }
+
+    /**
+     * Rebuilds the grid that maps each tile to the slot of the item sitting on it.
+     */
+    private void indexTiles() {
+        itemSlots = new int[Math.max(getWidth() * getHeight(), 0)];
+        occupiedTiles = new BitSet(itemSlots.length);
+        for (int i = 0; i < roomItems.size(); i++) {
+            int tile = tileIndex(roomItems.get(i).getXyLocation());
+            if (tile != -1 && !occupiedTiles.get(tile)) {
+                itemSlots[tile] = i;
+                occupiedTiles.set(tile);
             }
         }
-        for (Item item : getRoomItems()) {
-            if (item.getXyLocation().getX() == x && item.getXyLocation().getY() == y) {
-                return rogue.getRogueParser().getSymbol(item.getItemType().toUpperCase());
+        indexedItems = roomItems.size();
+    }
+
+    /**
+     * Drops the door index and the static layer after the doors or size of the room change.
+     */
+    private void invalidateLayout() {
+        doorLocations = null;
+        staticLayer = null;
+        invalidateMonsterView();
+    }
+
+    /**
+     * Tells the game's monsters that the items or doors of this room changed.
+     */
+    private void invalidateMonsterView() {
+        if (monsterSlot != 0 && rogue != null) {
+            rogue.getMonsters().invalidate(this);
+        }
+    }
+
+    private void ensureDoorIndex() {
+        if (doorLocations != null) {
+            return;
+        }
+        Direction[] walls = Direction.values();
+        int[] locations = new int[walls.length];
+        Door[] doors = new Door[walls.length];
+        for (Direction wall : walls) {
+            locations[wall.ordinal()] = -1;
+            HashMap<Integer, Door> map = getAllDoors().get(wall.getCode());
+            if (map != null) {
+                for (Map.Entry<Integer, Door> door : map.entrySet()) {
+                    locations[wall.ordinal()] = door.getKey();
+                    doors[wall.ordinal()] = door.getValue();
+                    break;
+                }
             }
         }
-        return rogue.getRogueParser().getSymbol("FLOOR");
+        wallDoors = doors;
+        doorLocations = locations;
     }
 }
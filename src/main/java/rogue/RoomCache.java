@@ -0,0 +1,131 @@
+package rogue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Builds the rooms of a lazy game on demand and drops the least recently used ones.
+ *
+ * <p>When the player enters a room, every room one door away is built so the doors lead
+ * somewhere. Rooms beyond the budget are then dropped, oldest first, except the player's room
+ * and its neighbours. A dropped room whose items changed, because the player picked something
+ * up or tossed something into it, is remembered as a copy of its room data with the new loot,
+ * so it is rebuilt the way it was left.
+ */
+class RoomCache {
+
+    private static final String[] DIRECTIONS = {"N", "S", "E", "W"};
+    private static final int LOOT_FIELDS = 3;
+    private final Rogue game;
+    private final IntFunction<RoomDefinition> source;
+    private final int budget;
+    private final LinkedHashMap<Integer, Room> resident = new LinkedHashMap<>(16, 0.75f, true);
+    private final HashMap<Integer, int[]> builtLoot = new HashMap<>();
+    private final HashMap<Integer, RoomData> changedRooms = new HashMap<>();
+
+    /**
+     * Room cache constructor.
+     *
+     * @param theGame       as the game the rooms belong to
+     * @param roomSource    as the lookup from a room id to its room data
+     * @param residentRooms as the most rooms to keep built
+     */
+    RoomCache(Rogue theGame, IntFunction<RoomDefinition> roomSource, int residentRooms) {
+        this.game = theGame;
+        this.source = roomSource;
+        this.budget = residentRooms;
+    }
+
+    /**
+     * Gets a room, building it if it is not built.
+     *
+     * @param roomId as the id of the room
+     * @return the room, or null if there is no room with that id
+     */
+    Room materialize(int roomId) {
+        Room room = resident.get(roomId);
+        if (room != null) {
+            return room;
+        }
+        RoomDefinition data = roomData(roomId);
+        if (data == null) {
+            return null;
+        }
+        room = game.buildRoom(data, data.isStart() && game.getPlayer() == null);
+        resident.put(roomId, room);
+        builtLoot.put(roomId, packLoot(room));
+        return room;
+    }
+
+    /**
+     * Builds the neighbours of the room the player just entered and drops rooms over budget.
+     *
+     * @param room as the room the player is in
+     */
+    void enter(Room room) {
+        HashSet<Integer> pinned = new HashSet<>();
+        pinned.add(room.getId());
+        resident.get(room.getId());
+        RoomDefinition data = roomData(room.getId());
+        for (String direction : DIRECTIONS) {
+            int neighbour = data.getConnectedRoom(direction);
+            if (data.getDoorPosition(direction) != -1 && materialize(neighbour) != null) {
+                pinned.add(neighbour);
+            }
+        }
+        Iterator<Map.Entry<Integer, Room>> oldest = resident.entrySet().iterator();
+        while (resident.size() > budget && oldest.hasNext()) {
+            Map.Entry<Integer, Room> entry = oldest.next();
+            if (!pinned.contains(entry.getKey())) {
+                oldest.remove();
+                evict(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of rooms currently built.
+     *
+     * @return the resident room count
+     */
+    int getResidentCount() {
+        return resident.size();
+    }
+
+    private RoomDefinition roomData(int roomId) {
+        RoomData changed = changedRooms.get(roomId);
+        return changed != null ? changed : source.apply(roomId);
+    }
+
+    private void evict(Room room) {
+        int[] loot = packLoot(room);
+        if (!Arrays.equals(loot, builtLoot.remove(room.getId()))) {
+            RoomData changed = RoomData.copyWithoutLoot(roomData(room.getId()));
+            for (int i = 0; i < loot.length; i += LOOT_FIELDS) {
+                changed.addLoot(loot[i], loot[i + 1], loot[i + 2]);
+            }
+            changed.trimLoot();
+            changedRooms.put(room.getId(), changed);
+        }
+        for (Door door : room.getDoors()) {
+            door.disconnectRoom(room);
+        }
+        game.unregisterRoom(room);
+    }
+
+    private static int[] packLoot(Room room) {
+        int[] loot = new int[room.getRoomItems().size() * LOOT_FIELDS];
+        for (int i = 0; i < room.getRoomItems().size(); i++) {
+            Item item = room.getRoomItems().get(i);
+            loot[i * LOOT_FIELDS] = item.getId();
+            loot[i * LOOT_FIELDS + 1] = Position.x(item.getXyLocation());
+            loot[i * LOOT_FIELDS + 2] = Position.y(item.getXyLocation());
+        }
+        return loot;
+    }
+}
@@ -0,0 +1,327 @@
+package rogue;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The parsed definition of a room: its size, its doors and the loot and monsters placed in it.
+ */
+public class RoomData implements RoomDefinition, Serializable {
+
+    private static final String DIRECTIONS = "NSEW";
+    private static final int INITIAL_LOOT = 4;
+    private static final int LOOT_FIELDS = 3;
+    private static final int INITIAL_MONSTERS = 2;
+    private static final int MONSTER_FIELDS = 4;
+    private int id;
+    private boolean start;
+    private int width;
+    private int height;
+    private int[] doorPositions = {-1, -1, -1, -1};
+    private int[] connectedRooms = {-1, -1, -1, -1};
+    private int lootCount;
+    private int[] loot = new int[0];
+    private int monsterCount;
+    private int[] monsters = new int[0];
+
+    /**
+     * Default room data constructor, the fields are filled in while parsing.
+     */
+    public RoomData() {
+
+    }
+
+    /**
+     * Gets the id of the room.
+     *
+     * @return the id
+     */
+    @Override
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id of the room.
+     *
+     * @param newId as the new id
+     */
+    public void setId(int newId) {
+        this.id = newId;
+    }
+
+    /**
+     * Checks if the player starts in this room.
+     *
+     * @return whether this is the start room
+     */
+    @Override
+    public boolean isStart() {
+        return start;
+    }
+
+    /**
+     * Sets whether the player starts in this room.
+     *
+     * @param isStart as whether this is the start room
+     */
+    public void setStart(boolean isStart) {
+        this.start = isStart;
+    }
+
+    /**
+     * Gets the width of the room.
+     *
+     * @return the width
+     */
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Sets the width of the room.
+     *
+     * @param newWidth as the new width
+     */
+    public void setWidth(int newWidth) {
+        this.width = newWidth;
+    }
+
+    /**
+     * Gets the height of the room.
+     *
+     * @return the height
+     */
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Sets the height of the room.
+     *
+     * @param newHeight as the new height
+     */
+    public void setHeight(int newHeight) {
+        this.height = newHeight;
+    }
+
+    /**
+     * Sets the door on a wall. A direction that is not exactly one of the wall names, including
+     * null, sets no door.
+     *
+     * @param direction as the wall the door is on, "N", "S", "E" or "W"
+     * @param wallPos   as how far along the wall the door is
+     * @param conRoom   as the id of the room on the other side
+     */
+    public void setDoor(String direction, int wallPos, int conRoom) {
+        int wall = wallIndex(direction);
+        if (wall != -1) {
+            doorPositions[wall] = wallPos;
+            connectedRooms[wall] = conRoom;
+        }
+    }
+
+    /**
+     * Gets where a wall is in the door arrays. Only the exact wall names are walls, so "", "NS"
+     * or "n" is not.
+     *
+     * @param direction as the wall name
+     * @return the index of the wall, or -1 if the name is not a wall
+     */
+    static int wallIndex(String direction) {
+        Direction wall = Direction.forCode(direction);
+        return wall == null || !wall.getCode().equals(direction) ? -1 : wall.ordinal();
+    }
+
+    /**
+     * Gets how far along a wall its door is.
+     *
+     * @param direction as the wall, "N", "S", "E" or "W"
+     * @return the door position, or -1 if the wall has no door
+     */
+    @Override
+    public int getDoorPosition(String direction) {
+        int wall = wallIndex(direction);
+        return wall == -1 ? -1 : doorPositions[wall];
+    }
+
+    /**
+     * Gets the room on the other side of a wall's door.
+     *
+     * @param direction as the wall, "N", "S", "E" or "W"
+     * @return the connected room id, or -1 if the wall has no door
+     */
+    @Override
+    public int getConnectedRoom(String direction) {
+        int wall = wallIndex(direction);
+        return wall == -1 ? -1 : connectedRooms[wall];
+    }
+
+    /**
+     * Places a piece of loot in the room.
+     *
+     * @param itemId as the id of the item
+     * @param x      as the x position of the item
+     * @param y      as the y position of the item
+     */
+    public void addLoot(int itemId, int x, int y) {
+        int slot = lootCount * LOOT_FIELDS;
+        if (loot.length < slot + LOOT_FIELDS) {
+            loot = Arrays.copyOf(loot, Math.max(INITIAL_LOOT * LOOT_FIELDS, loot.length * 2));
+        }
+        loot[slot] = itemId;
+        loot[slot + 1] = x;
+        loot[slot + 2] = y;
+        lootCount++;
+    }
+
+    /**
+     * Places a monster in the room.
+     *
+     * @param x         as the x position of the monster
+     * @param y         as the y position of the monster
+     * @param hitPoints as the hits it takes to kill the monster
+     * @param behavior  as what the monster does on its turns
+     */
+    public void addMonster(int x, int y, int hitPoints, Behavior behavior) {
+        int slot = monsterCount * MONSTER_FIELDS;
+        if (monsters.length < slot + MONSTER_FIELDS) {
+            monsters = Arrays.copyOf(monsters, Math.max(INITIAL_MONSTERS * MONSTER_FIELDS, monsters.length * 2));
+        }
+        monsters[slot] = x;
+        monsters[slot + 1] = y;
+        monsters[slot + 2] = hitPoints;
+        monsters[slot + 3] = behavior.ordinal();
+        monsterCount++;
+    }
+
+    /**
+     * Copies a room's id, size, doors and monsters but none of its loot.
+     *
+     * @param room as the room to copy
+     * @return the copy
+     */
+    static RoomData copyWithoutLoot(RoomDefinition room) {
+        RoomData copy = new RoomData();
+        copy.setId(room.getId());
+        copy.setStart(room.isStart());
+        copy.setWidth(room.getWidth());
+        copy.setHeight(room.getHeight());
+        for (int wall = 0; wall < DIRECTIONS.length(); wall++) {
+            String direction = String.valueOf(DIRECTIONS.charAt(wall));
+            copy.setDoor(direction, room.getDoorPosition(direction), room.getConnectedRoom(direction));
+        }
+        for (int i = 0; i < room.getMonsterCount(); i++) {
+            copy.addMonster(room.getMonsterX(i), room.getMonsterY(i), room.getMonsterHp(i),
+                    room.getMonsterBehavior(i));
+        }
+        return copy;
+    }
+
+    /**
+     * Releases any spare loot and monster capacity once parsing of the room is done.
+     */
+    public void trimLoot() {
+        loot = Arrays.copyOf(loot, lootCount * LOOT_FIELDS);
+        monsters = Arrays.copyOf(monsters, monsterCount * MONSTER_FIELDS);
+    }
+
+    /**
+     * Gets how many pieces of loot are placed in the room.
+     *
+     * @return the loot count
+     */
+    @Override
+    public int getLootCount() {
+        return lootCount;
+    }
+
+    /**
+     * Gets the item id of a piece of loot.
+     *
+     * @param index as the index of the loot
+     * @return the item id
+     */
+    @Override
+    public int getLootId(int index) {
+        return loot[index * LOOT_FIELDS];
+    }
+
+    /**
+     * Gets the x position of a piece of loot.
+     *
+     * @param index as the index of the loot
+     * @return the x position
+     */
+    @Override
+    public int getLootX(int index) {
+        return loot[index * LOOT_FIELDS + 1];
+    }
+
+    /**
+     * Gets the y position of a piece of loot.
+     *
+     * @param index as the index of the loot
+     * @return the y position
+     */
+    @Override
+    public int getLootY(int index) {
+        return loot[index * LOOT_FIELDS + 2];
+    }
+
+    /**
+     * Gets how many monsters are placed in the room.
+     *
+     * @return the monster count
+     */
+    @Override
+    public int getMonsterCount() {
+        return monsterCount;
+    }
+
+    /**
+     * Gets the x position of a monster.
+     *
+     * @param index as the index of the monster
+     * @return the x position
+     */
+    @Override
+    public int getMonsterX(int index) {
+        return monsters[index * MONSTER_FIELDS];
+    }
+
+    /**
+     * Gets the y position of a monster.
+     *
+     * @param index as the index of the monster
+     * @return the y position
+     */
+    @Override
+    public int getMonsterY(int index) {
+        return monsters[index * MONSTER_FIELDS + 1];
+    }
+
+    /**
+     * Gets the hit points of a monster.
+     *
+     * @param index as the index of the monster
+     * @return the hit points
+     */
+    @Override
+    public int getMonsterHp(int index) {
+        return monsters[index * MONSTER_FIELDS + 2];
+    }
+
+    /**
+     * Gets what a monster does on its turns.
+     *
+     * @param index as the index of the monster
+     * @return the behavior
+     */
+    @Override
+    public Behavior getMonsterBehavior(int index) {
+        return Behavior.forOrdinal(monsters[index * MONSTER_FIELDS + 3]);
+    }
+}
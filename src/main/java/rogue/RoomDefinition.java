@@ -0,0 +1,124 @@
+package rogue;
+
+/**
+ * The read side of a parsed room: its size, its doors and the loot and monsters placed in it.
+ *
+ * <p>Rooms parsed from JSON are held as {@link RoomData}, while a mapped dungeon reads each field
+ * straight from its file, so anything that only builds rooms should depend on this.
+ */
+public interface RoomDefinition {
+
+    /**
+     * Gets the id of the room.
+     *
+     * @return the id
+     */
+    int getId();
+
+    /**
+     * Checks if the player starts in this room.
+     *
+     * @return whether this is the start room
+     */
+    boolean isStart();
+
+    /**
+     * Gets the width of the room.
+     *
+     * @return the width
+     */
+    int getWidth();
+
+    /**
+     * Gets the height of the room.
+     *
+     * @return the height
+     */
+    int getHeight();
+
+    /**
+     * Gets how far along a wall its door is.
+     *
+     * @param direction as the wall, "N", "S", "E" or "W"
+     * @return the door position, or -1 if the wall has no door
+     */
+    int getDoorPosition(String direction);
+
+    /**
+     * Gets the room on the other side of a wall's door.
+     *
+     * @param direction as the wall, "N", "S", "E" or "W"
+     * @return the connected room id, or -1 if the wall has no door
+     */
+    int getConnectedRoom(String direction);
+
+    /**
+     * Gets how many pieces of loot are placed in the room.
+     *
+     * @return the loot count
+     */
+    int getLootCount();
+
+    /**
+     * Gets the item id of a piece of loot.
+     *
+     * @param index as the index of the loot
+     * @return the item id
+     */
+    int getLootId(int index);
+
+    /**
+     * Gets the x position of a piece of loot.
+     *
+     * @param index as the index of the loot
+     * @return the x position
+     */
+    int getLootX(int index);
+
+    /**
+     * Gets the y position of a piece of loot.
+     *
+     * @param index as the index of the loot
+     * @return the y position
+     */
+    int getLootY(int index);
+
+    /**
+     * Gets how many monsters are placed in the room.
+     *
+     * @return the monster count
+     */
+    int getMonsterCount();
+
+    /**
+     * Gets the x position of a monster.
+     *
+     * @param index as the index of the monster
+     * @return the x position
+     */
+    int getMonsterX(int index);
+
+    /**
+     * Gets the y position of a monster.
+     *
+     * @param index as the index of the monster
+     * @return the y position
+     */
+    int getMonsterY(int index);
+
+    /**
+     * Gets the hit points of a monster.
+     *
+     * @param index as the index of the monster
+     * @return the hit points
+     */
+    int getMonsterHp(int index);
+
+    /**
+     * Gets what a monster does on its turns.
+     *
+     * @param index as the index of the monster
+     * @return the behavior
+     */
+    Behavior getMonsterBehavior(int index);
+}
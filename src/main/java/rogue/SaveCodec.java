@@ -0,0 +1,499 @@
+package rogue;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes saved games in a compact binary format.
+ *
+ * <p>A save is a header (magic number, version) followed by flat records that refer to each
+ * other by index: symbols, item definitions, rooms, doors, items, room contents, the player, the
+ * inventory and, from version 2, the monsters. A CRC32 of everything before it ends the file.
+ * Nothing is written recursively, so the size of the dungeon does not affect the stack depth.
+ */
+public final class SaveCodec {
+
+    public static final int MAGIC = 0x524F4755;
+    public static final int VERSION = 2;
+    private static final int FIRST_MONSTER_VERSION = 2;
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int NONE = -1;
+    private static final String[] DIRECTIONS = {"N", "S", "E", "W"};
+    private ByteBuffer out = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private ByteBuffer in;
+    private int version;
+    private Map<Room, Integer> roomIndex = new IdentityHashMap<>();
+    private Map<Item, Integer> itemIndex = new IdentityHashMap<>();
+    private ArrayList<Item> itemList = new ArrayList<>();
+
+    private SaveCodec() {
+
+    }
+
+    /**
+     * Writes a game to a file.
+     *
+     * @param game     as the game to save
+     * @param filename as the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Rogue game, String filename) throws IOException {
+        long start = System.nanoTime();
+        ByteBuffer encoded = encode(game);
+        GameMetrics.SAVE_SIZE.record(encoded.remaining());
+        try (FileChannel channel = new FileOutputStream(filename).getChannel()) {
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+        }
+        GameMetrics.SAVE.recordSince(start);
+    }
+
+    /**
+     * Reads a game from a file.
+     *
+     * @param filename as the file to read
+     * @return the loaded game
+     * @throws IOException if the file cannot be read or is not a valid save
+     */
+    public static Rogue load(String filename) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = new FileInputStream(filename).getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            int read = 0;
+            while (buffer.hasRemaining() && read != -1) {
+                read = channel.read(buffer);
+            }
+            buffer.flip();
+            GameMetrics.LOAD_SIZE.record(buffer.remaining());
+            Rogue game = decode(buffer);
+            GameMetrics.LOAD.recordSince(start);
+            return game;
+        }
+    }
+
+    /**
+     * Encodes a game into a buffer ready to be read from.
+     *
+     * @param game as the game to encode
+     * @return the encoded game
+     * @throws IllegalArgumentException if the game builds its rooms lazily
+     */
+    public static ByteBuffer encode(Rogue game) {
+        if (game.isLazy()) {
+            throw new IllegalArgumentException("Games that build rooms lazily cannot be saved");
+        }
+        SaveCodec codec = new SaveCodec();
+        codec.writeGame(game);
+        ByteBuffer encoded = codec.out;
+        CRC32 crc = new CRC32();
+        crc.update(encoded.array(), 0, encoded.position());
+        codec.putInt((int) crc.getValue());
+        encoded = codec.out;
+        encoded.flip();
+        return encoded;
+    }
+
+    /**
+     * Decodes a game from a buffer.
+     *
+     * @param buffer as the encoded game, from its position to its limit
+     * @return the decoded game
+     * @throws IOException if the buffer does not hold a valid save
+     */
+    public static Rogue decode(ByteBuffer buffer) throws IOException {
+        SaveCodec codec = new SaveCodec();
+        codec.in = buffer;
+        try {
+            codec.checkHeader();
+            return codec.readGame();
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt save file", e);
+        }
+    }
+
+    private void writeGame(Rogue game) {
+        putInt(MAGIC);
+        putInt(VERSION);
+        writeParser(game.getRogueParser());
+        indexItems(game);
+        ArrayList<Room> rooms = game.getRooms();
+        putInt(rooms.size());
+        for (Room room : rooms) {
+            roomIndex.put(room, roomIndex.size());
+            putInt(room.getId());
+            putInt(room.getWidth());
+            putInt(room.getHeight());
+        }
+        writeDoors(rooms);
+        writeItems();
+        for (Room room : rooms) {
+            writeItemRefs(room.getRoomItems());
+        }
+        writePlayer(game.getPlayer());
+        writeMonsters(game.getMonsters());
+    }
+
+    private void writeParser(RogueParser parser) {
+        Map<String, Character> symbols = parser.getSymbols();
+        putInt(symbols.size());
+        for (Map.Entry<String, Character> symbol : symbols.entrySet()) {
+            writeString(symbol.getKey());
+            putChar(symbol.getValue());
+        }
+        Map<Integer, ItemData> definitions = parser.getAllPossibleItems();
+        putInt(definitions.size());
+        for (ItemData definition : definitions.values()) {
+            putInt(definition.getId());
+            writeString(definition.getName());
+            writeString(definition.getType());
+            writeString(definition.getDescription());
+        }
+    }
+
+    private void indexItems(Rogue game) {
+        for (Item item : game.getItems()) {
+            indexItem(item);
+        }
+        for (Room room : game.getRooms()) {
+            for (Item item : room.getRoomItems()) {
+                indexItem(item);
+            }
+        }
+        if (game.getPlayer() != null) {
+            for (Item item : game.getPlayer().getInventory().getItems()) {
+                indexItem(item);
+            }
+        }
+    }
+
+    private void indexItem(Item item) {
+        if (!itemIndex.containsKey(item)) {
+            itemIndex.put(item, itemList.size());
+            itemList.add(item);
+        }
+    }
+
+    private void writeDoors(ArrayList<Room> rooms) {
+        Map<Door, Integer> doorIndex = new IdentityHashMap<>();
+        ArrayList<Door> doors = new ArrayList<>();
+        for (Room room : rooms) {
+            for (Door door : room.getDoors()) {
+                if (!doorIndex.containsKey(door)) {
+                    doorIndex.put(door, doors.size());
+                    doors.add(door);
+                }
+            }
+        }
+        putInt(doors.size());
+        for (Door door : doors) {
+            putInt(door.getConnectedRooms().size());
+            for (Room connected : door.getConnectedRooms()) {
+                putInt(roomRef(connected));
+            }
+        }
+        for (Room room : rooms) {
+            int count = 0;
+            for (String direction : DIRECTIONS) {
+                HashMap<Integer, Door> wall = room.getAllDoors().get(direction);
+                count += wall == null ? 0 : wall.size();
+            }
+            putInt(count);
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                HashMap<Integer, Door> wall = room.getAllDoors().get(DIRECTIONS[i]);
+                if (wall != null) {
+                    for (Map.Entry<Integer, Door> door : wall.entrySet()) {
+                        putByte((byte) i);
+                        putInt(door.getKey());
+                        putInt(doorIndex.get(door.getValue()));
+                    }
+                }
+            }
+        }
+    }
+
+    private void writeItems() {
+        putInt(itemList.size());
+        for (Item item : itemList) {
+            putInt(item.getId());
+            putInt(roomRef(item.getCurrentRoom()));
+            writePoint(item.getXyLocation());
+            writeString(item.getName());
+            writeString(item.getType());
+            writeString(item.getDescription());
+        }
+    }
+
+    private void writeItemRefs(List<Item> items) {
+        putInt(items.size());
+        for (Item item : items) {
+            putInt(itemIndex.get(item));
+        }
+    }
+
+    private void writePlayer(Player player) {
+        putByte((byte) (player == null ? 0 : 1));
+        if (player != null) {
+            writeString(player.getName());
+            putInt(roomRef(player.getCurrentRoom()));
+            writePoint(player.getXyLocation());
+            Item worn = player.getWearableItem();
+            putInt(worn == null || !itemIndex.containsKey(worn) ? NONE : itemIndex.get(worn));
+            writeItemRefs(player.getInventory().getItems());
+        }
+    }
+
+    private void writeMonsters(Monsters monsters) {
+        putInt(monsters.getTick());
+        putInt(monsters.size());
+        for (int i = 0; i < monsters.size(); i++) {
+            putInt(roomRef(monsters.getRoom(i)));
+            writePoint(monsters.getPosition(i));
+            putInt(monsters.getHp(i));
+            putByte((byte) monsters.getBehavior(i).ordinal());
+            putInt(monsters.getReadyAt(i));
+        }
+    }
+
+    private int roomRef(Room room) {
+        Integer index = room == null ? null : roomIndex.get(room);
+        return index == null ? NONE : index;
+    }
+
+    private void writePoint(int point) {
+        putByte((byte) (point == Position.NONE ? 0 : 1));
+        if (point != Position.NONE) {
+            putInt(Position.x(point));
+            putInt(Position.y(point));
+        }
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            putInt(NONE);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(Integer.BYTES + bytes.length);
+        putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private void putInt(int value) {
+        ensure(Integer.BYTES);
+        out.putInt(value);
+    }
+
+    private void putChar(char value) {
+        ensure(Character.BYTES);
+        out.putChar(value);
+    }
+
+    private void putByte(byte value) {
+        ensure(1);
+        out.put(value);
+    }
+
+    private void ensure(int bytes) {
+        if (out.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+            out.flip();
+            larger.put(out);
+            out = larger;
+        }
+    }
+
+    private void checkHeader() throws IOException {
+        int start = in.position();
+        int end = in.limit() - Integer.BYTES;
+        if (end - start < Integer.BYTES * 2 || in.getInt() != MAGIC) {
+            throw new IOException("Not a save file");
+        }
+        version = in.getInt();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported save version " + version);
+        }
+        byte[] body = new byte[end - start];
+        ByteBuffer view = in.duplicate();
+        view.position(start);
+        view.get(body);
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        if ((int) crc.getValue() != in.getInt(end)) {
+            throw new IOException("Save file checksum does not match");
+        }
+        in.limit(end);
+    }
+
+    private Rogue readGame() throws IOException {
+        Rogue game = new Rogue();
+        game.setRogueParser(readParser());
+        Room[] rooms = new Room[readCount()];
+        for (int i = 0; i < rooms.length; i++) {
+            rooms[i] = new Room(0, 0, 0, game);
+            rooms[i].setId(in.getInt());
+            rooms[i].setWidth(in.getInt());
+            rooms[i].setHeight(in.getInt());
+        }
+        readDoors(rooms);
+        Item[] items = readItems(rooms);
+        for (Item item : items) {
+            game.registerItem(item);
+        }
+        for (Room room : rooms) {
+            room.setRoomItems(readItemRefs(items));
+            game.registerRoom(room);
+        }
+        readPlayer(game, rooms, items);
+        if (version >= FIRST_MONSTER_VERSION) {
+            readMonsters(game.getMonsters(), rooms);
+        }
+        return game;
+    }
+
+    private RogueParser readParser() throws IOException {
+        RogueParser parser = new RogueParser();
+        int symbolCount = readCount();
+        for (int i = 0; i < symbolCount; i++) {
+            String name = readString();
+            parser.addSymbol(name, in.getChar());
+        }
+        int definitionCount = readCount();
+        for (int i = 0; i < definitionCount; i++) {
+            int id = in.getInt();
+            parser.addItemDefinition(new ItemData(id, readString(), readString(), readString()));
+        }
+        return parser;
+    }
+
+    private void readDoors(Room[] rooms) throws IOException {
+        Door[] doors = new Door[readCount()];
+        for (int i = 0; i < doors.length; i++) {
+            doors[i] = new Door();
+            int connected = readCount();
+            for (int j = 0; j < connected; j++) {
+                Room room = roomAt(rooms, in.getInt());
+                if (room != null) {
+                    doors[i].connectRoom(room);
+                }
+            }
+        }
+        for (Room room : rooms) {
+            int count = readCount();
+            for (int i = 0; i < count; i++) {
+                String direction = DIRECTIONS[in.get()];
+                int location = in.getInt();
+                room.setDoor(direction, location, doors[in.getInt()]);
+            }
+        }
+    }
+
+    private Item[] readItems(Room[] rooms) throws IOException {
+        Item[] items = new Item[readCount()];
+        for (int i = 0; i < items.length; i++) {
+            int id = in.getInt();
+            Room room = roomAt(rooms, in.getInt());
+            int location = readPoint();
+            String name = readString();
+            String type = readString();
+            items[i] = Item.createItem(id, name, readString(), type, location);
+            items[i].setCurrentRoom(room);
+        }
+        return items;
+    }
+
+    private ArrayList<Item> readItemRefs(Item[] items) throws IOException {
+        int count = readCount();
+        ArrayList<Item> refs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            refs.add(items[in.getInt()]);
+        }
+        return refs;
+    }
+
+    private void readPlayer(Rogue game, Room[] rooms, Item[] items) throws IOException {
+        if (in.get() == 0) {
+            return;
+        }
+        Player player = new Player(readString());
+        Room room = roomAt(rooms, in.getInt());
+        if (room == null) {
+            throw new IOException("Player is not in a room");
+        }
+        player.setXyLocation(readPoint());
+        int worn = in.getInt();
+        player.setWearableItem(worn == NONE ? null : items[worn]);
+        player.getInventory().setInventory(readItemRefs(items));
+        player.setCurrentRoom(room);
+        room.setPlayer(player);
+        game.setPlayer(player);
+    }
+
+    private void readMonsters(Monsters monsters, Room[] rooms) throws IOException {
+        monsters.setTick(in.getInt());
+        int count = readCount();
+        for (int i = 0; i < count; i++) {
+            Room room = roomAt(rooms, in.getInt());
+            int location = readPoint();
+            int hitPoints = in.getInt();
+            Behavior behavior = Behavior.forOrdinal(in.get());
+            int readyAt = in.getInt();
+            int index = room == null ? Monsters.NONE : monsters.add(room, location, hitPoints, behavior);
+            if (index == Monsters.NONE) {
+                throw new IOException("Monster is not on a free tile");
+            }
+            monsters.setReadyAt(index, readyAt);
+        }
+    }
+
+    private Room roomAt(Room[] rooms, int index) {
+        return index == NONE ? null : rooms[index];
+    }
+
+    private int readPoint() {
+        if (in.get() == 0) {
+            return Position.NONE;
+        }
+        int x = in.getInt();
+        return Position.pack(x, in.getInt());
+    }
+
+    /**
+     * Reads the number of records that follow. Every record takes at least a byte, so a count
+     * larger than what is left cannot be right.
+     *
+     * @return the count
+     * @throws IOException if the count is negative or larger than the rest of the save
+     */
+    private int readCount() throws IOException {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IOException("Corrupt record count " + count);
+        }
+        return count;
+    }
+
+    private String readString() throws IOException {
+        int length = in.getInt();
+        if (length == NONE) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("Corrupt string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,151 @@
+package rogue;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Records a play session so it can be replayed headlessly by {@link SessionReplayer}.
+ *
+ * <p>A recording starts with a CRC32 of every dungeon file the game was parsed from and a save
+ * of the game as it was when recording began, so a session that starts mid-game replays from the
+ * same place. Every command the player gives follows as a varint, usually one byte, in the packed
+ * form the Simulator uses, so item commands carry the inventory number picked in the dialog.
+ * Every {@link #CHECKPOINT_INTERVAL} commands, and on close, the session's {@link SessionTrace}
+ * checksum is written so the replayer can tell where a replay stopped matching.
+ */
+public class SessionRecorder implements Closeable {
+
+    public static final int MAGIC = 0x52524543;
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".rrec";
+    public static final int CHECKPOINT_INTERVAL = 64;
+    static final int CHECKPOINT_TAG = 1;
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MORE = 0x80;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+    private final DataOutputStream out;
+    private final Rogue game;
+    private final SessionTrace trace = new SessionTrace();
+    private long commands;
+
+    /**
+     * Starts recording a game.
+     *
+     * @param filename as the file to record to
+     * @param theGame  as the game to record, which must not build its rooms lazily
+     * @throws IOException if the recording cannot be written
+     */
+    public SessionRecorder(String filename, Rogue theGame) throws IOException {
+        this.game = theGame;
+        ByteBuffer snapshot = SaveCodec.encode(theGame);
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        List<String> sources = theGame.getRogueParser().getSourceFiles();
+        out.writeInt(sources.size());
+        for (String source : sources) {
+            out.writeUTF(source);
+            out.writeLong(fileChecksum(source));
+        }
+        out.writeInt(snapshot.remaining());
+        out.write(snapshot.array(), snapshot.position(), snapshot.remaining());
+    }
+
+    /**
+     * Records a command after it has been applied to the game.
+     *
+     * @param command as the command packed with Simulator.encode
+     * @throws IOException if the recording cannot be written
+     */
+    public void record(int command) throws IOException {
+        writeVarint(out, (long) command << 1);
+        trace.update(game);
+        if (++commands % CHECKPOINT_INTERVAL == 0) {
+            writeCheckpoint();
+        }
+    }
+
+    /**
+     * Gets how many commands have been recorded.
+     *
+     * @return the command count
+     */
+    public long getCommandCount() {
+        return commands;
+    }
+
+    /**
+     * Writes a final checksum and closes the recording.
+     *
+     * @throws IOException if the recording cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (commands % CHECKPOINT_INTERVAL != 0) {
+            writeCheckpoint();
+        }
+        out.close();
+    }
+
+    private void writeCheckpoint() throws IOException {
+        writeVarint(out, CHECKPOINT_TAG);
+        out.writeLong(commands);
+        out.writeLong(trace.getHash());
+    }
+
+    /**
+     * Computes the CRC32 of a file.
+     *
+     * @param filename as the file to check
+     * @return the checksum, or -1 if the file cannot be read
+     */
+    static long fileChecksum(String filename) {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(filename)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return crc.getValue();
+    }
+
+    private static void writeVarint(DataOutputStream stream, long value) throws IOException {
+        long rest = value;
+        while ((rest & ~VARINT_MASK) != 0) {
+            stream.writeByte((int) (rest & VARINT_MASK) | VARINT_MORE);
+            rest >>>= VARINT_BITS;
+        }
+        stream.writeByte((int) rest);
+    }
+
+    /**
+     * Reads a varint written by the recorder.
+     *
+     * @param buffer as the buffer to read from
+     * @return the value
+     */
+    static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte next;
+        do {
+            next = buffer.get();
+            value |= (long) (next & VARINT_MASK) << shift;
+            shift += VARINT_BITS;
+        } while ((next & VARINT_MORE) != 0);
+        return value;
+    }
+}
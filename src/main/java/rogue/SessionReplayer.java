@@ -0,0 +1,206 @@
+package rogue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Replays a session recorded by {@link SessionRecorder} without any user interface, as fast as
+ * the game can apply commands.
+ *
+ * <p>The game is restored from the save at the start of the recording and every command is
+ * applied through a Simulator. When verifying, every frame and state is folded into a
+ * {@link SessionTrace} and compared with the recorded checksums, so a change that alters what
+ * the player would have seen is caught, and the report says within which commands it happened.
+ */
+public final class SessionReplayer {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private SessionReplayer() {
+
+    }
+
+    /**
+     * The outcome of a replay.
+     */
+    public static class Result {
+
+        private final long commands;
+        private final long elapsedNanos;
+        private final int checkpoints;
+        private final long firstMismatch;
+        private final List<String> changedFiles;
+
+        Result(long commandCount, long elapsed, int checked, long mismatch, List<String> changed) {
+            this.commands = commandCount;
+            this.elapsedNanos = elapsed;
+            this.checkpoints = checked;
+            this.firstMismatch = mismatch;
+            this.changedFiles = changed;
+        }
+
+        /**
+         * Gets how many commands were replayed.
+         *
+         * @return the command count
+         */
+        public long getCommands() {
+            return commands;
+        }
+
+        /**
+         * Gets how long applying the commands took.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Gets how many recorded checksums were compared.
+         *
+         * @return the checkpoint count, 0 if the replay was not verified
+         */
+        public int getCheckpoints() {
+            return checkpoints;
+        }
+
+        /**
+         * Gets the command count at the first checksum that did not match. The replay went wrong
+         * at most {@link SessionRecorder#CHECKPOINT_INTERVAL} commands before it.
+         *
+         * @return the command count, or -1 if every checksum matched
+         */
+        public long getFirstMismatch() {
+            return firstMismatch;
+        }
+
+        /**
+         * Gets the dungeon files that differ from when the session was recorded. Files that
+         * cannot be read are not listed.
+         *
+         * @return the file names
+         */
+        public List<String> getChangedFiles() {
+            return Collections.unmodifiableList(changedFiles);
+        }
+
+        /**
+         * Checks if the replay showed the same frames and states as the recording.
+         *
+         * @return true if every checksum matched
+         */
+        public boolean matches() {
+            return firstMismatch == -1;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("Replayed %d commands in %.3f ms (%.0f commands/s)", commands,
+                    elapsedNanos / NANOS_PER_MILLI, commands * NANOS_PER_SECOND / Math.max(elapsedNanos, 1)));
+            if (checkpoints > 0) {
+                report.append(matches() ? "\nAll " + checkpoints + " checksums match"
+                        : "\nDiverged before command " + firstMismatch);
+            }
+            if (!changedFiles.isEmpty()) {
+                report.append("\nDungeon files changed since recording: ").append(changedFiles);
+            }
+            return report.toString();
+        }
+    }
+
+    /**
+     * Replays a recording.
+     *
+     * @param filename as the recording
+     * @param verify   as whether to compare every frame with the recorded checksums
+     * @return the result of the replay
+     * @throws IOException if the recording cannot be read or is not a recording
+     */
+    public static Result replay(String filename, boolean verify) throws IOException {
+        byte[] bytes = Files.readAllBytes(Paths.get(filename));
+        ByteArrayInputStream stream = new ByteArrayInputStream(bytes);
+        DataInputStream header = new DataInputStream(stream);
+        if (header.readInt() != SessionRecorder.MAGIC || header.readInt() != SessionRecorder.VERSION) {
+            throw new IOException("Not a session recording: " + filename);
+        }
+        ArrayList<String> changed = new ArrayList<>();
+        int sources = header.readInt();
+        for (int i = 0; i < sources; i++) {
+            String source = header.readUTF();
+            long recorded = header.readLong();
+            long current = SessionRecorder.fileChecksum(source);
+            if (current != -1 && current != recorded) {
+                changed.add(source);
+            }
+        }
+        int snapshotLength = header.readInt();
+        int snapshotStart = bytes.length - stream.available();
+        Rogue game = SaveCodec.decode(ByteBuffer.wrap(bytes, snapshotStart, snapshotLength));
+        ByteBuffer body = ByteBuffer.wrap(bytes, snapshotStart + snapshotLength,
+                bytes.length - snapshotStart - snapshotLength);
+        return run(game, body, verify, changed);
+    }
+
+    private static Result run(Rogue game, ByteBuffer body, boolean verify, List<String> changed) {
+        Simulator simulator = new Simulator(game);
+        SessionTrace trace = new SessionTrace();
+        long commands = 0;
+        int checkpoints = 0;
+        long mismatch = -1;
+        long start = System.nanoTime();
+        try {
+            while (body.hasRemaining()) {
+                long next = SessionRecorder.readVarint(body);
+                if (next == SessionRecorder.CHECKPOINT_TAG) {
+                    long count = body.getLong();
+                    long hash = body.getLong();
+                    if (verify) {
+                        checkpoints++;
+                        if (mismatch == -1 && (count != commands || hash != trace.getHash())) {
+                            mismatch = count;
+                        }
+                    }
+                } else {
+                    simulator.apply((int) (next >>> 1));
+                    commands++;
+                    if (verify) {
+                        trace.update(game);
+                    }
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            body.position(body.limit()); //A recording cut short by a crash ends at its last whole record
+        }
+        return new Result(commands, System.nanoTime() - start, checkpoints, mismatch, changed);
+    }
+
+    /**
+     * Replays a recording and prints the result.
+     *
+     * @param args the recording, optionally followed by --fast to skip verification
+     * @throws IOException if the recording cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: SessionReplayer <recording> [--fast]");
+            return;
+        }
+        Result result = replay(args[0], !(args.length > 1 && args[1].equals("--fast")));
+        System.out.println(result);
+        if (!result.matches()) {
+            System.exit(1);
+        }
+    }
+}
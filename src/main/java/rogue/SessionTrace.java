@@ -0,0 +1,49 @@
+package rogue;
+
+/**
+ * A running checksum of everything a player saw and had during a session.
+ *
+ * <p>After every command the room, the player's position, inventory and worn item, and every
+ * tile of the rendered room are folded into a 64 bit FNV-1a hash. Two runs that end on the same
+ * checksum showed the same frames in the same states, so the recorder and the replayer compare
+ * checksums instead of frames.
+ */
+final class SessionTrace {
+
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private long hash = OFFSET_BASIS;
+    private char[] tiles;
+
+    /**
+     * Folds the state of a game and its current frame into the checksum.
+     *
+     * @param game as the game after a command
+     */
+    void update(Rogue game) {
+        Player player = game.getPlayer();
+        Room room = player.getCurrentRoom();
+        mix(room.getId());
+        mix(player.getXyLocation());
+        mix(player.getInventory().size());
+        mix(player.getWearableItem() == null ? -1 : player.getWearableItem().getId());
+        tiles = room.renderTiles(tiles);
+        int count = room.getWidth() * room.getHeight();
+        for (int i = 0; i < count; i++) {
+            hash = (hash ^ tiles[i]) * PRIME;
+        }
+    }
+
+    /**
+     * Gets the checksum of every update so far.
+     *
+     * @return the checksum
+     */
+    long getHash() {
+        return hash;
+    }
+
+    private void mix(int value) {
+        hash = (hash ^ value) * PRIME;
+    }
+}
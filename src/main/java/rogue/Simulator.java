@@ -0,0 +1,246 @@
+package rogue;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Runs a game without any user interface, applying a batch of commands as fast as possible.
+ *
+ * <p>Commands are packed into ints: the low 16 bits hold the input character and the rest
+ * hold the 1 based inventory number for eat, wear and toss commands.
+ */
+public class Simulator {
+
+    public static final char EAT = 'e';
+    public static final char WEAR = 'w';
+    public static final char TOSS = 't';
+    private static final int ACTION_BITS = 16;
+    private static final int ACTION_MASK = 0xFFFF;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private Rogue game;
+    private long[] outcomeCounts = new long[CommandOutcome.values().length];
+
+    /**
+     * Simulator constructor that builds a new game from a parser.
+     *
+     * @param parser as the parsed dungeon to play
+     */
+    public Simulator(RogueParser parser) {
+        this(new Rogue(parser));
+    }
+
+    /**
+     * Simulator constructor that takes an existing game.
+     *
+     * @param theGame as the game to drive
+     */
+    public Simulator(Rogue theGame) {
+        this.game = theGame;
+    }
+
+    /**
+     * Gets the game being simulated.
+     *
+     * @return the game
+     */
+    public Rogue getGame() {
+        return game;
+    }
+
+    /**
+     * Packs a movement or other single key command.
+     *
+     * @param action as the input character, such as Rogue.UP
+     * @return the packed command
+     */
+    public static int encode(char action) {
+        return action;
+    }
+
+    /**
+     * Packs an eat, wear or toss command.
+     *
+     * @param action     as the action character
+     * @param itemNumber as the 1 based position of the item in the inventory
+     * @return the packed command
+     */
+    public static int encode(char action, int itemNumber) {
+        return (itemNumber << ACTION_BITS) | action;
+    }
+
+    /**
+     * Reads commands from a file, one per line.
+     * Lines hold u, d, l or r to move, or e, w or t followed by an inventory number.
+     * Any other character is passed to the game as is, and lines starting with # are skipped.
+     *
+     * @param filename as the name of the command file
+     * @return the packed commands
+     * @throws IOException if the file cannot be read
+     */
+    public static int[] readCommands(String filename) throws IOException {
+        ArrayList<Integer> commands = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && line.charAt(0) != '#') {
+                    commands.add(parseCommand(line));
+                }
+            }
+        }
+        int[] packed = new int[commands.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = commands.get(i);
+        }
+        return packed;
+    }
+
+    /**
+     * Packs one command written the same way as a line of a command file.
+     *
+     * @param line as the trimmed, non empty command
+     * @return the packed command
+     * @throws NumberFormatException if an eat, wear or toss command has no valid inventory number
+     */
+    static int parseCommand(String line) {
+        char action = Character.toLowerCase(line.charAt(0));
+        switch (action) {
+            case 'u':
+                return encode(Rogue.UP);
+            case 'd':
+                return encode(Rogue.DOWN);
+            case 'l':
+                return encode(Rogue.LEFT);
+            case 'r':
+                return encode(Rogue.RIGHT);
+            case EAT:
+            case WEAR:
+            case TOSS:
+                return encode(action, Integer.parseInt(line.substring(1).trim()));
+            default:
+                return encode(line.charAt(0));
+        }
+    }
+
+    /**
+     * Applies a single packed command to the game.
+     *
+     * @param command as the packed command
+     * @return the outcome of the command
+     */
+    public CommandOutcome apply(int command) {
+        char action = (char) (command & ACTION_MASK);
+        int itemNumber = command >>> ACTION_BITS;
+        CommandOutcome outcome;
+        if (itemNumber != 0 && (action == EAT || action == WEAR || action == TOSS)) {
+            outcome = applyItemCommand(action, itemNumber);
+        } else {
+            outcome = game.applyMove(action);
+        }
+        outcomeCounts[outcome.ordinal()]++;
+        return outcome;
+    }
+
+    private CommandOutcome applyItemCommand(char action, int itemNumber) {
+        Inventory inventory = game.getPlayer().getInventory();
+        if (itemNumber > inventory.size()) {
+            return CommandOutcome.NO_ITEM;
+        }
+        Item item = inventory.getItem(itemNumber - 1);
+        if (action == EAT && item instanceof Edible) {
+            game.eatItem(item);
+        } else if (action == WEAR && item instanceof Wearable) {
+            game.wearItem(item);
+        } else if (action == TOSS && item instanceof Tossable) {
+            game.tossItem(item);
+        } else {
+            return CommandOutcome.ITEM_REFUSED;
+        }
+        return CommandOutcome.ITEM_USED;
+    }
+
+    /**
+     * Applies a batch of packed commands in order.
+     *
+     * @param commands as the packed commands
+     * @return the ordinal of the outcome of each command
+     */
+    public byte[] run(int[] commands) {
+        byte[] outcomes = new byte[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            outcomes[i] = (byte) apply(commands[i]).ordinal();
+        }
+        return outcomes;
+    }
+
+    /**
+     * Gets how many commands so far had a given outcome.
+     *
+     * @param outcome as the outcome to count
+     * @return the number of commands with that outcome
+     */
+    public long getCount(CommandOutcome outcome) {
+        return outcomeCounts[outcome.ordinal()];
+    }
+
+    /**
+     * Describes the current state of the game and the outcome counts.
+     *
+     * @return the report
+     */
+    public String report() {
+        Player player = game.getPlayer();
+        StringBuilder builder = new StringBuilder();
+        builder.append("Room: ").append(game.getCurrentRoom().getId()).append("\n");
+        builder.append("Position: ").append(Position.toString(player.getXyLocation())).append("\n");
+        builder.append("Inventory: ").append(player.getInventory().size()).append(" items\n");
+        if (player.getWearableItem() != null) {
+            builder.append("Wearing: ").append(player.getWearableItem().getName()).append("\n");
+        }
+        for (CommandOutcome outcome : CommandOutcome.values()) {
+            builder.append(outcome).append(": ").append(getCount(outcome)).append("\n");
+        }
+        return builder.toString();
+    }
+
+    private void runFile(String filename) throws IOException {
+        int[] commands = readCommands(filename);
+        long start = System.nanoTime();
+        run(commands);
+        long elapsed = System.nanoTime() - start;
+        System.out.print(report());
+        System.out.printf("Applied %d commands in %.3f ms (%.0f commands/s)%n", commands.length,
+                elapsed / NANOS_PER_MILLI, commands.length * NANOS_PER_SECOND / Math.max(elapsed, 1));
+    }
+
+    /**
+     * Runs a command file against a dungeon and prints the final state.
+     *
+     * @param args the file locations file followed by the command file, and optionally the most
+     *             rooms to keep built to build rooms lazily, in which case a mapped dungeon file
+     *             can be given instead of the file locations file
+     * @throws IOException if the command file or dungeon file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 3) {
+            System.out.println("Usage: Simulator <file locations json | dungeon file> <command file> [resident rooms]");
+            return;
+        }
+        if (args.length == 3) {
+            RogueParser dungeon = args[0].endsWith(MappedDungeon.EXTENSION) ? new MappedDungeon(args[0])
+                    : new RogueParser(args[0]);
+            Simulator lazy = new Simulator(new Rogue(dungeon, Integer.parseInt(args[2])));
+            lazy.runFile(args[1]);
+            return;
+        }
+        Simulator simulator = new Simulator(new RogueParser(args[0]));
+        if (!simulator.getGame().getValidationReport().isValid()) {
+            System.out.println(simulator.getGame().getValidationReport());
+            return;
+        }
+        simulator.runFile(args[1]);
+    }
+}
@@ -0,0 +1,164 @@
+package rogue;
+
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.TerminalScreen;
+
+import java.io.IOException;
+
+/**
+ * Draws the message line and the current room onto a terminal screen, and reads the player's
+ * keys from it. The last drawn frame is kept so only the cells that changed are sent to the screen.
+ */
+public class TerminalRenderer {
+
+    private static final char BLANK = ' ';
+    private static final char QUIT = 'q';
+    private static final int CACHED_GLYPHS = 128;
+    private final TerminalScreen screen;
+    private final int messageColumn;
+    private final int messageRow;
+    private final int roomColumn;
+    private final int roomRow;
+    private final TextCharacter[] glyphs = new TextCharacter[CACHED_GLYPHS];
+    private String lastMessage = "";
+    private char[] tiles = new char[0];
+    private char[] lastTiles = new char[0];
+    private int lastWidth;
+    private int lastHeight;
+
+    /**
+     * Renderer constructor that takes the screen and where to draw on it.
+     *
+     * @param theScreen as the screen to draw on
+     * @param msgColumn as the column the message starts in
+     * @param msgRow    as the row the message is drawn on
+     * @param column    as the column the room starts in
+     * @param row       as the row the room starts in
+     */
+    public TerminalRenderer(TerminalScreen theScreen, int msgColumn, int msgRow, int column, int row) {
+        this.screen = theScreen;
+        this.messageColumn = msgColumn;
+        this.messageRow = msgRow;
+        this.roomColumn = column;
+        this.roomRow = row;
+    }
+
+    /**
+     * Draws a message and a room, then pushes the changed cells to the terminal.
+     *
+     * @param message as the message to display above the room
+     * @param room    as the room to display
+     * @throws IOException if the terminal cannot be written to
+     */
+    public void draw(String message, Room room) throws IOException {
+        setMessage(message);
+        setRoom(room);
+        refresh();
+    }
+
+    /**
+     * Updates the message line, blanking whatever is left of the previous message.
+     *
+     * @param message as the new message
+     */
+    public void setMessage(String message) {
+        int length = Math.max(message.length(), lastMessage.length());
+        for (int i = 0; i < length; i++) {
+            char newChar = i < message.length() ? message.charAt(i) : BLANK;
+            char oldChar = i < lastMessage.length() ? lastMessage.charAt(i) : BLANK;
+            if (newChar != oldChar) {
+                screen.setCharacter(messageColumn + i, messageRow, glyph(newChar));
+            }
+        }
+        lastMessage = message;
+    }
+
+    /**
+     * Updates the room area, blanking any cells the previous room covered that this one does not.
+     *
+     * @param room as the room to display
+     */
+    public void setRoom(Room room) {
+        int width = room.getWidth();
+        int height = room.getHeight();
+        tiles = room.renderTiles(tiles);
+        for (int y = 0; y < Math.max(height, lastHeight); y++) {
+            for (int x = 0; x < Math.max(width, lastWidth); x++) {
+                char newChar = x < width && y < height ? tiles[y * width + x] : BLANK;
+                char oldChar = x < lastWidth && y < lastHeight ? lastTiles[y * lastWidth + x] : BLANK;
+                if (newChar != oldChar) {
+                    screen.setCharacter(roomColumn + x, roomRow + y, glyph(newChar));
+                }
+            }
+        }
+        char[] swap = lastTiles;
+        lastTiles = tiles;
+        tiles = swap;
+        lastWidth = width;
+        lastHeight = height;
+    }
+
+    /**
+     * Writes a line of text, blanking the rest of the line up to a width. Text that does not fit
+     * is cut off.
+     *
+     * @param column as the column the text starts in
+     * @param row    as the row to write on
+     * @param text   as the text to write
+     * @param width  as the number of cells the line takes up
+     */
+    public void drawText(int column, int row, String text, int width) {
+        for (int i = 0; i < width; i++) {
+            screen.setCharacter(column + i, row, glyph(i < text.length() ? text.charAt(i) : BLANK));
+        }
+    }
+
+    /**
+     * Waits for the player to press a key and returns it as a game command. Arrow keys are
+     * turned into the equivalent movement keys. The thread is parked while no key is pressed,
+     * so an idle game uses no CPU.
+     *
+     * @return the command, or q if the terminal closed
+     * @throws IOException if the terminal cannot be read
+     */
+    public char readCommand() throws IOException {
+        KeyStroke keyStroke = screen.readInput();
+        if (keyStroke == null || keyStroke.getKeyType() == KeyType.EOF) {
+            return QUIT;
+        } else if (keyStroke.getKeyType() == KeyType.ArrowDown) {
+            return Rogue.DOWN;  //constant defined in rogue
+        } else if (keyStroke.getKeyType() == KeyType.ArrowUp) {
+            return Rogue.UP;
+        } else if (keyStroke.getKeyType() == KeyType.ArrowLeft) {
+            return Rogue.LEFT;
+        } else if (keyStroke.getKeyType() == KeyType.ArrowRight) {
+            return Rogue.RIGHT;
+        } else if (keyStroke.getCharacter() == null) {
+            return BLANK;
+        } else {
+            return keyStroke.getCharacter();
+        }
+    }
+
+    /**
+     * Sends the cells changed since the last refresh to the terminal.
+     *
+     * @throws IOException if the terminal cannot be written to
+     */
+    public void refresh() throws IOException {
+        screen.refresh(Screen.RefreshType.DELTA);
+    }
+
+    private TextCharacter glyph(char c) {
+        if (c >= CACHED_GLYPHS) {
+            return new TextCharacter(c);
+        }
+        if (glyphs[c] == null) {
+            glyphs[c] = new TextCharacter(c);
+        }
+        return glyphs[c];
+    }
+}
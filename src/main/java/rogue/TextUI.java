@@ -0,0 +1,227 @@
+package rogue;
+
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.ansi.UnixTerminal;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Plays the game in the text terminal it was started from, for example over ssh or in a
+ * container without a display. It runs the same {@link GameSession} loop as {@link WindowUI}
+ * but never loads AWT or Swing, and only publishes metrics over JMX when asked, so it starts
+ * quickly and needs little memory.
+ *
+ * <p>The window's side panels are drawn as text: the inventory to the right of the room, the
+ * game output and the player name below it. Everything a command changes is sent to the
+ * terminal in one refresh, just before the next key is read.
+ */
+public class TextUI implements GameView {
+
+    public static final int COLUMNS = 80;
+    public static final String JMX_OPTION = "--jmx";
+    private static final int MESSAGE_ROW = 0;
+    private static final int ROOM_ROW = 2;
+    private static final int PANEL_COLUMN = 40;
+    private static final int PANEL_WIDTH = COLUMNS - PANEL_COLUMN;
+    private static final int PANEL_ROWS = 18;
+    private static final int OUTPUT_ROW = 22;
+    private static final int NAME_ROW = 23;
+    private static final int CANCELLED = -1;
+    private static final int PENDING = -2;
+    private final TerminalScreen screen;
+    private final TerminalRenderer renderer;
+    private Player shownPlayer;
+    private Inventory shownInventory;
+    private long shownVersion;
+    private Item shownWorn;
+
+    /**
+     * Text frontend constructor that takes over the terminal.
+     *
+     * @throws IOException if the terminal cannot be used
+     */
+    public TextUI() throws IOException {
+        screen = new TerminalScreen(new UnixTerminal(System.in, System.out, StandardCharsets.UTF_8,
+                UnixTerminal.CtrlCBehaviour.CTRL_C_KILLS_APPLICATION));
+        screen.startScreen();
+        screen.setCursorPosition(null);
+        renderer = new TerminalRenderer(screen, 0, MESSAGE_ROW, Rogue.BLANK_OFFSET.length(), ROOM_ROW);
+    }
+
+    @Override
+    public char getInput() {
+        try {
+            renderer.refresh();
+            return renderer.readCommand();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return GameSession.QUIT;
+        }
+    }
+
+    @Override
+    public void draw(String message, Room room) {
+        long start = System.nanoTime();
+        renderer.setMessage(message);
+        renderer.setRoom(room);
+        GameMetrics.DRAW.recordSince(start);
+    }
+
+    @Override
+    public void showOutput(String message) {
+        renderer.drawText(0, OUTPUT_ROW, "Game Output: " + message, COLUMNS);
+    }
+
+    @Override
+    public void showPlayerName(String name) {
+        renderer.drawText(0, NAME_ROW, "Player Name: " + name, COLUMNS);
+    }
+
+    /**
+     * Lists the inventory next to the room. Nothing is redrawn unless an item was added or
+     * removed or the worn item changed.
+     *
+     * @param player as the player whose inventory is shown
+     */
+    @Override
+    public void showInventory(Player player) {
+        Inventory inventory = player.getInventory();
+        if (player == shownPlayer && inventory == shownInventory && inventory.getVersion() == shownVersion
+                && player.getWearableItem() == shownWorn) {
+            return;
+        }
+        shownPlayer = player;
+        shownInventory = inventory;
+        shownVersion = inventory.getVersion();
+        shownWorn = player.getWearableItem();
+        drawPanel("Inventory:", inventory.size(), i -> {
+            Item item = inventory.getItem(i);
+            return (item == shownWorn ? "W: " : "") + item.getName();
+        });
+    }
+
+    /**
+     * Lists the options in place of the inventory and reads an inventory number, picking the
+     * first option if none is typed.
+     *
+     * @param verb    as what will be done with the item, such as eat
+     * @param options as the items to pick from, each its inventory number followed by its name
+     * @return the index of the picked option, or -1 if the player pressed escape
+     */
+    @Override
+    public int chooseItem(String verb, String[] options) {
+        drawPanel("Select an item to " + verb + ":", options.length, i -> options[i]);
+        StringBuilder typed = new StringBuilder();
+        int choice = PENDING;
+        try {
+            while (choice == PENDING) {
+                renderer.drawText(0, OUTPUT_ROW, "Item number, enter to pick, escape to cancel: " + typed, COLUMNS);
+                renderer.refresh();
+                choice = readChoice(options, typed);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            choice = CANCELLED;
+        }
+        if (shownPlayer != null) {
+            Player player = shownPlayer;
+            shownPlayer = null;
+            showInventory(player);
+        }
+        return choice;
+    }
+
+    /**
+     * Reads one key of an item choice.
+     *
+     * @return the picked index, CANCELLED if the choice was cancelled or PENDING if it goes on
+     */
+    private int readChoice(String[] options, StringBuilder typed) throws IOException {
+        KeyStroke key = screen.readInput();
+        if (key == null || key.getKeyType() == KeyType.EOF || key.getKeyType() == KeyType.Escape) {
+            return CANCELLED;
+        } else if (key.getKeyType() == KeyType.Backspace && typed.length() > 0) {
+            typed.setLength(typed.length() - 1);
+        } else if (key.getKeyType() == KeyType.Enter) {
+            if (typed.length() == 0) {
+                return 0;
+            }
+            String prefix = typed + " ";
+            typed.setLength(0);
+            for (int i = 0; i < options.length; i++) {
+                if (options[i].startsWith(prefix)) {
+                    return i;
+                }
+            }
+        } else if (key.getCharacter() != null && Character.isDigit(key.getCharacter())) {
+            typed.append(key.getCharacter().charValue());
+        }
+        return PENDING;
+    }
+
+    /**
+     * Draws a titled list to the right of the room, ending it with a count of the lines that
+     * did not fit.
+     */
+    private void drawPanel(String title, int count, IntFunction<String> line) {
+        renderer.drawText(PANEL_COLUMN, ROOM_ROW, title, PANEL_WIDTH);
+        int shown = count < PANEL_ROWS ? count : PANEL_ROWS - 1;
+        for (int row = 0; row < PANEL_ROWS; row++) {
+            String text = "";
+            if (row < shown) {
+                text = line.apply(row);
+            } else if (row == shown && shown < count) {
+                text = "... and " + (count - shown) + " more";
+            }
+            renderer.drawText(PANEL_COLUMN, ROOM_ROW + 1 + row, text, PANEL_WIDTH);
+        }
+    }
+
+    /**
+     * Gives the terminal back to the shell.
+     */
+    public void close() {
+        try {
+            screen.stopScreen();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Plays the game in the current terminal.
+     *
+     * @param args optionally --jmx to publish metrics over JMX
+     * @throws IOException if the terminal or the journal cannot be used
+     */
+    public static void main(String[] args) throws IOException {
+        GameLoader loader = new GameLoader("fileLocations.json");
+        if (args.length > 0 && args[0].equals(JMX_OPTION)) {
+            CompletableFuture.runAsync(GameMetrics::register);
+        }
+        TextUI theGameUI = new TextUI();
+        MoveJournal journal;
+        try {
+            loader.showStartRoom(theGameUI);
+            theGameUI.renderer.refresh();
+            journal = loader.getJournal(theGameUI);
+            if (journal != null) {
+                GameSession session = new GameSession(theGameUI, journal);
+                GameMetrics.watch(session::getGame);
+                session.start(Rogue.BLANK_OFFSET + "Welcome to my Rogue game");
+                session.play();
+            }
+        } finally {
+            theGameUI.close();
+        }
+        if (journal == null) {
+            System.out.println(loader.getBaseGame().getValidationReport());
+            System.exit(1);
+        }
+    }
+}
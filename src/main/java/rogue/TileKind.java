@@ -0,0 +1,58 @@
+package rogue;
+
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Everything that can be drawn on a tile. The names match the symbol names in the symbols file,
+ * and item types resolve to a kind by name once when the item is created.
+ */
+public enum TileKind {
+    PASSAGE,
+    DOOR,
+    FLOOR,
+    PLAYER,
+    GOLD,
+    NS_WALL,
+    EW_WALL,
+    POTION,
+    SCROLL,
+    CLOTHING,
+    FOOD,
+    RING,
+    SMALLFOOD,
+    MONSTER,
+    UNKNOWN;
+
+    private static final HashMap<String, TileKind> BY_NAME = new HashMap<>();
+
+    static {
+        for (TileKind kind : values()) {
+            BY_NAME.put(kind.name(), kind);
+        }
+    }
+
+    /**
+     * Gets the kind with a symbol name.
+     *
+     * @param symbolName as the name used in the symbols file
+     * @return the matching kind, or null if no kind has that name
+     */
+    public static TileKind forSymbolName(String symbolName) {
+        return BY_NAME.get(symbolName);
+    }
+
+    /**
+     * Gets the kind an item type is drawn as.
+     *
+     * @param itemType as the type of the item, in any case
+     * @return the matching kind, or UNKNOWN if the type has no symbol
+     */
+    public static TileKind forItemType(String itemType) {
+        if (itemType == null) {
+            return UNKNOWN;
+        }
+        TileKind kind = BY_NAME.get(itemType.toUpperCase(Locale.ROOT));
+        return kind == null ? UNKNOWN : kind;
+    }
+}
@@ -1,22 +1,22 @@
 package rogue;
 
-import com.googlecode.lanterna.input.KeyStroke;
-import com.googlecode.lanterna.input.KeyType;
 import com.googlecode.lanterna.screen.TerminalScreen;
 import com.googlecode.lanterna.terminal.swing.SwingTerminal;
-import com.googlecode.lanterna.terminal.Terminal;
 import com.googlecode.lanterna.TerminalPosition;
 
 import java.awt.Container;
 import java.awt.BorderLayout;
 import java.io.IOException;
-import java.io.FileOutputStream;
 import java.io.Serializable;
 import java.io.File;
-import java.io.ObjectOutputStream;
-import java.io.FileInputStream;
-import java.io.ObjectInputStream;
-import java.util.ArrayList;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -29,30 +29,42 @@ import javax.swing.JOptionPane;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
 import javax.swing.JFileChooser;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
-public class WindowUI extends JFrame implements Serializable {
+public class WindowUI extends JFrame implements GameView, Serializable {
 
     private SwingTerminal terminal;
     private TerminalScreen screen;
+    private TerminalRenderer renderer;
     public static final int WIDTH = 700;
     public static final int HEIGHT = 800;
     public static final int COLS = 25;
     public static final int ROWS = 24;
     private static final int NAME_LENGTH = 20;
+    private static final int FRAME_MILLIS = 16;
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS);
     private final char startCol = 0;
     private final char msgRow = 1;
     private final char roomRow = 3;
-    private Rogue rogueGame;
+    private GameSession session;
+    private JMenu fileMenu;
     private Container contentPane;
     private JLabel descLabel;
     private JLabel inventoryLabel;
     private JLabel playerLabel;
+    private final AtomicReference<PanelState> published = new AtomicReference<>(PanelState.EMPTY);
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Timer frameTimer = new Timer(FRAME_MILLIS, e -> flushPanels());
+    private PanelState shown = PanelState.EMPTY;
+    private long lastFlush;
 
     /**
      * Constructor.
      **/
     public WindowUI() {
         super("my awesome game");
+        frameTimer.setRepeats(false);
         contentPane = getContentPane();
         setWindowDefaults(getContentPane());
         setUpPanels();
@@ -116,11 +128,9 @@ public class WindowUI extends JFrame implements Serializable {
         String s = JOptionPane.showInputDialog("New Player Name");
         if (s != null) {
             if (s.length() > NAME_LENGTH) {
-                updateDescriptionOutput("That name is too long!");
+                showOutput("That name is too long!");
             } else {
-                rogueGame.getPlayer().setName(s);
-                updatePlayerName();
-                updateDescriptionOutput("Updated Player name to " + s);
+                session.rename(s);
             }
         }
     }
@@ -128,7 +138,8 @@ public class WindowUI extends JFrame implements Serializable {
     private void setUpMenu() {
         JMenuBar menuBar = new JMenuBar();
         setJMenuBar(menuBar);
-        JMenu fileMenu = new JMenu("File");
+        fileMenu = new JMenu("File");
+        fileMenu.setEnabled(false);
         menuBar.add(fileMenu);
         JMenuItem changeName = new JMenuItem("Change name");
         fileMenu.add(changeName);
@@ -144,217 +155,172 @@ public class WindowUI extends JFrame implements Serializable {
         saveGame.addActionListener(e -> save());
     }
 
+    /**
+     * Hands the session to the menu actions on the event thread, and only then enables the menu
+     * so none of them run before there is a game to act on.
+     *
+     * @param theSession as the session being played
+     */
+    private void setSession(GameSession theSession) {
+        SwingUtilities.invokeLater(() -> {
+            session = theSession;
+            fileMenu.setEnabled(true);
+        });
+    }
+
     private void start() {
         try {
             screen = new TerminalScreen(terminal);
             screen.setCursorPosition(TerminalPosition.TOP_LEFT_CORNER);
             screen.startScreen();
             screen.refresh();
+            renderer = new TerminalRenderer(screen, startCol, msgRow, Rogue.BLANK_OFFSET.length(), roomRow);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Prints a string to the screen starting at the indicated column and row.
+     * Changes the message at the top of the screen for the user.
      *
-     * @param toDisplay the string to be printed
-     * @param column    the column in which to start the display
-     * @param row       the row in which to start the display
+     * @param msg the message to be displayed
      **/
-    public void putString(String toDisplay, int column, int row) {
-        Terminal t = screen.getTerminal();
+    public void setMessage(String msg) {
         try {
-            t.setCursorPosition(column, row);
-            for (char ch : toDisplay.toCharArray()) {
-                t.putCharacter(ch);
-            }
+            renderer.setMessage(msg);
+            renderer.refresh();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Changes the message at the top of the screen for the user.
-     *
-     * @param msg the message to be displayed
-     **/
-    public void setMessage(String msg) {
-        putString("                                                ", 1, 1);
-        putString(msg, startCol, msgRow);
-    }
-
-    /**
-     * Redraws the whole screen including the room and the message.
+     * Redraws the parts of the screen that changed, including the room and the message.
      *
      * @param message the message to be displayed at the top of the room
-     * @param room    the room map to be drawn
+     * @param room    the room to be drawn
      **/
-    public void draw(String message, String room) {
-
+    @Override
+    public void draw(String message, Room room) {
+        long start = System.nanoTime();
         try {
-            setMessage(message);
-            putString(room, startCol, roomRow);
-            screen.refresh();
+            renderer.draw(message, room);
         } catch (IOException e) {
-
+            e.printStackTrace();
         }
-
+        GameMetrics.DRAW.recordSince(start);
     }
 
     /**
-     * Obtains input from the user and returns it as a char.  Converts arrow
-     * keys to the equivalent movement keys in rogue.
+     * Waits for the user to press a key and returns it as a char.  Converts arrow
+     * keys to the equivalent movement keys in rogue.  The thread is parked while
+     * no key is pressed, so an idle game uses no CPU.
      *
-     * @return the ascii value of the key pressed by the user
+     * @return the ascii value of the key pressed by the user, or q if the terminal closed
      **/
+    @Override
     public char getInput() {
-        KeyStroke keyStroke = null;
-        while (keyStroke == null) {
-            try {
-                keyStroke = screen.pollInput();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+        try {
+            return renderer.readCommand();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return GameSession.QUIT;
         }
-        return getKeyStroke(keyStroke);
     }
 
-    private char getKeyStroke(KeyStroke keyStroke) {
-        if (keyStroke.getKeyType() == KeyType.ArrowDown) {
-            return Rogue.DOWN;  //constant defined in rogue
-        } else if (keyStroke.getKeyType() == KeyType.ArrowUp) {
-            return Rogue.UP;
-        } else if (keyStroke.getKeyType() == KeyType.ArrowLeft) {
-            return Rogue.LEFT;
-        } else if (keyStroke.getKeyType() == KeyType.ArrowRight) {
-            return Rogue.RIGHT;
-        } else {
-            return keyStroke.getCharacter();
+    /**
+     * Asks the user to pick one of the items. The dialog is shown on the Swing event thread and
+     * the game thread waits for the answer.
+     *
+     * @param verb    as what will be done with the item
+     * @param options as the items to choose from
+     * @return the index of the chosen item, or -1 if none was chosen
+     */
+    @Override
+    public int chooseItem(String verb, String[] options) {
+        AtomicInteger chosen = new AtomicInteger(-1);
+        Runnable ask = () -> {
+            String s = (String) JOptionPane.showInputDialog(this, "Select an item to " + verb, "",
+                    JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+            chosen.set(s == null ? -1 : Arrays.asList(options).indexOf(s));
+        };
+        if (SwingUtilities.isEventDispatchThread()) {
+            ask.run();
+            return chosen.get();
         }
+        try {
+            SwingUtilities.invokeAndWait(ask);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (InvocationTargetException e) {
+            e.printStackTrace();
+            return -1;
+        }
+        return chosen.get();
     }
 
-    private static void handleInvalidMove(Rogue theGame, WindowUI theGameUI) {
-        String message = "You appear to be trying to move inside a wall";
-        theGameUI.setMessage(message);
-        theGameUI.updateDescriptionOutput(message);
-        theGameUI.draw(Rogue.BLANK_OFFSET + message, theGame.getNextDisplay());
+    /**
+     * Updates the inventory with a new string.
+     *
+     * @param player as the player whose inventory is shown
+     */
+    @Override
+    public void showInventory(Player player) {
+        String inventory = player.getInventory().displayInventory(player);
+        publish(state -> state.withInventory(inventory));
     }
 
-    private static void drawAndUpdateGame(WindowUI theGameUI, Rogue theGame, String message) {
-        theGameUI.draw(Rogue.BLANK_OFFSET + message, theGame.getNextDisplay());
-        theGameUI.updateInventoryDisplay();
-        theGameUI.updateDescriptionOutput(message);
+    @Override
+    public void showPlayerName(String name) {
+        String text = "<html> Player Name: <br>" + name;
+        publish(state -> state.withPlayerName(text));
     }
 
-    private static void checkInput(WindowUI theGameUI, char userInput) {
-        while (userInput != 'q') {
-            userInput = theGameUI.getInput();
-            Rogue theGame = theGameUI.rogueGame;
-            String message;
-            try {
-                message = theGameUI.handleInventoryCall(theGame, userInput);
-                if (message == null) {
-                    message = theGame.makeMove(userInput);
-                }
-                if (theGame.isTransitioningRooms()) {
-                    theGameUI.draw(message, theGame.printBlanks());
-                }
-                drawAndUpdateGame(theGameUI, theGame, message);
-            } catch (InvalidMoveException badMove) {
-                handleInvalidMove(theGame, theGameUI);
-            }
-        }
-        System.exit(0);
+    @Override
+    public void showOutput(String message) {
+        String description = "Game Output: " + message;
+        publish(state -> state.withDescription(description));
     }
 
-    private String[] getOptions(Rogue theGame) {
-        ArrayList<String> list = new ArrayList<>();
-        for (int i = 0; i < theGame.getPlayer().getInventory().getItems().size(); i++) {
-            list.add(i + 1 + " " + theGame.getPlayer().getInventory().getItems().get(i).getName());
+    /**
+     * Publishes a change to the side panels from any thread. The labels are only touched on the
+     * Swing event thread, at most once a frame, and only with the latest state, so a burst of
+     * key repeats costs one repaint.
+     *
+     * @param change as the change to the published state
+     */
+    private void publish(UnaryOperator<PanelState> change) {
+        published.updateAndGet(change);
+        if (flushScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::flushPanels);
         }
-        return list.toArray(new String[0]);
     }
 
-    private String handleEatCall(Rogue theGame) {
-        String[] options = getOptions(theGame);
-        String s = (String) JOptionPane.showInputDialog(null, "Select an item to eat", "",
-                JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
-        if (s != null) {
-            Item item = theGame.getPlayer().getInventory().getItems().get(Integer.parseInt(s.split(" ")[0]) - 1);
-            if (item instanceof Edible) {
-                String message = ((Edible) item).eat(theGame.getPlayer());
-                theGame.getPlayer().getInventory().getItems().remove(item);
-                updateInventoryDisplay();
-                return message;
-            } else {
-                return "That item cannot be eaten!";
-            }
+    /**
+     * Applies the latest published state to the labels that differ from it. Runs on the Swing
+     * event thread, waiting out the rest of the frame if the last update was too recent.
+     */
+    private void flushPanels() {
+        long wait = lastFlush + FRAME_NANOS - System.nanoTime();
+        if (wait > 0) {
+            frameTimer.setInitialDelay((int) TimeUnit.NANOSECONDS.toMillis(wait) + 1);
+            frameTimer.restart();
+            return;
         }
-        return null;
-    }
-
-    private String handleWearCall(Rogue theGame) {
-        String[] options = getOptions(theGame);
-        String s = (String) JOptionPane.showInputDialog(null, "Select an item to wear", "",
-                JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
-        if (s != null) {
-            Item item = theGame.getPlayer().getInventory().getItems().get(Integer.parseInt(s.split(" ")[0]) - 1);
-            if (item instanceof Wearable) {
-                String message = ((Wearable) item).wear(theGame.getPlayer());
-                updateInventoryDisplay();
-                return message;
-            } else {
-                return "That item cannot be worn!";
-            }
+        flushScheduled.set(false);
+        PanelState state = published.get();
+        lastFlush = System.nanoTime();
+        if (state.getDescription() != null && !state.getDescription().equals(shown.getDescription())) {
+            descLabel.setText(state.getDescription());
         }
-        return null;
-    }
-
-    private String handleTossCall(Rogue theGame) {
-        String[] options = getOptions(theGame);
-        String s = (String) JOptionPane.showInputDialog(null, "Select an item to toss", "",
-                JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
-        if (s != null) {
-            Item item = theGame.getPlayer().getInventory().getItems().get(Integer.parseInt(s.split(" ")[0]) - 1);
-            if (item instanceof Tossable) {
-                String message = ((Tossable) item).toss(theGame.getPlayer());
-                theGame.getPlayer().getInventory().getItems().remove(item);
-                updateInventoryDisplay();
-                return message;
-            } else {
-                return "That item cannot be tossed!";
-            }
+        if (state.getInventory() != null && state.getInventory() != shown.getInventory()) {
+            inventoryLabel.setText(state.getInventory());
         }
-        return null;
-    }
-
-    private String handleInventoryCall(Rogue theGame, char userInput) {
-        if (theGame.getPlayer().getInventory().getItems().size() != 0) {
-            if (userInput == 'e') {
-                return handleEatCall(theGame);
-            } else if (userInput == 'w') {
-                return handleWearCall(theGame);
-            } else if (userInput == 't') {
-                return handleTossCall(theGame);
-            }
+        if (state.getPlayerName() != null && !state.getPlayerName().equals(shown.getPlayerName())) {
+            playerLabel.setText(state.getPlayerName());
         }
-        return null;
-    }
-
-    /**
-     * Updates the inventory with a new string.
-     */
-    public void updateInventoryDisplay() {
-        inventoryLabel.setText(rogueGame.getPlayer().getInventory().displayInventory(rogueGame.getPlayer()));
-    }
-
-    private void updatePlayerName() {
-        playerLabel.setText("<html> Player Name: <br>" + rogueGame.getPlayer().getName());
-    }
-
-    private void updateDescriptionOutput(String message) {
-        descLabel.setText("Game Output: " + message);
+        shown = state;
     }
 
     /**
@@ -366,13 +332,7 @@ public class WindowUI extends JFrame implements Serializable {
         j.showSaveDialog(null);
         if (j.getSelectedFile() != null) {
             try {
-                FileOutputStream outputStream = new FileOutputStream(j.getSelectedFile().toString());
-                ObjectOutputStream outputDest = new ObjectOutputStream(outputStream);
-                outputDest.writeObject(rogueGame);
-                draw(Rogue.BLANK_OFFSET + "Saved file", rogueGame.getNextDisplay());
-                updateDescriptionOutput("Saved file");
-                outputDest.close();
-                outputStream.close();
+                session.save(j.getSelectedFile().toString());
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -390,10 +350,9 @@ public class WindowUI extends JFrame implements Serializable {
             String filename = j.getSelectedFile().toString();
             Rogue theClass = null;
             try {
-                ObjectInputStream in = new ObjectInputStream(new FileInputStream(filename));
-                theClass = (Rogue) in.readObject();
+                theClass = SaveCodec.load(filename);
             } catch (Exception e) {
-                updateDescriptionOutput("That is not a valid save file!");
+                showOutput("That is not a valid save file!");
             }
             loadRogueGame(theClass);
         }
@@ -401,14 +360,10 @@ public class WindowUI extends JFrame implements Serializable {
 
     private void loadRogueGame(Rogue theClass) {
         if (theClass != null) {
-            draw(Rogue.BLANK_OFFSET + "Loaded file", rogueGame.printBlanks());
-            rogueGame = theClass;
-            draw(Rogue.BLANK_OFFSET + "Loaded file", rogueGame.getNextDisplay());
-            updateDescriptionOutput("Loaded file");
-            updateInventoryDisplay();
-            updatePlayerName();
+            session.replaceGame(theClass, "Loaded file");
+            showPlayerName(theClass.getPlayer().getName());
         } else {
-            updateDescriptionOutput("That is not a valid save file!");
+            showOutput("That is not a valid save file!");
         }
     }
 
@@ -420,17 +375,16 @@ public class WindowUI extends JFrame implements Serializable {
         j.setCurrentDirectory(new File(System.getProperty("user.dir")));
         j.showSaveDialog(null);
         if (j.getSelectedFile() != null) {
-            draw(Rogue.BLANK_OFFSET + "Loaded file", rogueGame.printBlanks());
             try {
                 RogueParser parser = new RogueParser(j.getSelectedFile().toString());
                 Rogue newRogue = new Rogue(parser);
-                newRogue.getNextDisplay();
-                rogueGame = newRogue;
-                draw(Rogue.BLANK_OFFSET + "Loaded file", rogueGame.getNextDisplay());
-                updateDescriptionOutput("Loaded file");
-                updateInventoryDisplay();
+                if (!newRogue.getValidationReport().isValid()) {
+                    showOutput("This file cannot be used!");
+                    return;
+                }
+                session.replaceGame(newRogue, "Loaded file");
             } catch (Exception e) {
-                updateDescriptionOutput("Invalid json file! Must be formatted like a FileLocations File!");
+                showOutput("Invalid json file! Must be formatted like a FileLocations File!");
             }
         }
     }
@@ -440,19 +394,28 @@ public class WindowUI extends JFrame implements Serializable {
      *
      * @param args command line parameters
      **/
-    public static void main(String[] args) {
-        char userInput = 'h';
-        String message;
-        Rogue theGame = new Rogue(new RogueParser("fileLocations.json"));
+    public static void main(String[] args) throws IOException {
+        GameLoader loader = new GameLoader("fileLocations.json");
+        CompletableFuture.runAsync(GameMetrics::register);
         WindowUI theGameUI = new WindowUI();
-        theGameUI.rogueGame = theGame;
-        theGame.setPlayer(new Player("Player"));
-        message = Rogue.BLANK_OFFSET + "Welcome to my Rogue game";
-        theGameUI.updateInventoryDisplay();
-        theGameUI.draw(message, theGame.getNextDisplay());
         theGameUI.setVisible(true);
-        theGameUI.updatePlayerName();
-        theGameUI.updateDescriptionOutput(message);
-        checkInput(theGameUI, userInput);
+        loader.showStartRoom(theGameUI);
+        MoveJournal journal;
+        try {
+            journal = loader.getJournal(theGameUI);
+        } catch (IOException e) {
+            System.exit(1);
+            return;
+        }
+        if (journal == null) {
+            System.out.println(loader.getBaseGame().getValidationReport());
+            System.exit(1);
+        }
+        GameSession session = new GameSession(theGameUI, journal);
+        theGameUI.setSession(session);
+        GameMetrics.watch(session::getGame);
+        session.start(Rogue.BLANK_OFFSET + "Welcome to my Rogue game");
+        session.play();
+        System.exit(0);
     }
 }
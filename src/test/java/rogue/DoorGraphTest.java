@@ -0,0 +1,85 @@
+package rogue;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks room paths and walking distances on the repository dungeon, where rooms 1 to 6 are
+ * joined by the doors 1-2, 1-3, 2-4, 2-5, 3-4 and 4-6.
+ */
+public class DoorGraphTest {
+
+    private static final String DUNGEON = "fileLocations.json";
+    private static final int UNKNOWN_ROOM = 99;
+    private static final int ROOMS = 6;
+    private DoorGraph graph;
+    private DoorGraph precomputed;
+
+    /**
+     * Builds two graphs of the repository dungeon, one with the door distance table.
+     */
+    @Before
+    public void setUp() {
+        Rogue game = new Rogue(new RogueParser(DUNGEON));
+        graph = new DoorGraph(game);
+        precomputed = new DoorGraph(game);
+        precomputed.precomputeDoorDistances();
+    }
+
+    /**
+     * Room paths go through the fewest doors, and unknown rooms have no path.
+     */
+    @Test
+    public void roomPathsTakeTheFewestDoors() {
+        for (DoorGraph doors : new DoorGraph[] {graph, precomputed}) {
+            assertEquals(ROOMS, doors.getRoomCount());
+            assertArrayEquals(new int[] {1}, doors.findRoomPath(1, 1));
+            assertArrayEquals(new int[] {1, 2, 5}, doors.findRoomPath(1, 5));
+            assertArrayEquals(new int[] {6, 4, 2, 5}, doors.findRoomPath(6, 5));
+            assertNull(doors.findRoomPath(1, UNKNOWN_ROOM));
+            assertEquals(0, doors.roomDistance(3, 3));
+            assertEquals(2, doors.roomDistance(1, 4));
+            assertEquals(3, doors.roomDistance(1, 6));
+            assertEquals(-1, doors.roomDistance(UNKNOWN_ROOM, 1));
+        }
+    }
+
+    /**
+     * Walking distances match ones worked out by hand from the door positions.
+     */
+    @Test
+    public void walkingDistancesMatchTheDoors() {
+        for (DoorGraph doors : new DoorGraph[] {graph, precomputed}) {
+            assertEquals(0, doors.walkingDistance(1, Position.pack(3, 3), 1, Position.pack(3, 3)));
+            assertEquals(8, doors.walkingDistance(1, Position.pack(1, 1), 1, Position.pack(5, 5)));
+            // To the east door at (9, 4), then from the tile inside room 2's west door at (1, 4)
+            assertEquals(15, doors.walkingDistance(1, Position.pack(1, 1), 2, Position.pack(5, 4)));
+            assertEquals(-1, doors.walkingDistance(1, Position.pack(1, 1), UNKNOWN_ROOM, Position.pack(1, 1)));
+        }
+    }
+
+    /**
+     * Both graphs give the same distances between every pair of rooms, the same both ways, and
+     * a query never spoils the next one.
+     */
+    @Test
+    public void precomputingKeepsEveryDistance() {
+        int start = Position.pack(1, 1);
+        int goal = Position.pack(2, 3);
+        for (int from = 1; from <= ROOMS; from++) {
+            for (int to = 1; to <= ROOMS; to++) {
+                long walked = graph.walkingDistance(from, start, to, goal);
+                assertTrue(walked >= graph.roomDistance(from, to));
+                assertEquals(walked, precomputed.walkingDistance(from, start, to, goal));
+                assertEquals(walked, graph.walkingDistance(to, goal, from, start));
+                assertEquals(walked, graph.walkingDistance(from, start, to, goal));
+                assertEquals(graph.roomDistance(from, to), precomputed.roomDistance(to, from));
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+/**
+ * Checks that the dungeons the benchmarks run on are valid, shaped as asked and the same every
+ * time, so results from different runs can be compared.
+ */
+public class DungeonFilesTest {
+
+    private static final int ROOMS = 5;
+    private static final int WIDTH = 10;
+    private static final int HEIGHT = 8;
+    private static final double DENSITY = 0.3;
+
+    /**
+     * Every room has the asked size and is joined to the next one, and the dungeon is valid.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Test
+    public void dungeonIsAValidRow() throws IOException {
+        RogueParser parser = new RogueParser(DungeonFiles.write(ROOMS, WIDTH, HEIGHT, DENSITY));
+        assertEquals(ROOMS, parser.getRooms().size());
+        assertEquals(1, parser.getStartRoomId());
+        for (int id = 1; id <= ROOMS; id++) {
+            RoomDefinition room = parser.getRoomData(id);
+            assertEquals(WIDTH, room.getWidth());
+            assertEquals(HEIGHT, room.getHeight());
+            assertEquals(id < ROOMS ? id + 1 : -1, room.getConnectedRoom("E"));
+            assertEquals(id > 1 ? id - 1 : -1, room.getConnectedRoom("W"));
+        }
+        Rogue game = new Rogue(parser);
+        DungeonReport report = game.getValidationReport();
+        assertTrue(report.toString(), report.isValid());
+        assertEquals(1, report.getComponentCount());
+    }
+
+    /**
+     * Loot is spread over the floor, never on the player's start tile, and every piece has an
+     * item definition.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Test
+    public void lootIsOnFreeFloor() throws IOException {
+        RogueParser parser = new RogueParser(DungeonFiles.write(ROOMS, WIDTH, HEIGHT, DENSITY));
+        int loot = 0;
+        for (RoomDefinition room : parser.getRooms()) {
+            for (int i = 0; i < room.getLootCount(); i++) {
+                assertTrue(room.getLootX(i) > 0 && room.getLootX(i) < WIDTH - 1);
+                assertTrue(room.getLootY(i) > 0 && room.getLootY(i) < HEIGHT - 1);
+                assertFalse(room.isStart() && room.getLootX(i) == 1 && room.getLootY(i) == 1);
+                assertEquals(room.getLootId(i), parser.getItemDefinition(room.getLootId(i)).getId());
+                loot++;
+            }
+        }
+        assertTrue(loot > 0);
+        assertEquals(loot, parser.getAllPossibleItems().size());
+    }
+
+    /**
+     * The same arguments write the same dungeon.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Test
+    public void dungeonsAreRepeatable() throws IOException {
+        RogueParser first = new RogueParser(DungeonFiles.write(ROOMS, WIDTH, HEIGHT, DENSITY));
+        RogueParser second = new RogueParser(DungeonFiles.write(ROOMS, WIDTH, HEIGHT, DENSITY));
+        assertEquals(new Rogue(first).displayAll(), new Rogue(second).displayAll());
+    }
+}
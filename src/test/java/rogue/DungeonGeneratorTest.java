@@ -0,0 +1,125 @@
+package rogue;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that generated dungeons are read back as valid, connected dungeons of the asked shape,
+ * and that a seed always gives the same dungeon.
+ */
+public class DungeonGeneratorTest {
+
+    private static final long SEED = 42L;
+    private static final int ROOMS = 1500;
+    private static final int MIN_SIZE = 6;
+    private static final int MAX_SIZE = 12;
+    private Path directory;
+
+    /**
+     * Makes a directory to generate into.
+     *
+     * @throws IOException if the directory cannot be made
+     */
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("dungeon");
+    }
+
+    /**
+     * Deletes the directory and everything generated into it.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private String generate(long seed, String name) throws IOException {
+        DungeonGenerator generator = new DungeonGenerator(seed);
+        generator.setRoomSizes(MIN_SIZE, MAX_SIZE);
+        return generator.generate(ROOMS, new File(directory.toFile(), name));
+    }
+
+    private byte[] roomsFile(String name) throws IOException {
+        return Files.readAllBytes(directory.resolve(name).resolve("rooms.json"));
+    }
+
+    /**
+     * A generated dungeon has every room, in the size range, all reachable from the start, with
+     * every piece of loot defined.
+     *
+     * @throws IOException if the dungeon cannot be written
+     */
+    @Test
+    public void dungeonIsValidAndConnected() throws IOException {
+        RogueParser parser = new RogueParser(generate(SEED, "run"));
+        assertEquals(ROOMS, parser.getRooms().size());
+        for (RoomDefinition room : parser.getRooms()) {
+            assertTrue(room.getWidth() >= MIN_SIZE && room.getWidth() <= MAX_SIZE);
+            assertTrue(room.getHeight() >= MIN_SIZE && room.getHeight() <= MAX_SIZE);
+            for (int i = 0; i < room.getLootCount(); i++) {
+                assertEquals(room.getLootId(i), parser.getItemDefinition(room.getLootId(i)).getId());
+            }
+        }
+        DungeonReport report = new Rogue(parser).getValidationReport();
+        assertTrue(report.toString(), report.isValid());
+        assertEquals(1, report.getComponentCount());
+    }
+
+    /**
+     * The same seed writes the same bytes, even though the rooms are rendered in parallel, and
+     * another seed writes another dungeon.
+     *
+     * @throws IOException if a dungeon cannot be written
+     */
+    @Test
+    public void seedsAreRepeatable() throws IOException {
+        generate(SEED, "first");
+        generate(SEED, "second");
+        generate(SEED + 1, "other");
+        assertArrayEquals(roomsFile("first"), roomsFile("second"));
+        assertFalse(Arrays.equals(roomsFile("first"), roomsFile("other")));
+    }
+
+    /**
+     * Dungeons without rooms and room sizes below the smallest are refused.
+     *
+     * @throws IOException if a dungeon cannot be written
+     */
+    @Test
+    public void badArgumentsAreRefused() throws IOException {
+        DungeonGenerator generator = new DungeonGenerator(SEED);
+        try {
+            generator.generate(0, directory.toFile());
+            throw new AssertionError("Generated a dungeon without rooms");
+        } catch (IllegalArgumentException e) {
+            assertFalse(new File(directory.toFile(), "rooms.json").exists());
+        }
+        try {
+            generator.setRoomSizes(DungeonGenerator.MIN_ROOM_SIZE - 1, MAX_SIZE);
+            throw new AssertionError("Accepted rooms below the smallest size");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(String.valueOf(DungeonGenerator.MIN_ROOM_SIZE)));
+        }
+    }
+}
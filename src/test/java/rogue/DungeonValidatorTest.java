@@ -0,0 +1,127 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks what validating a dungeon reports and repairs.
+ */
+public class DungeonValidatorTest {
+
+    private static final String ITEMS = "\"items\":[{\"id\":1,\"name\":\"Potion\",\"type\":\"Potion\","
+            + "\"description\":\"A potion\"}]";
+    private static final int WIDTH = 6;
+    private File directory;
+
+    /**
+     * Makes a directory for the dungeon files.
+     *
+     * @throws IOException if the directory cannot be made
+     */
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("validator-test").toFile();
+    }
+
+    /**
+     * Deletes the dungeon files.
+     */
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        for (File file : files == null ? new File[0] : files) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    private Rogue dungeon(String... rooms) throws IOException {
+        File roomsFile = new File(directory, "rooms.json");
+        String json = "{\"room\":[" + String.join(",", rooms) + "]," + ITEMS + "}";
+        Files.write(roomsFile.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        File locations = new File(directory, "fileLocations.json");
+        String files = "{\"Rooms\":\"" + roomsFile.getAbsolutePath().replace('\\', '/') + "\",\"Symbols\":\""
+                + Paths.get("symbols-map.json").toAbsolutePath().toString().replace('\\', '/') + "\"}";
+        Files.write(locations.toPath(), files.getBytes(StandardCharsets.UTF_8));
+        return new Rogue(new RogueParser(locations.getPath()));
+    }
+
+    private static String room(int id, boolean start, int width, String doors) {
+        return "{\"id\":" + id + ",\"start\":" + start + ",\"height\":6,\"width\":" + width + ",\"doors\":["
+                + doors + "],\"loot\":[]}";
+    }
+
+    private static String door(String dir, int conRoom) {
+        return "{\"dir\":\"" + dir + "\",\"con_room\":" + conRoom + ",\"wall_pos\":2}";
+    }
+
+    private static Room room(Rogue game, int id) {
+        for (Room room : game.getRooms()) {
+            if (room.getId() == id) {
+                return room;
+            }
+        }
+        throw new AssertionError("No room " + id);
+    }
+
+    /**
+     * The repository dungeon is valid and every room can be reached.
+     */
+    @Test
+    public void repositoryDungeonIsValid() {
+        DungeonReport report = new Rogue(new RogueParser("fileLocations.json")).getValidationReport();
+        assertTrue(report.toString(), report.isValid());
+        assertEquals(1, report.getComponentCount());
+        assertTrue(report.getUnreachableRooms().isEmpty());
+        assertTrue(report.getRepairedRooms().isEmpty());
+    }
+
+    /**
+     * A room without doors that also breaks another rule has both problems reported, and is
+     * still joined to another room. Here the player starts in a room so narrow that their tile
+     * is a wall.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Test
+    public void doorlessRoomWithOtherProblemsIsRepaired() throws IOException {
+        Rogue game = dungeon(room(1, false, WIDTH, door("E", 2)), room(2, false, WIDTH, door("W", 1)),
+                room(3, true, 2, ""));
+        DungeonReport report = game.getValidationReport();
+        assertEquals(Collections.singletonList(3), report.getMisplacedPlayerRooms());
+        assertEquals(Collections.singletonList(3), report.getRepairedRooms());
+        assertTrue(report.getDoorlessRooms().isEmpty());
+        assertFalse(room(game, 3).getDoors().isEmpty());
+        assertEquals(1, report.getComponentCount());
+        assertFalse(report.isValid());
+    }
+
+    /**
+     * A door to a room that does not exist is reported, and its room is still joined to the rest.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Test
+    public void doorToNowhereIsReported() throws IOException {
+        Rogue game = dungeon(room(1, true, WIDTH, door("E", 2)),
+                room(2, false, WIDTH, door("W", 1) + "," + door("S", 9)));
+        DungeonReport report = game.getValidationReport();
+        assertEquals(1, report.getUnmatchedDoors().size());
+        assertEquals(2, report.getUnmatchedDoors().get(0).getRoomId());
+        assertEquals("S", report.getUnmatchedDoors().get(0).getDirection());
+        assertTrue(report.getUnreachableRooms().isEmpty());
+        assertFalse(report.isValid());
+    }
+}
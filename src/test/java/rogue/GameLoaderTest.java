@@ -0,0 +1,185 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the loader shows the start room, builds the game and recovers its journal, and
+ * asks before throwing away a journal it cannot recover.
+ */
+public class GameLoaderTest {
+
+    private static final String DUNGEON = "fileLocations.json";
+    private Path directory;
+    private String journalDirectory;
+
+    /**
+     * A view that answers every key with the same one and keeps what it is asked to show.
+     */
+    private static final class AnsweringView implements GameView {
+
+        private final char answer;
+        private final List<String> messages = new ArrayList<>();
+        private final List<Room> rooms = new ArrayList<>();
+
+        AnsweringView(char theAnswer) {
+            this.answer = theAnswer;
+        }
+
+        @Override
+        public char getInput() {
+            return answer;
+        }
+
+        @Override
+        public void draw(String message, Room room) {
+            messages.add(message);
+            rooms.add(room);
+        }
+
+        @Override
+        public void showOutput(String message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void showInventory(Player player) {
+        }
+
+        @Override
+        public void showPlayerName(String name) {
+        }
+
+        @Override
+        public int chooseItem(String verb, String[] options) {
+            return -1;
+        }
+    }
+
+    /**
+     * Makes a directory for the journal.
+     *
+     * @throws IOException if the directory cannot be made
+     */
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("loader-test");
+        journalDirectory = directory.resolve("journal").toString();
+    }
+
+    /**
+     * Deletes the journal and any dungeon files.
+     *
+     * @throws IOException if a file cannot be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * The start room is shown with the loading message, and the game built behind it is valid
+     * and has a player.
+     */
+    @Test
+    public void startRoomIsShownFirst() {
+        GameLoader loader = new GameLoader(DUNGEON, journalDirectory);
+        AnsweringView view = new AnsweringView(GameSession.QUIT);
+        loader.showStartRoom(view);
+        assertEquals(1, view.rooms.size());
+        assertEquals(1, view.rooms.get(0).getId());
+        assertEquals(Rogue.BLANK_OFFSET + GameLoader.LOADING_MESSAGE, view.messages.get(0));
+        Rogue game = loader.getBaseGame();
+        assertEquals(game.getCurrentRoom().displayRoom(), view.rooms.get(0).displayRoom());
+        assertNotNull(game.getPlayer());
+    }
+
+    /**
+     * A second load recovers the moves journaled by the first.
+     *
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void journalIsRecovered() throws IOException {
+        MoveJournal journal = new GameLoader(DUNGEON, journalDirectory).getJournal();
+        journal.move(Rogue.RIGHT);
+        journal.close();
+        MoveJournal recovered = new GameLoader(DUNGEON, journalDirectory).getJournal();
+        assertEquals(1, recovered.getReplayedCount());
+        assertEquals(Position.pack(2, 1), recovered.getGame().getPlayer().getXyLocation());
+        recovered.close();
+    }
+
+    /**
+     * A dungeon that fails validation gets no player and no journal.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Test
+    public void invalidDungeonHasNoJournal() throws IOException {
+        File rooms = directory.resolve("rooms.json").toFile();
+        String json = "{\"room\":[{\"id\":1,\"start\":true,\"height\":6,\"width\":6,\"doors\":[{\"dir\":\"E\","
+                + "\"con_room\":9,\"wall_pos\":2}],\"loot\":[]}],\"items\":[]}";
+        Files.write(rooms.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        File locations = directory.resolve("fileLocations.json").toFile();
+        String files = "{\"Rooms\":\"" + rooms.getAbsolutePath().replace('\\', '/') + "\",\"Symbols\":\""
+                + Paths.get("symbols-map.json").toAbsolutePath().toString().replace('\\', '/') + "\"}";
+        Files.write(locations.toPath(), files.getBytes(StandardCharsets.UTF_8));
+        GameLoader loader = new GameLoader(locations.getPath(), journalDirectory);
+        assertNull(loader.getJournal(new AnsweringView(GameLoader.START_OVER)));
+        assertFalse(loader.getBaseGame().getValidationReport().isValid());
+        assertFalse(new File(journalDirectory).exists());
+    }
+
+    /**
+     * A journal that cannot be recovered is kept unless the player agrees to start over.
+     *
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void unrecoverableJournalAsksFirst() throws IOException {
+        MoveJournal journal = new GameLoader(DUNGEON, journalDirectory).getJournal();
+        journal.move(Rogue.RIGHT);
+        journal.close();
+        try (RandomAccessFile header = new RandomAccessFile(new File(journalDirectory, "journal-0.log"), "rw")) {
+            header.seek(Integer.BYTES);
+            header.writeInt(MoveJournal.VERSION - 1);
+        }
+        AnsweringView refusing = new AnsweringView('n');
+        try {
+            new GameLoader(DUNGEON, journalDirectory).getJournal(refusing);
+            fail("Recovered a journal of another version");
+        } catch (IOException e) {
+            assertEquals(GameLoader.START_OVER_QUESTION, refusing.messages.get(0));
+        }
+        MoveJournal fresh = new GameLoader(DUNGEON, journalDirectory).getJournal(
+                new AnsweringView(GameLoader.START_OVER));
+        assertEquals(0, fresh.getReplayedCount());
+        assertEquals(Position.pack(1, 1), fresh.getGame().getPlayer().getXyLocation());
+        fresh.close();
+    }
+}
@@ -0,0 +1,117 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks how the server answers the lines a client sends.
+ */
+public class GameServerTest {
+
+    private static final int TIMEOUT_MILLIS = 10000;
+    private static final String TOO_LONG = "Line too long, at most " + GameServer.MAX_LINE + " characters";
+    private GameServer server;
+    private Thread serving;
+
+    /**
+     * Starts a server for the repository dungeon on a free port.
+     *
+     * @throws IOException if no port can be bound
+     */
+    @Before
+    public void setUp() throws IOException {
+        server = new GameServer(new RogueParser("fileLocations.json"), 0);
+        serving = new Thread(server);
+        serving.start();
+    }
+
+    /**
+     * Stops the server.
+     *
+     * @throws IOException           if the server cannot be closed
+     * @throws InterruptedException if interrupted while waiting for the server to stop
+     */
+    @After
+    public void tearDown() throws IOException, InterruptedException {
+        server.stop();
+        serving.join(TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Sends everything a client types, ending with q, and reads every line sent back until the
+     * server closes the connection.
+     */
+    private List<String> session(String input) throws IOException {
+        try (Socket client = new Socket("localhost", server.getPort())) {
+            client.setSoTimeout(TIMEOUT_MILLIS);
+            OutputStream out = client.getOutputStream();
+            out.write((input + "q\r\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(),
+                    StandardCharsets.UTF_8));
+            List<String> lines = new ArrayList<>();
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                lines.add(line);
+            }
+            return lines;
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        return String.join("", Collections.nCopies(count, String.valueOf(c)));
+    }
+
+    /**
+     * Commands are answered with their outcome, and q says goodbye and closes the connection.
+     *
+     * @throws IOException if the server cannot be reached
+     */
+    @Test
+    public void commandsAreAnswered() throws IOException {
+        List<String> lines = session("d\r\ne x\r\n");
+        assertEquals("Welcome to my Rogue game", lines.get(0));
+        assertEquals(1, Collections.frequency(lines, "Moved"));
+        assertEquals(1, Collections.frequency(lines, "Unknown command"));
+        assertEquals("Goodbye", lines.get(lines.size() - 1));
+    }
+
+    /**
+     * A line longer than the limit is refused as a whole instead of its start being run, and the
+     * session goes on.
+     *
+     * @throws IOException if the server cannot be reached
+     */
+    @Test
+    public void overLongLineIsRefused() throws IOException {
+        List<String> lines = session(repeat('d', GameServer.MAX_LINE + 1) + "\r\nd\r\n");
+        assertEquals(1, Collections.frequency(lines, TOO_LONG));
+        assertEquals(1, Collections.frequency(lines, "Moved"));
+        assertTrue(lines.indexOf(TOO_LONG) < lines.indexOf("Moved"));
+    }
+
+    /**
+     * A line of exactly the limit is still run.
+     *
+     * @throws IOException if the server cannot be reached
+     */
+    @Test
+    public void lineAtTheLimitIsRun() throws IOException {
+        List<String> lines = session("d" + repeat(' ', GameServer.MAX_LINE - 1) + "\r\n");
+        assertEquals(1, Collections.frequency(lines, "Moved"));
+        assertEquals("Goodbye", lines.get(lines.size() - 1));
+    }
+}
@@ -0,0 +1,183 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks the game loop the text and window frontends share, played through a scripted view
+ * instead of a terminal or a window.
+ */
+public class GameSessionTest {
+
+    private static final char[] TO_POTION = {Rogue.RIGHT, Rogue.RIGHT, Rogue.DOWN, Rogue.DOWN};
+    private static final int POTION_ID = 1;
+    private Path directory;
+    private ScriptedView view;
+    private GameSession session;
+
+    /**
+     * A view that hands out keys from a script and keeps everything it is asked to show.
+     */
+    private static final class ScriptedView implements GameView {
+
+        private final ArrayDeque<Character> keys = new ArrayDeque<>();
+        private final List<String> outputs = new ArrayList<>();
+        private final ArrayDeque<Integer> choices = new ArrayDeque<>();
+        private String name;
+        private Room drawnRoom;
+        private Runnable whileChoosing = () -> { };
+
+        void type(char... typed) {
+            for (char key : typed) {
+                keys.add(key);
+            }
+        }
+
+        @Override
+        public char getInput() {
+            return keys.isEmpty() ? GameSession.QUIT : keys.poll();
+        }
+
+        @Override
+        public void draw(String message, Room room) {
+            drawnRoom = room;
+        }
+
+        @Override
+        public void showOutput(String message) {
+            outputs.add(message);
+        }
+
+        @Override
+        public void showInventory(Player player) {
+        }
+
+        @Override
+        public void showPlayerName(String playerName) {
+            name = playerName;
+        }
+
+        @Override
+        public int chooseItem(String verb, String[] options) {
+            whileChoosing.run();
+            return choices.isEmpty() ? 0 : choices.poll();
+        }
+
+        String lastOutput() {
+            return outputs.get(outputs.size() - 1);
+        }
+    }
+
+    /**
+     * Starts a session of the repository dungeon, journaled into a directory of its own.
+     *
+     * @throws IOException if the journal cannot be made
+     */
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("session-test");
+        Rogue game = new Rogue(new RogueParser("fileLocations.json"));
+        game.setPlayer(new Player("Tester"));
+        view = new ScriptedView();
+        session = new GameSession(view, new MoveJournal(directory.toString(), game, true));
+    }
+
+    /**
+     * Closes the session and deletes its journal.
+     *
+     * @throws IOException if the journal cannot be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        session.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Starting shows the room and the player, and every key until q is played and answered.
+     */
+    @Test
+    public void keysArePlayedUntilQuit() {
+        session.start("Welcome");
+        assertSame(session.getGame().getCurrentRoom(), view.drawnRoom);
+        assertEquals("Tester", view.name);
+        view.type(TO_POTION);
+        session.play();
+        assertEquals(CommandOutcome.GOT_ITEM.getMessage(), view.lastOutput());
+        assertEquals(1 + TO_POTION.length, view.outputs.size());
+        assertNotNull(session.getGame().getPlayer().getInventory().getItemById(POTION_ID));
+    }
+
+    /**
+     * An item command uses the item picked in the view, and does nothing when the pick is
+     * cancelled. The potion cannot be worn, so being told so shows it was still carried after the
+     * cancelled pick.
+     */
+    @Test
+    public void pickedItemsAreUsed() {
+        view.type(TO_POTION);
+        view.type(Simulator.EAT, Simulator.WEAR, Simulator.EAT);
+        view.choices.add(-1);
+        view.choices.add(0);
+        Inventory inventory = session.getGame().getPlayer().getInventory();
+        session.play();
+        assertTrue(view.outputs.contains("You have nothing to wear!"));
+        assertEquals(0, inventory.size());
+        assertNull(inventory.getItemById(POTION_ID));
+    }
+
+    /**
+     * An item picked from options that went stale while the view was asking is not used.
+     */
+    @Test
+    public void staleChoicesAreRefused() {
+        Inventory inventory = session.getGame().getPlayer().getInventory();
+        view.whileChoosing = () -> inventory.addItem(new Potion(POTION_ID + 1, "Potion", "", "Potion",
+                Position.pack(1, 1)));
+        view.type(TO_POTION);
+        view.type(Simulator.EAT);
+        session.play();
+        assertEquals("The inventory changed while you were choosing, nothing was used", view.lastOutput());
+        assertEquals(2, inventory.size());
+    }
+
+    /**
+     * Renaming shows the new name, and a replaced game is the one played from then on.
+     */
+    @Test
+    public void renamesAndLoadsAreShown() {
+        session.rename("Renamed");
+        assertEquals("Renamed", view.name);
+        assertEquals("Updated Player name to Renamed", view.lastOutput());
+        Rogue loaded = new Rogue(new RogueParser("fileLocations.json"));
+        loaded.setPlayer(new Player("Loaded"));
+        session.replaceGame(loaded, "Loaded file");
+        assertSame(loaded, session.getGame());
+        assertSame(loaded.getCurrentRoom(), view.drawnRoom);
+        assertEquals("Loaded file", view.lastOutput());
+        view.type(Rogue.RIGHT);
+        session.play();
+        assertEquals(Position.pack(2, 1), loaded.getPlayer().getXyLocation());
+    }
+}
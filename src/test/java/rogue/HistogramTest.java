@@ -0,0 +1,137 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+/**
+ * Checks the histogram bucket maths, that recording from many threads loses nothing, and that
+ * the game metrics count moves and report the game being played.
+ */
+public class HistogramTest {
+
+    private static final int SMALL_VALUES = 8;
+    private static final int VALUES = 1000;
+    private static final double EIGHTH = 1.125;
+    private static final int THREADS = 4;
+    private static final int RECORDS_PER_THREAD = 10000;
+
+    private static void assertWithinAnEighth(long expected, long actual) {
+        assertTrue(actual + " is below " + expected, actual >= expected);
+        assertTrue(actual + " is over an eighth above " + expected, actual <= expected * EIGHTH);
+    }
+
+    /**
+     * Values below eight each have a bucket of their own, so their percentiles are exact.
+     */
+    @Test
+    public void smallValuesAreExact() {
+        Histogram histogram = new Histogram(GameMetrics.NANOS);
+        for (int i = 0; i < SMALL_VALUES; i++) {
+            histogram.record(i);
+        }
+        assertEquals(SMALL_VALUES, histogram.getCount());
+        assertEquals(3, histogram.getPercentile50());
+        assertEquals(SMALL_VALUES - 1, histogram.getMax());
+        assertEquals(3.5, histogram.getMean(), 0.0);
+        assertEquals(0, histogram.getPercentile(0));
+    }
+
+    /**
+     * Larger percentiles are found to within an eighth, and never above the largest value.
+     */
+    @Test
+    public void percentilesAreWithinAnEighth() {
+        Histogram histogram = new Histogram(GameMetrics.NANOS);
+        for (int i = 1; i <= VALUES; i++) {
+            histogram.record(i);
+        }
+        assertWithinAnEighth(VALUES / 2, histogram.getPercentile50());
+        assertWithinAnEighth(VALUES * 9 / 10, histogram.getPercentile90());
+        assertWithinAnEighth(VALUES * 99 / 100, histogram.getPercentile99());
+        assertEquals(VALUES, histogram.getPercentile999());
+        assertEquals(VALUES, histogram.getPercentile(100));
+        assertEquals(Long.MAX_VALUE, recordOnly(Long.MAX_VALUE).getPercentile50());
+    }
+
+    private static Histogram recordOnly(long value) {
+        Histogram histogram = new Histogram(GameMetrics.BYTES);
+        histogram.record(value);
+        return histogram;
+    }
+
+    /**
+     * Negative values count as zero, and a reset forgets everything.
+     */
+    @Test
+    public void negativesAndResets() {
+        Histogram histogram = recordOnly(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile50());
+        histogram.record(VALUES);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getMean(), 0.0);
+        assertEquals(0, histogram.getPercentile99());
+    }
+
+    /**
+     * Values recorded at once from several threads are all counted.
+     *
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        Histogram histogram = new Histogram(GameMetrics.NANOS);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            long value = t + 1;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+                    histogram.record(value);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(THREADS * RECORDS_PER_THREAD, histogram.getCount());
+        assertEquals(THREADS, histogram.getMax());
+        assertEquals((1 + THREADS) / 2.0, histogram.getMean(), 0.0);
+    }
+
+    /**
+     * Moves are counted under their outcome, and the published gauges follow the watched game.
+     *
+     * @throws JMException if the metrics cannot be read over JMX
+     */
+    @Test
+    public void gameMetricsFollowTheGame() throws JMException {
+        Rogue game = new Rogue(new RogueParser("fileLocations.json"));
+        game.setPlayer(new Player("Tester"));
+        GameMetrics.register();
+        GameMetrics.watch(() -> game);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(GameMetrics.DOMAIN + ":type=Game,name=game");
+        long moved = GameMetrics.getMoveLatency(CommandOutcome.MOVED).getCount();
+        long moves = (Long) server.getAttribute(name, "MoveCount");
+        game.applyMove(Rogue.RIGHT);
+        assertEquals(moved + 1, GameMetrics.getMoveLatency(CommandOutcome.MOVED).getCount());
+        assertEquals(moves + 1, server.getAttribute(name, "MoveCount"));
+        assertNull(GameMetrics.getMoveLatency(CommandOutcome.NO_ITEM));
+        assertEquals(game.getRooms().size(), server.getAttribute(name, "ResidentRooms"));
+        assertEquals(game.getItems().size(), server.getAttribute(name, "ResidentItems"));
+        GameMetrics.watch(() -> null);
+        assertEquals(-1, server.getAttribute(name, "ResidentRooms"));
+    }
+}
@@ -0,0 +1,157 @@
+package rogue;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Checks that inventory numbers follow pickup order as items are removed and slots compacted.
+ */
+public class InventoryTest {
+
+    private static final int ITEM_COUNT = 100;
+    private static final Class<?>[] CAPABILITIES = {Edible.class, Wearable.class, Tossable.class};
+
+    private static List<Item> fill(Inventory inventory, int count) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Item item = new Potion(i, "Potion " + i, "", "Potion", 0);
+            inventory.addItem(item);
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static void assertOrder(Inventory inventory, List<Item> expected) {
+        assertEquals(expected.size(), inventory.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), inventory.getItem(i));
+            assertEquals(i + 1, inventory.getNumber(expected.get(i)));
+        }
+    }
+
+    /**
+     * Numbers close up over a removed item without disturbing the others.
+     */
+    @Test
+    public void numbersCloseUpAfterRemoval() {
+        Inventory inventory = new Inventory();
+        List<Item> items = fill(inventory, 5);
+        Item removed = items.remove(2);
+        inventory.removeItem(removed);
+        assertOrder(inventory, items);
+        assertEquals(0, inventory.getNumber(removed));
+        assertNull(inventory.getItemById(removed.getId()));
+    }
+
+    /**
+     * Removing most items compacts the slots, and the numbers still follow pickup order.
+     */
+    @Test
+    public void numbersSurviveCompaction() {
+        Inventory inventory = new Inventory();
+        List<Item> items = fill(inventory, ITEM_COUNT);
+        List<Item> kept = new ArrayList<>();
+        for (Item item : items) {
+            if (item.getId() % 3 == 0) {
+                kept.add(item);
+            } else {
+                inventory.removeItem(item);
+            }
+        }
+        assertOrder(inventory, kept);
+        for (Item item : kept) {
+            assertSame(item, inventory.getItemById(item.getId()));
+        }
+    }
+
+    /**
+     * Items picked up after a compaction are numbered after the ones already carried.
+     */
+    @Test
+    public void addingAfterCompactionAppends() {
+        Inventory inventory = new Inventory();
+        List<Item> items = fill(inventory, ITEM_COUNT);
+        for (Item item : new ArrayList<>(items.subList(0, ITEM_COUNT - 2))) {
+            inventory.removeItem(item);
+            items.remove(item);
+        }
+        Item added = new Potion(ITEM_COUNT, "Late potion", "", "Potion", 0);
+        inventory.addItem(added);
+        items.add(added);
+        assertOrder(inventory, items);
+    }
+
+    /**
+     * The version changes whenever an item is added or removed.
+     */
+    @Test
+    public void versionChangesWithContents() {
+        Inventory inventory = new Inventory();
+        long before = inventory.getVersion();
+        List<Item> items = fill(inventory, 1);
+        long afterAdd = inventory.getVersion();
+        inventory.removeItem(items.get(0));
+        assertNotEquals(before, afterAdd);
+        assertNotEquals(afterAdd, inventory.getVersion());
+    }
+
+    private static Item mixedItem(int id) {
+        String name = "Item " + id;
+        switch (id % 5) {
+            case 0:
+                return new Potion(id, name, "", "Potion", 0);
+            case 1:
+                return new Food(id, name, "", "Food", 0);
+            case 2:
+                return new Clothing(id, name, "", "Clothing", 0);
+            case 3:
+                return new Ring(id, name, "", "Ring", 0);
+            default:
+                return new SmallFood(id, name, "", "SmallFood", 0);
+        }
+    }
+
+    private static void assertSameCaches(Inventory cached, Player player) {
+        Inventory fresh = new Inventory();
+        fresh.setInventory(cached.getItems());
+        assertEquals(fresh.displayInventory(player), cached.displayInventory(player));
+        for (Class<?> capability : CAPABILITIES) {
+            assertEquals(fresh.getItems(capability), cached.getItems(capability));
+            assertArrayEquals(fresh.getOptions(capability), cached.getOptions(capability));
+        }
+    }
+
+    /**
+     * The cached listing, capability lists and options are updated in place as items are
+     * removed, the worn item included, and match ones built from scratch.
+     */
+    @Test
+    public void cachesFollowRemovals() {
+        Inventory inventory = new Inventory();
+        Player player = new Player("Tester");
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(mixedItem(i));
+            inventory.addItem(items.get(i));
+        }
+        player.setWearableItem(items.get(2));
+        assertSameCaches(inventory, player);
+        int[] removals = {2, 0, ITEM_COUNT - 1, 50, 51, 7};
+        for (int index : removals) {
+            inventory.removeItem(items.get(index));
+            assertSameCaches(inventory, player);
+        }
+        for (int i = 0; i < ITEM_COUNT; i += 2) {
+            inventory.removeItem(items.get(i));
+        }
+        assertSameCaches(inventory, player);
+    }
+}
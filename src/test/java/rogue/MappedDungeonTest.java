@@ -0,0 +1,140 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a dungeon written to a file and mapped back reads the same as the parsed one.
+ */
+public class MappedDungeonTest {
+
+    private static final String DUNGEON = "fileLocations.json";
+    private static final String[] WALLS = {"N", "S", "E", "W"};
+    private static final int RESIDENT_ROOMS = 3;
+    private static final char[] MOVES = {Rogue.DOWN, Rogue.DOWN, Rogue.DOWN, Rogue.DOWN, Rogue.RIGHT, Rogue.RIGHT,
+        Rogue.RIGHT, Rogue.DOWN, Rogue.DOWN, Rogue.DOWN, Rogue.DOWN, Rogue.DOWN};
+    private RogueParser parsed;
+    private File file;
+    private MappedDungeon mapped;
+
+    /**
+     * Writes the repository dungeon to a dungeon file and maps it.
+     *
+     * @throws IOException if the dungeon file cannot be written or mapped
+     */
+    @Before
+    public void setUp() throws IOException {
+        parsed = new RogueParser(DUNGEON);
+        file = File.createTempFile("dungeon-test", MappedDungeon.EXTENSION);
+        MappedDungeon.write(parsed, file.getPath());
+        mapped = new MappedDungeon(file.getPath());
+    }
+
+    /**
+     * Deletes the dungeon file.
+     */
+    @After
+    public void tearDown() {
+        mapped = null;
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    private static void assertSameRoom(RoomDefinition expected, RoomDefinition actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.isStart(), actual.isStart());
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (String wall : WALLS) {
+            assertEquals(expected.getDoorPosition(wall), actual.getDoorPosition(wall));
+            assertEquals(expected.getConnectedRoom(wall), actual.getConnectedRoom(wall));
+        }
+        assertEquals(expected.getLootCount(), actual.getLootCount());
+        for (int i = 0; i < expected.getLootCount(); i++) {
+            assertEquals(expected.getLootId(i), actual.getLootId(i));
+            assertEquals(expected.getLootX(i), actual.getLootX(i));
+            assertEquals(expected.getLootY(i), actual.getLootY(i));
+        }
+    }
+
+    /**
+     * Every room, item and symbol reads back as it was parsed.
+     */
+    @Test
+    public void mappedDungeonMatchesTheParsedOne() {
+        assertEquals(parsed.getRooms().size(), mapped.getRoomCount());
+        assertEquals(parsed.getStartRoomId(), mapped.getStartRoomId());
+        for (int i = 0; i < parsed.getRooms().size(); i++) {
+            RoomDefinition room = parsed.getRooms().get(i);
+            assertSameRoom(room, mapped.getRooms().get(i));
+            assertSameRoom(room, mapped.getRoomData(room.getId()));
+            assertEquals(0, mapped.getRoomData(room.getId()).getMonsterCount());
+        }
+        assertNull(mapped.getRoomData(-1));
+        assertEquals(parsed.getAllPossibleItems().size(), mapped.getAllPossibleItems().size());
+        for (ItemData item : parsed.getAllPossibleItems().values()) {
+            ItemData read = mapped.getItemDefinition(item.getId());
+            assertEquals(item.getName(), read.getName());
+            assertEquals(item.getType(), read.getType());
+            assertEquals(item.getDescription(), read.getDescription());
+        }
+        assertEquals(parsed.getSymbols(), mapped.getSymbols());
+    }
+
+    /**
+     * A room copied from a view keeps its doors and loses its loot, so changed rooms of a mapped
+     * dungeon can be remembered on the heap.
+     */
+    @Test
+    public void viewsCopyWithoutLoot() {
+        for (RoomDefinition room : mapped.getRooms()) {
+            RoomData copy = RoomData.copyWithoutLoot(room);
+            assertEquals(0, copy.getLootCount());
+            for (String wall : WALLS) {
+                assertEquals(room.getDoorPosition(wall), copy.getDoorPosition(wall));
+                assertEquals(room.getConnectedRoom(wall), copy.getConnectedRoom(wall));
+            }
+        }
+    }
+
+    /**
+     * A lazy game over the mapped dungeon plays like a lazy game over the parsed one.
+     */
+    @Test
+    public void lazyGamesPlayTheSame() {
+        Rogue fromParsed = new Rogue(parsed, RESIDENT_ROOMS);
+        Rogue fromMapped = new Rogue(mapped, RESIDENT_ROOMS);
+        assertEquals(fromParsed.displayAll(), fromMapped.displayAll());
+        for (char move : MOVES) {
+            assertEquals(fromParsed.applyMove(move), fromMapped.applyMove(move));
+            assertEquals(fromParsed.getCurrentRoom().getId(), fromMapped.getCurrentRoom().getId());
+        }
+        assertEquals(fromParsed.displayAll(), fromMapped.displayAll());
+    }
+
+    /**
+     * A file that is not a dungeon file is refused.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void otherFilesAreRefused() throws IOException {
+        Files.write(file.toPath(), new byte[Long.BYTES * Long.BYTES * 2]);
+        try {
+            new MappedDungeon(file.getPath());
+            fail("Mapped a file that is not a dungeon");
+        } catch (IOException e) {
+            assertEquals("Not a dungeon file: " + file.getPath(), e.getMessage());
+        }
+    }
+}
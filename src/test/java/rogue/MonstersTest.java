@@ -0,0 +1,194 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks how monsters are placed, hit and moved by the tick scheduler.
+ */
+public class MonstersTest {
+
+    private static final String DUNGEON = "fileLocations.json";
+    private static final int TICKS = 200;
+    private Rogue game;
+    private Room room;
+    private Monsters monsters;
+
+    /**
+     * Builds the repository dungeon with the player in the start room.
+     */
+    @Before
+    public void setUp() {
+        game = newGame();
+        room = game.getCurrentRoom();
+        monsters = game.getMonsters();
+    }
+
+    private static Rogue newGame() {
+        Rogue theGame = new Rogue(new RogueParser(DUNGEON));
+        theGame.setPlayer(new Player("Tester"));
+        return theGame;
+    }
+
+    private static int fill(Rogue theGame, Behavior kind, int wanted) {
+        Room start = theGame.getCurrentRoom();
+        int placed = 0;
+        for (int y = 1; y < start.getHeight() - 1 && placed < wanted; y++) {
+            for (int x = 1; x < start.getWidth() - 1 && placed < wanted; x++) {
+                if (theGame.getMonsters().add(start, Position.pack(x, y), 1, kind) != Monsters.NONE) {
+                    placed++;
+                }
+            }
+        }
+        return placed;
+    }
+
+    private int freeTile() {
+        for (int y = 1; y < room.getHeight() - 1; y++) {
+            for (int x = 1; x < room.getWidth() - 1; x++) {
+                int pos = Position.pack(x, y);
+                if (monsters.at(room, pos) == Monsters.NONE && !room.isDoorway(pos) && !room.isPlayer(pos)
+                        && !room.isOnItem(pos)) {
+                    return pos;
+                }
+            }
+        }
+        throw new AssertionError("No free tile");
+    }
+
+    /**
+     * Walls, taken tiles and monsters without hit points are refused.
+     */
+    @Test
+    public void addRefusesTilesThatAreNotFree() {
+        int pos = freeTile();
+        assertEquals(Monsters.NONE, monsters.add(room, Position.pack(0, 1), 1, Behavior.IDLE));
+        assertEquals(Monsters.NONE, monsters.add(room, pos, 0, Behavior.IDLE));
+        assertEquals(Monsters.NONE, monsters.add(room, game.getPlayer().getXyLocation(), 1, Behavior.IDLE));
+        int index = monsters.add(room, pos, 1, Behavior.IDLE);
+        assertNotEquals(Monsters.NONE, index);
+        assertEquals(Monsters.NONE, monsters.add(room, pos, 1, Behavior.IDLE));
+        assertEquals(index, monsters.at(room, pos));
+        assertEquals(1, monsters.size());
+    }
+
+    /**
+     * Killing a monster moves the last one into its index, and every other monster is still
+     * found on its tile.
+     */
+    @Test
+    public void killingKeepsTheOthersFindable() {
+        int placed = fill(game, Behavior.IDLE, 5);
+        int[] positions = new int[placed];
+        for (int i = 0; i < placed; i++) {
+            positions[i] = monsters.getPosition(i);
+        }
+        assertTrue(monsters.hit(1));
+        assertEquals(placed - 1, monsters.size());
+        assertEquals(Monsters.NONE, monsters.at(room, positions[1]));
+        for (int i = 0; i < placed; i++) {
+            if (i != 1) {
+                assertEquals(positions[i], monsters.getPosition(monsters.at(room, positions[i])));
+            }
+        }
+        int walked = 0;
+        for (int i = monsters.first(room); i != Monsters.NONE; i = monsters.next(i)) {
+            walked++;
+        }
+        assertEquals(placed - 1, walked);
+    }
+
+    /**
+     * Idle monsters never act.
+     */
+    @Test
+    public void idleMonstersStayPut() {
+        int index = monsters.add(room, freeTile(), 1, Behavior.IDLE);
+        int pos = monsters.getPosition(index);
+        for (int i = 0; i < TICKS; i++) {
+            monsters.tick(game.getPlayer());
+        }
+        assertEquals(pos, monsters.getPosition(index));
+        assertEquals(Integer.MAX_VALUE, monsters.getReadyAt(index));
+    }
+
+    /**
+     * A chasing monster in the player's room closes in every tick until it stands next to the
+     * player, and never steps onto them.
+     */
+    @Test
+    public void chasersCloseInOnThePlayer() {
+        int player = game.getPlayer().getXyLocation();
+        int farthest = Position.NONE;
+        for (int y = 1; y < room.getHeight() - 1; y++) {
+            for (int x = 1; x < room.getWidth() - 1; x++) {
+                int pos = Position.pack(x, y);
+                if (farthest == Position.NONE || distance(pos, player) > distance(farthest, player)) {
+                    if (monsters.at(room, pos) == Monsters.NONE && !room.isDoorway(pos) && !room.isOnItem(pos)) {
+                        farthest = pos;
+                    }
+                }
+            }
+        }
+        int index = monsters.add(room, farthest, 1, Behavior.CHASE);
+        assertNotEquals(Monsters.NONE, index);
+        int before = distance(monsters.getPosition(index), player);
+        monsters.tick(game.getPlayer());
+        assertTrue(distance(monsters.getPosition(index), player) < before);
+        for (int i = 0; i < TICKS; i++) {
+            monsters.tick(game.getPlayer());
+            assertNotEquals(player, monsters.getPosition(index));
+        }
+        assertEquals(1, distance(monsters.getPosition(index), player));
+    }
+
+    private static int distance(int from, int to) {
+        return Math.abs(Position.x(from) - Position.x(to)) + Math.abs(Position.y(from) - Position.y(to));
+    }
+
+    /**
+     * Wandering monsters stay inside the walls, off doorways and items, and never share a tile.
+     */
+    @Test
+    public void wanderersKeepToFreeFloor() {
+        int placed = fill(game, Behavior.WANDER, 20);
+        for (int t = 0; t < TICKS; t++) {
+            monsters.tick(game.getPlayer());
+            Set<Integer> taken = new HashSet<>();
+            for (int i = 0; i < placed; i++) {
+                int pos = monsters.getPosition(i);
+                assertTrue(taken.add(pos));
+                assertTrue(Position.x(pos) > 0 && Position.x(pos) < room.getWidth() - 1);
+                assertTrue(Position.y(pos) > 0 && Position.y(pos) < room.getHeight() - 1);
+                assertFalse(room.isDoorway(pos));
+                assertFalse(room.isOnItem(pos));
+                assertEquals(i, monsters.at(room, pos));
+            }
+        }
+    }
+
+    /**
+     * The same moves from the same monsters give the same game.
+     */
+    @Test
+    public void ticksAreDeterministic() {
+        Rogue other = newGame();
+        int placed = fill(game, Behavior.WANDER, 10);
+        assertEquals(placed, fill(other, Behavior.WANDER, 10));
+        char[] moves = {Rogue.DOWN, Rogue.RIGHT, Rogue.UP, Rogue.LEFT};
+        for (int t = 0; t < TICKS; t++) {
+            assertEquals(game.applyMove(moves[t % moves.length]), other.applyMove(moves[t % moves.length]));
+        }
+        for (int i = 0; i < placed; i++) {
+            assertEquals(monsters.getPosition(i), other.getMonsters().getPosition(i));
+        }
+    }
+}
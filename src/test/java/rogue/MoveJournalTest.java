@@ -0,0 +1,244 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the journal recovers the game after a crash, and what it does when the files it
+ * recovers from are damaged or belong to another dungeon.
+ */
+public class MoveJournalTest {
+
+    private static final String DUNGEON = "fileLocations.json";
+    private static final String ROOMS = "A3_Rooms.json";
+    private static final String SYMBOLS = "symbols-map.json";
+    private static final char[] MOVES = {Rogue.DOWN, Rogue.RIGHT, Rogue.RIGHT, Rogue.DOWN, Rogue.LEFT, Rogue.UP};
+    private File directory;
+    private File journalDirectory;
+
+    /**
+     * Makes an empty directory for the journal.
+     *
+     * @throws IOException if the directory cannot be made
+     */
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-test").toFile();
+        journalDirectory = new File(directory, "journal");
+    }
+
+    /**
+     * Deletes the journal and anything else the test wrote.
+     */
+    @After
+    public void tearDown() {
+        delete(directory);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    private static Rogue newGame(String fileLocations) {
+        Rogue game = new Rogue(new RogueParser(fileLocations));
+        game.setPlayer(new Player("Tester"));
+        return game;
+    }
+
+    private MoveJournal open(String fileLocations) throws IOException {
+        return new MoveJournal(journalDirectory.getPath(), newGame(fileLocations));
+    }
+
+    private static int play(MoveJournal journal) {
+        int recorded = 0;
+        for (char move : MOVES) {
+            CommandOutcome outcome = journal.move(move);
+            if (outcome != CommandOutcome.INVALID_MOVE && outcome != CommandOutcome.NO_MOVE) {
+                recorded++;
+            }
+        }
+        assertTrue(recorded > 0);
+        return recorded;
+    }
+
+    private File file(String name) {
+        return new File(journalDirectory, name);
+    }
+
+    /**
+     * A record cut short by a crash is dropped, every whole record before it is replayed and the
+     * journal goes on after the last whole record.
+     *
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void tornTailIsDropped() throws IOException {
+        MoveJournal journal = open(DUNGEON);
+        int recorded = play(journal);
+        String played = journal.getGame().displayAll();
+        journal.close();
+        File log = file("journal-0.log");
+        long whole = log.length();
+        Files.write(log.toPath(), new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+        MoveJournal recovered = open(DUNGEON);
+        assertEquals(recorded, recovered.getReplayedCount());
+        assertEquals(played, recovered.getGame().displayAll());
+        assertEquals(whole, log.length());
+        recovered.close();
+    }
+
+    /**
+     * A last record whose checksum does not match is dropped with everything after it.
+     *
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void recordWithBadChecksumEndsReplay() throws IOException {
+        MoveJournal journal = open(DUNGEON);
+        int recorded = play(journal);
+        journal.close();
+        try (RandomAccessFile log = new RandomAccessFile(file("journal-0.log"), "rw")) {
+            log.seek(log.length() - 1);
+            int last = log.read();
+            log.seek(log.length() - 1);
+            log.write(last ^ 1);
+        }
+
+        MoveJournal recovered = open(DUNGEON);
+        assertEquals(recorded - 1, recovered.getReplayedCount());
+        recovered.close();
+    }
+
+    /**
+     * A journal whose header is whole but of another version is neither replayed nor truncated.
+     * Recovery fails until the player explicitly starts over.
+     *
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void journalOfAnotherVersionIsKept() throws IOException {
+        MoveJournal journal = open(DUNGEON);
+        play(journal);
+        journal.close();
+        File log = file("journal-0.log");
+        long length = log.length();
+        try (RandomAccessFile header = new RandomAccessFile(log, "rw")) {
+            header.seek(Integer.BYTES);
+            header.writeInt(MoveJournal.VERSION - 1);
+        }
+
+        try {
+            open(DUNGEON);
+            fail("Replayed a journal of another version");
+        } catch (IOException e) {
+            assertEquals(length, log.length());
+        }
+        MoveJournal fresh = new MoveJournal(journalDirectory.getPath(), newGame(DUNGEON), true);
+        assertEquals(0, fresh.getReplayedCount());
+        fresh.close();
+    }
+
+    /**
+     * A header cut short by a crash while the journal was made holds no commands, so the
+     * journal is simply started again.
+     *
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void partlyWrittenHeaderIsRewritten() throws IOException {
+        assertTrue(journalDirectory.mkdirs());
+        Files.write(file("journal-0.log").toPath(), new byte[] {1, 2, 3});
+        MoveJournal journal = open(DUNGEON);
+        assertEquals(0, journal.getReplayedCount());
+        int recorded = play(journal);
+        journal.close();
+        MoveJournal recovered = open(DUNGEON);
+        assertEquals(recorded, recovered.getReplayedCount());
+        recovered.close();
+    }
+
+    /**
+     * A checkpoint that does not load is set aside, recovery refuses to drop the journal after
+     * it, and only an explicit start over begins again from the base game.
+     *
+     * @throws IOException if the journal cannot be used
+     */
+    @Test
+    public void corruptCheckpointIsSetAside() throws IOException {
+        MoveJournal journal = open(DUNGEON);
+        play(journal);
+        journal.checkpoint();
+        play(journal);
+        journal.close();
+        File checkpoint = file("checkpoint-1.sav");
+        byte[] bytes = Files.readAllBytes(checkpoint.toPath());
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(checkpoint.toPath(), bytes);
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            try {
+                open(DUNGEON);
+                fail("Recovered past a corrupt checkpoint");
+            } catch (IOException e) {
+                assertTrue(file("checkpoint-1.sav" + MoveJournal.CORRUPT_SUFFIX).isFile());
+                assertTrue(file("journal-1.log").isFile());
+            }
+        }
+
+        MoveJournal fresh = new MoveJournal(journalDirectory.getPath(), newGame(DUNGEON), true);
+        assertEquals(0, fresh.getReplayedCount());
+        assertEquals(newGame(DUNGEON).displayAll(), fresh.getGame().displayAll());
+        fresh.close();
+    }
+
+    /**
+     * Nothing is replayed onto a dungeon whose files changed since the journal was written.
+     *
+     * @throws IOException if the dungeon files or the journal cannot be used
+     */
+    @Test
+    public void changedDungeonStartsOver() throws IOException {
+        File rooms = new File(directory, ROOMS);
+        File symbols = new File(directory, SYMBOLS);
+        Files.copy(Paths.get(ROOMS), rooms.toPath());
+        Files.copy(Paths.get(SYMBOLS), symbols.toPath());
+        File locations = new File(directory, DUNGEON);
+        String json = "{\"Rooms\":\"" + rooms.getAbsolutePath().replace('\\', '/') + "\",\"Symbols\":\""
+                + symbols.getAbsolutePath().replace('\\', '/') + "\"}";
+        Files.write(locations.toPath(), json.getBytes(StandardCharsets.UTF_8));
+
+        MoveJournal journal = open(locations.getPath());
+        play(journal);
+        journal.checkpoint();
+        play(journal);
+        journal.close();
+        Files.write(rooms.toPath(), "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        MoveJournal recovered = open(locations.getPath());
+        assertEquals(0, recovered.getReplayedCount());
+        assertEquals(newGame(locations.getPath()).displayAll(), recovered.getGame().displayAll());
+        recovered.close();
+    }
+}
@@ -0,0 +1,53 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Checks that panel states change one part at a time and leave unset parts alone.
+ */
+public class PanelStateTest {
+
+    /**
+     * Nothing is set in the empty state.
+     */
+    @Test
+    public void emptyStateSetsNothing() {
+        assertNull(PanelState.EMPTY.getDescription());
+        assertNull(PanelState.EMPTY.getInventory());
+        assertNull(PanelState.EMPTY.getPlayerName());
+    }
+
+    /**
+     * Each change keeps the other parts and leaves the state it was made from as it was.
+     */
+    @Test
+    public void changesKeepTheOtherParts() {
+        PanelState named = PanelState.EMPTY.withPlayerName("Tester");
+        PanelState state = named.withDescription("Moved").withInventory("<html>1. Potion");
+        assertEquals("Tester", state.getPlayerName());
+        assertEquals("Moved", state.getDescription());
+        assertEquals("<html>1. Potion", state.getInventory());
+        assertNull(named.getDescription());
+        assertNull(named.getInventory());
+        PanelState later = state.withDescription("Ate");
+        assertEquals("Ate", later.getDescription());
+        assertEquals("Moved", state.getDescription());
+        assertSame(state.getInventory(), later.getInventory());
+    }
+
+    /**
+     * Publishing the same inventory listing again gives back the same state, so the panel is not
+     * redrawn for it.
+     */
+    @Test
+    public void sameInventoryKeepsTheState() {
+        String listing = "<html>1. Potion";
+        PanelState state = PanelState.EMPTY.withInventory(listing);
+        assertSame(state, state.withInventory(listing));
+        assertEquals("<html>", state.withInventory("<html>").getInventory());
+    }
+}
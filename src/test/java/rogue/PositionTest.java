@@ -0,0 +1,81 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks packed positions, the steps each direction takes and how rooms find their doors by
+ * packed position.
+ */
+public class PositionTest {
+
+    private static final int LARGEST = 32767;
+    private static final int SMALLEST = -32768;
+    private static final int DOOR_SPOT = 4;
+
+    /**
+     * Coordinates come back out of a packed position as they went in, negative ones included.
+     */
+    @Test
+    public void coordinatesSurvivePacking() {
+        int[] values = {0, 1, -1, DOOR_SPOT, LARGEST, SMALLEST};
+        for (int x : values) {
+            for (int y : values) {
+                int position = Position.pack(x, y);
+                assertEquals(x, Position.x(position));
+                assertEquals(y, Position.y(position));
+            }
+        }
+        assertEquals("3,-2", Position.toString(Position.pack(3, -2)));
+        assertEquals("none", Position.toString(Position.NONE));
+    }
+
+    /**
+     * Each direction steps one tile its own way, faces back the other way and is found by its
+     * wall name in either case.
+     */
+    @Test
+    public void directionsStepAndTurn() {
+        int start = Position.pack(2, 2);
+        assertEquals(Position.pack(2, 1), Direction.NORTH.step(start));
+        assertEquals(Position.pack(2, 3), Direction.SOUTH.step(start));
+        assertEquals(Position.pack(3, 2), Direction.EAST.step(start));
+        assertEquals(Position.pack(1, 2), Direction.WEST.step(start));
+        for (Direction direction : Direction.values()) {
+            assertEquals(start, direction.opposite().step(direction.step(start)));
+            assertSame(direction, direction.opposite().opposite());
+            assertSame(direction, Direction.forCode(direction.getCode()));
+            assertSame(direction, Direction.forCode(direction.getCode().toLowerCase()));
+        }
+        assertNull(Direction.forCode("I"));
+        assertNull(Direction.forCode("NS"));
+        assertNull(Direction.forCode(null));
+    }
+
+    /**
+     * A room finds its doors and walls by packed position. The repository's start room has doors
+     * on its south and east walls.
+     */
+    @Test
+    public void roomsFindTheirDoors() {
+        Rogue game = new Rogue(new RogueParser("fileLocations.json"));
+        Room room = game.getCurrentRoom();
+        int east = Position.pack(room.getWidth() - 1, DOOR_SPOT);
+        int south = Position.pack(DOOR_SPOT, room.getHeight() - 1);
+        assertEquals(east, room.getDoorPoint(Direction.EAST));
+        assertEquals(south, room.getDoorPoint(Direction.SOUTH));
+        assertEquals(Position.NONE, room.getDoorPoint(Direction.NORTH));
+        assertTrue(room.isOnDoor(east));
+        assertTrue(room.isOnDoor(south));
+        assertFalse(room.isOnDoor(Position.pack(room.getWidth() - 1, DOOR_SPOT + 1)));
+        assertFalse(room.isOnDoor(Position.pack(1, 1)));
+        assertSame(Direction.WEST, room.getWallDir(Position.pack(0, DOOR_SPOT)));
+        assertSame(Direction.NORTH, room.getWallDir(Position.pack(DOOR_SPOT, 0)));
+        assertNull(room.getWallDir(Position.pack(1, 1)));
+    }
+}
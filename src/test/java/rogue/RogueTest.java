@@ -0,0 +1,93 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a built game finds its rooms and items by id, and joins rooms as the dungeon files
+ * say.
+ */
+public class RogueTest {
+
+    private static final int UNKNOWN_ID = 1000;
+    private RogueParser parser;
+    private Rogue game;
+
+    /**
+     * Builds the repository dungeon.
+     */
+    @Before
+    public void setUp() {
+        parser = new RogueParser("fileLocations.json");
+        game = new Rogue(parser);
+        game.setPlayer(new Player("Tester"));
+    }
+
+    private Room room(int id) {
+        for (Room room : game.getRooms()) {
+            if (room.getId() == id) {
+                return room;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Every piece of loot is found by its id, lying in the room that lists it.
+     */
+    @Test
+    public void itemsAreFoundById() {
+        int loot = 0;
+        for (RoomDefinition data : parser.getRooms()) {
+            for (int i = 0; i < data.getLootCount(); i++) {
+                Item item = game.getItem(data.getLootId(i));
+                assertNotNull(item);
+                assertEquals(data.getLootId(i), item.getId());
+                assertSame(room(data.getId()), item.getCurrentRoom());
+                loot++;
+            }
+        }
+        assertEquals(loot, game.getItems().size());
+        assertNull(game.getItem(UNKNOWN_ID));
+    }
+
+    /**
+     * Every door leads to the room the dungeon files name, from both sides.
+     */
+    @Test
+    public void doorsJoinTheParsedRooms() {
+        for (RoomDefinition data : parser.getRooms()) {
+            Room room = room(data.getId());
+            for (Direction wall : Direction.values()) {
+                int connected = data.getConnectedRoom(wall.getCode());
+                if (connected > 0) {
+                    Door door = room.getDoor(wall);
+                    assertNotNull(door);
+                    assertSame(room(connected), door.getOtherRoom(room));
+                    assertSame(door, room(connected).getDoor(wall.opposite()));
+                }
+            }
+        }
+    }
+
+    /**
+     * A room taken out of the game takes its items out of the id lookup with it.
+     */
+    @Test
+    public void removedRoomsDropTheirItems() {
+        Room first = room(1);
+        Item item = first.getRoomItems().get(0);
+        game.unregisterRoom(first);
+        assertNull(room(1));
+        assertNull(game.getItem(item.getId()));
+        game.registerRoom(first);
+        game.registerItem(item);
+        assertSame(first, room(1));
+        assertSame(item, game.getItem(item.getId()));
+    }
+}
@@ -0,0 +1,106 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a lazy game only keeps the rooms around the player built, and rebuilds dropped
+ * rooms the way the player left them.
+ */
+public class RoomCacheTest {
+
+    private static final int RESIDENT_ROOMS = 1;
+    private static final String TO_FIRST_DOOR = "rrdddrrrrrr";
+    private static final String TO_ROOM_FIVE = TO_FIRST_DOOR + "rrrrrrrrrrrrrrrrrr";
+    private static final String BACK_TO_ROOM_TWO = "ll";
+    private static final int POTION_ID = 1;
+    private static final int ROOM_THREE_ITEM = 6;
+    private static final int ROOM_FOUR_ITEM = 9;
+    private RogueParser parser;
+    private Rogue game;
+
+    /**
+     * Builds a lazy game of the repository dungeon that keeps as few rooms as it can.
+     */
+    @Before
+    public void setUp() {
+        parser = new RogueParser("fileLocations.json");
+        game = new Rogue(parser, RESIDENT_ROOMS);
+    }
+
+    private static void walk(Rogue rogue, String moves) {
+        for (char move : moves.toCharArray()) {
+            if (move == 'u') {
+                rogue.applyMove(Rogue.UP);
+            } else if (move == 'd') {
+                rogue.applyMove(Rogue.DOWN);
+            } else if (move == 'l') {
+                rogue.applyMove(Rogue.LEFT);
+            } else {
+                rogue.applyMove(Rogue.RIGHT);
+            }
+        }
+    }
+
+    private TreeSet<Integer> residentIds() {
+        TreeSet<Integer> ids = new TreeSet<>();
+        for (Room room : game.getRooms()) {
+            ids.add(room.getId());
+        }
+        return ids;
+    }
+
+    private Room room(int id) {
+        for (Room room : game.getRooms()) {
+            if (room.getId() == id) {
+                return room;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Only the start room and the rooms one door away are built, even over budget.
+     */
+    @Test
+    public void startBuildsTheNeighbourhood() {
+        assertTrue(game.isLazy());
+        assertEquals(new TreeSet<>(Arrays.asList(1, 2, 3)), residentIds());
+        assertNull(game.getItem(ROOM_FOUR_ITEM));
+    }
+
+    /**
+     * Walking on drops the rooms that are no longer next to the player, with their items.
+     */
+    @Test
+    public void roomsOverBudgetAreDropped() {
+        walk(game, TO_ROOM_FIVE);
+        assertEquals(5, game.getCurrentRoom().getId());
+        assertEquals(new TreeSet<>(Arrays.asList(2, 5)), residentIds());
+        assertNull(game.getItem(ROOM_THREE_ITEM));
+        assertNull(game.getItem(ROOM_FOUR_ITEM));
+    }
+
+    /**
+     * A dropped room the player took an item from is rebuilt without it, and an untouched room
+     * is rebuilt as the files say.
+     */
+    @Test
+    public void changedLootIsKept() {
+        walk(game, TO_ROOM_FIVE + BACK_TO_ROOM_TWO);
+        assertEquals(2, game.getCurrentRoom().getId());
+        assertNotNull(room(1));
+        assertTrue(room(1).getRoomItems().isEmpty());
+        assertNotNull(game.getPlayer().getInventory().getItemById(POTION_ID));
+        assertNotNull(game.getItem(ROOM_FOUR_ITEM));
+        assertEquals(parser.getRoomData(4).getLootCount(), room(4).getRoomItems().size());
+    }
+}
@@ -0,0 +1,89 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+/**
+ * Checks that doors are only set on the four walls named exactly, whether set directly or parsed
+ * from a rooms file.
+ */
+public class RoomDataTest {
+
+    private static final String[] WALLS = {"N", "S", "E", "W"};
+    private static final String[] NOT_WALLS = {"", "NS", "SE", "n", "North", null};
+
+    private static void assertNoDoors(RoomDefinition room) {
+        for (String wall : WALLS) {
+            assertEquals(-1, room.getDoorPosition(wall));
+            assertEquals(-1, room.getConnectedRoom(wall));
+        }
+    }
+
+    /**
+     * Each wall name sets the door on its own wall only.
+     */
+    @Test
+    public void wallNamesSetTheirOwnDoor() {
+        for (int wall = 0; wall < WALLS.length; wall++) {
+            RoomData room = new RoomData();
+            room.setDoor(WALLS[wall], wall + 1, wall + 2);
+            for (int other = 0; other < WALLS.length; other++) {
+                assertEquals(other == wall ? wall + 1 : -1, room.getDoorPosition(WALLS[other]));
+                assertEquals(other == wall ? wall + 2 : -1, room.getConnectedRoom(WALLS[other]));
+            }
+        }
+    }
+
+    /**
+     * Names that only contain a wall name, are in another case or are missing set no door, and
+     * reading them finds none.
+     */
+    @Test
+    public void otherNamesSetNoDoor() {
+        for (String name : NOT_WALLS) {
+            RoomData room = new RoomData();
+            room.setDoor(name, 1, 2);
+            assertNoDoors(room);
+            assertEquals(-1, room.getDoorPosition(name));
+            assertEquals(-1, room.getConnectedRoom(name));
+        }
+    }
+
+    /**
+     * A door without a direction in the rooms file is skipped and the rest of the room is read.
+     *
+     * @throws IOException if the dungeon files cannot be written
+     */
+    @Test
+    public void doorWithoutDirectionIsSkipped() throws IOException {
+        File directory = Files.createTempDirectory("room-test").toFile();
+        File rooms = new File(directory, "rooms.json");
+        File locations = new File(directory, "fileLocations.json");
+        try {
+            String json = "{\"room\":[{\"id\":1,\"start\":true,\"height\":6,\"width\":6,"
+                    + "\"doors\":[{\"con_room\":2,\"wall_pos\":2},{\"dir\":\"SE\",\"con_room\":2,\"wall_pos\":3}],"
+                    + "\"loot\":[]}],\"items\":[]}";
+            Files.write(rooms.toPath(), json.getBytes(StandardCharsets.UTF_8));
+            String files = "{\"Rooms\":\"" + rooms.getAbsolutePath().replace('\\', '/') + "\",\"Symbols\":\""
+                    + Paths.get("symbols-map.json").toAbsolutePath().toString().replace('\\', '/') + "\"}";
+            Files.write(locations.toPath(), files.getBytes(StandardCharsets.UTF_8));
+
+            RogueParser parser = new RogueParser(locations.getPath());
+            assertEquals(1, parser.getRooms().size());
+            RoomDefinition room = parser.getRoomData(1);
+            assertEquals(6, room.getWidth());
+            assertNoDoors(room);
+        } finally {
+            Files.deleteIfExists(rooms.toPath());
+            Files.deleteIfExists(locations.toPath());
+            Files.deleteIfExists(directory.toPath());
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the items of a room are found by tile as they are added, removed and replaced, and
+ * that the room draws its walls and doors from a layer that follows door and size changes.
+ */
+public class RoomTest {
+
+    private static final int WIDTH = 8;
+    private static final int HEIGHT = 6;
+    private static final int ROOM_ID = 99;
+    private static final int POTION_ID = 1;
+    private static final int UNKNOWN_ITEM_ID = 1000;
+    private static final int DOOR_SPOT = 2;
+    private Room room;
+    private char[] glyphs;
+
+    /**
+     * Makes an empty room in a game of the repository dungeon, whose item definitions it uses.
+     */
+    @Before
+    public void setUp() {
+        Rogue game = new Rogue(new RogueParser("fileLocations.json"));
+        room = new Room(WIDTH, HEIGHT, ROOM_ID, game);
+        glyphs = game.getRogueParser().getGlyphs();
+    }
+
+    private Item add(int x, int y) {
+        Item item = new Potion(POTION_ID, "Potion", "", "Potion", Position.pack(x, y));
+        try {
+            room.addItem(item);
+        } catch (ImpossiblePositionException | NoSuchItemException e) {
+            throw new AssertionError("Could not place an item at " + x + ", " + y, e);
+        }
+        return item;
+    }
+
+    private char drawn(int x, int y) {
+        return room.renderTiles(null)[y * room.getWidth() + x];
+    }
+
+    private char glyph(TileKind kind) {
+        return glyphs[kind.ordinal()];
+    }
+
+    private void assertRefused(Item item, Class<? extends Exception> expected) {
+        try {
+            room.addItem(item);
+            fail("Placed an item at " + Position.x(item.getXyLocation()) + ", " + Position.y(item.getXyLocation()));
+        } catch (ImpossiblePositionException | NoSuchItemException e) {
+            assertSame(expected, e.getClass());
+        }
+    }
+
+    /**
+     * Items are found on their own tiles and nowhere else.
+     */
+    @Test
+    public void itemsAreFoundByTile() {
+        Item first = add(1, 1);
+        Item second = add(3, 2);
+        assertSame(first, room.getItem(Position.pack(1, 1)));
+        assertSame(second, room.getItem(Position.pack(3, 2)));
+        assertTrue(room.isOnItem(Position.pack(3, 2)));
+        assertFalse(room.isOnItem(Position.pack(2, 2)));
+        assertNull(room.getItem(Position.pack(2, 1)));
+        assertNull(room.getItem(Position.pack(WIDTH + 1, 1)));
+    }
+
+    /**
+     * Walls, taken tiles, tiles outside the room and unknown items are refused.
+     */
+    @Test
+    public void badPlacementsAreRefused() {
+        add(2, 2);
+        assertRefused(new Potion(POTION_ID, "Potion", "", "Potion", Position.pack(2, 2)),
+                ImpossiblePositionException.class);
+        assertRefused(new Potion(POTION_ID, "Potion", "", "Potion", Position.pack(0, 2)),
+                ImpossiblePositionException.class);
+        assertRefused(new Potion(POTION_ID, "Potion", "", "Potion", Position.pack(WIDTH, 2)),
+                ImpossiblePositionException.class);
+        assertRefused(new Potion(UNKNOWN_ITEM_ID, "Potion", "", "Potion", Position.pack(3, 3)),
+                NoSuchItemException.class);
+        assertEquals(1, room.getRoomItems().size());
+    }
+
+    /**
+     * Removing an item frees its tile for another, and every other item is still found.
+     */
+    @Test
+    public void removalKeepsTheOthersFindable() {
+        Item first = add(1, 1);
+        Item middle = add(2, 1);
+        Item last = add(3, 1);
+        assertTrue(room.removeItem(middle));
+        assertFalse(room.removeItem(middle));
+        assertFalse(room.isOnItem(Position.pack(2, 1)));
+        assertSame(first, room.getItem(Position.pack(1, 1)));
+        assertSame(last, room.getItem(Position.pack(3, 1)));
+        assertEquals(2, room.getRoomItems().size());
+        Item added = add(2, 1);
+        assertSame(added, room.getItem(Position.pack(2, 1)));
+        assertSame(last, room.getItem(Position.pack(3, 1)));
+    }
+
+    /**
+     * The first empty tile skips walls and items, row by row.
+     */
+    @Test
+    public void emptyTileSkipsItems() {
+        assertEquals(Position.pack(1, 1), room.findEmptyTile());
+        for (int x = 1; x < WIDTH - 1; x++) {
+            add(x, 1);
+        }
+        add(1, 2);
+        assertEquals(Position.pack(2, 2), room.findEmptyTile());
+    }
+
+    /**
+     * Replacing the item list or resizing the room reindexes the tiles.
+     */
+    @Test
+    public void replacedItemsAreReindexed() {
+        add(1, 1);
+        Item moved = new Potion(POTION_ID, "Potion", "", "Potion", Position.pack(4, 3));
+        ArrayList<Item> items = new ArrayList<>();
+        items.add(moved);
+        room.setRoomItems(items);
+        assertFalse(room.isOnItem(Position.pack(1, 1)));
+        assertSame(moved, room.getItem(Position.pack(4, 3)));
+        room.setWidth(WIDTH + 2);
+        assertSame(moved, room.getItem(Position.pack(4, 3)));
+        assertFalse(room.isOnItem(Position.pack(1, 1)));
+    }
+
+    /**
+     * Adding a door or widening the room redraws the walls it changes.
+     */
+    @Test
+    public void layerFollowsDoorsAndSize() {
+        assertEquals(glyph(TileKind.EW_WALL), drawn(WIDTH - 1, DOOR_SPOT));
+        room.setDoor("E", DOOR_SPOT);
+        assertEquals(glyph(TileKind.DOOR), drawn(WIDTH - 1, DOOR_SPOT));
+        assertEquals(glyph(TileKind.EW_WALL), drawn(WIDTH - 1, DOOR_SPOT + 1));
+        room.setWidth(WIDTH + 2);
+        assertEquals(glyph(TileKind.FLOOR), drawn(WIDTH - 1, DOOR_SPOT));
+        assertEquals(glyph(TileKind.DOOR), drawn(WIDTH + 1, DOOR_SPOT));
+        room.setHeight(HEIGHT + 1);
+        assertEquals(glyph(TileKind.NS_WALL), drawn(1, HEIGHT));
+        assertEquals(glyph(TileKind.FLOOR), drawn(1, HEIGHT - 1));
+    }
+
+    /**
+     * The player and items are drawn over the cached layer, which shows through again once they
+     * move away.
+     */
+    @Test
+    public void dynamicTilesAreOverlaid() {
+        Item item = add(2, 2);
+        room.setPlayer(new Player("Tester", Position.pack(3, 3)));
+        assertEquals(glyph(TileKind.POTION), drawn(2, 2));
+        assertEquals(glyph(TileKind.PLAYER), drawn(3, 3));
+        room.removeItem(item);
+        room.getPlayer().setXyLocation(Position.pack(4, 3));
+        assertEquals(glyph(TileKind.FLOOR), drawn(2, 2));
+        assertEquals(glyph(TileKind.FLOOR), drawn(3, 3));
+        assertEquals(glyph(TileKind.PLAYER), drawn(4, 3));
+    }
+}
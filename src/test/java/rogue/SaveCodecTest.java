@@ -0,0 +1,178 @@
+package rogue;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that saves read back as the same game, monsters included, and that damaged saves are
+ * refused.
+ */
+public class SaveCodecTest {
+
+    private static final String DUNGEON = "fileLocations.json";
+    private static final String PLAYER_NAME = "Tester";
+    private static final int MONSTER_HP = 3;
+    private static final char[] MOVES = {Rogue.DOWN, Rogue.RIGHT, Rogue.RIGHT, Rogue.DOWN, Rogue.LEFT, Rogue.UP};
+    private Rogue game;
+
+    /**
+     * Builds the repository dungeon and moves the player a little.
+     */
+    @Before
+    public void setUp() {
+        game = new Rogue(new RogueParser(DUNGEON));
+        game.setPlayer(new Player(PLAYER_NAME));
+        for (char move : MOVES) {
+            game.applyMove(move);
+        }
+    }
+
+    private static byte[] bytes(Rogue theGame) {
+        ByteBuffer encoded = SaveCodec.encode(theGame);
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        return bytes;
+    }
+
+    private static void assertRefused(byte[] save, int length) {
+        try {
+            SaveCodec.decode(ByteBuffer.wrap(save, 0, length));
+            fail("A damaged save of " + length + " bytes was loaded");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().length() > 0);
+        }
+    }
+
+    /**
+     * A decoded save encodes to the same bytes, and plays on exactly like the original.
+     *
+     * @throws IOException if the save does not read back
+     */
+    @Test
+    public void roundTripKeepsTheGame() throws IOException {
+        byte[] saved = bytes(game);
+        Rogue loaded = SaveCodec.decode(ByteBuffer.wrap(saved));
+        assertArrayEquals(saved, bytes(loaded));
+        assertEquals(PLAYER_NAME, loaded.getPlayer().getName());
+        for (char move : MOVES) {
+            assertEquals(game.applyMove(move), loaded.applyMove(move));
+        }
+        assertEquals(game.displayAll(), loaded.displayAll());
+    }
+
+    /**
+     * Monsters of every behavior keep their places, hit points and turns through a save, and go
+     * on moving the same way afterwards.
+     *
+     * @throws IOException if the save does not read back
+     */
+    @Test
+    public void roundTripKeepsMonsters() throws IOException {
+        Room room = game.getCurrentRoom();
+        int placed = 0;
+        for (int y = 1; y < room.getHeight() - 1 && placed < Behavior.values().length; y++) {
+            for (int x = 1; x < room.getWidth() - 1 && placed < Behavior.values().length; x++) {
+                Behavior kind = Behavior.values()[placed];
+                if (game.getMonsters().add(room, Position.pack(x, y), MONSTER_HP, kind) != Monsters.NONE) {
+                    placed++;
+                }
+            }
+        }
+        assertEquals(Behavior.values().length, placed);
+        game.applyMove(Rogue.RIGHT);
+        Rogue loaded = SaveCodec.decode(SaveCodec.encode(game));
+        Monsters saved = game.getMonsters();
+        Monsters read = loaded.getMonsters();
+        assertEquals(saved.size(), read.size());
+        assertEquals(saved.getTick(), read.getTick());
+        for (int i = 0; i < saved.size(); i++) {
+            assertEquals(saved.getPosition(i), read.getPosition(i));
+            assertEquals(saved.getHp(i), read.getHp(i));
+            assertEquals(saved.getBehavior(i), read.getBehavior(i));
+            assertEquals(saved.getReadyAt(i), read.getReadyAt(i));
+        }
+        for (char move : MOVES) {
+            assertEquals(game.applyMove(move), loaded.applyMove(move));
+        }
+        assertArrayEquals(bytes(game), bytes(loaded));
+    }
+
+    /**
+     * Saving to a file and loading it back gives the same game.
+     *
+     * @throws IOException if the file cannot be written or read
+     */
+    @Test
+    public void fileRoundTrip() throws IOException {
+        File file = File.createTempFile("save-test", ".sav");
+        try {
+            SaveCodec.save(game, file.getPath());
+            assertArrayEquals(bytes(game), bytes(SaveCodec.load(file.getPath())));
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    /**
+     * A save with a changed byte fails its checksum.
+     */
+    @Test
+    public void damagedSaveIsRefused() {
+        byte[] saved = bytes(game);
+        saved[saved.length / 2] ^= 1;
+        assertRefused(saved, saved.length);
+    }
+
+    /**
+     * A save cut short is refused rather than read past its end.
+     */
+    @Test
+    public void truncatedSaveIsRefused() {
+        byte[] saved = bytes(game);
+        for (int length : new int[] {0, Integer.BYTES, saved.length / 2, saved.length - 1}) {
+            assertRefused(saved, length);
+        }
+    }
+
+    /**
+     * A string length larger than the save is refused even when the checksum matches.
+     */
+    @Test
+    public void impossibleStringLengthIsRefused() {
+        byte[] saved = bytes(game);
+        byte[] name = PLAYER_NAME.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(saved);
+        int at = indexOf(saved, name) - Integer.BYTES;
+        assertEquals(name.length, buffer.getInt(at));
+        buffer.putInt(at, Integer.MAX_VALUE);
+        CRC32 crc = new CRC32();
+        crc.update(saved, 0, saved.length - Integer.BYTES);
+        buffer.putInt(saved.length - Integer.BYTES, (int) crc.getValue());
+        assertRefused(saved, saved.length);
+    }
+
+    private static int indexOf(byte[] bytes, byte[] part) {
+        for (int i = bytes.length - part.length; i >= 0; i--) {
+            int matched = 0;
+            while (matched < part.length && bytes[i + matched] == part[matched]) {
+                matched++;
+            }
+            if (matched == part.length) {
+                return i;
+            }
+        }
+        throw new AssertionError("Not found in the save");
+    }
+}
@@ -0,0 +1,131 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that a recorded session replays to the same checksums, and that replays which do not
+ * match are caught.
+ */
+public class SessionRecorderTest {
+
+    private static final int COMMANDS = 200;
+    private static final char[] MOVES = {Rogue.RIGHT, Rogue.RIGHT, Rogue.DOWN, Rogue.DOWN, Rogue.LEFT, Rogue.UP};
+    private static final int CUT_BYTES = 20;
+    private Rogue game;
+    private File file;
+
+    /**
+     * Builds the repository dungeon and a file to record to.
+     *
+     * @throws IOException if the file cannot be made
+     */
+    @Before
+    public void setUp() throws IOException {
+        game = new Rogue(new RogueParser("fileLocations.json"));
+        game.setPlayer(new Player("Tester"));
+        file = File.createTempFile("session", SessionRecorder.EXTENSION);
+    }
+
+    /**
+     * Deletes the recording.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    /**
+     * Records a session, applying each command to the game first unless told not to.
+     */
+    private void record(boolean apply) throws IOException {
+        Simulator simulator = new Simulator(game);
+        try (SessionRecorder recorder = new SessionRecorder(file.getPath(), game)) {
+            for (int i = 0; i < COMMANDS; i++) {
+                int command = Simulator.encode(MOVES[i % MOVES.length]);
+                if (apply) {
+                    simulator.apply(command);
+                }
+                recorder.record(command);
+            }
+            assertEquals(COMMANDS, recorder.getCommandCount());
+        }
+    }
+
+    /**
+     * A replay runs every command and matches every checksum, the last one written on close.
+     *
+     * @throws IOException if the recording cannot be written or read
+     */
+    @Test
+    public void replayMatchesTheRecording() throws IOException {
+        record(true);
+        SessionReplayer.Result result = SessionReplayer.replay(file.getPath(), true);
+        assertEquals(COMMANDS, result.getCommands());
+        assertEquals((COMMANDS + SessionRecorder.CHECKPOINT_INTERVAL - 1) / SessionRecorder.CHECKPOINT_INTERVAL,
+                result.getCheckpoints());
+        assertTrue(result.toString(), result.matches());
+        assertTrue(result.getChangedFiles().isEmpty());
+        SessionReplayer.Result fast = SessionReplayer.replay(file.getPath(), false);
+        assertEquals(COMMANDS, fast.getCommands());
+        assertEquals(0, fast.getCheckpoints());
+    }
+
+    /**
+     * A replay that ends in another state than the recorded game is reported at the first
+     * checkpoint that differs.
+     *
+     * @throws IOException if the recording cannot be written or read
+     */
+    @Test
+    public void divergenceIsCaught() throws IOException {
+        record(false);
+        SessionReplayer.Result result = SessionReplayer.replay(file.getPath(), true);
+        assertFalse(result.matches());
+        assertEquals(SessionRecorder.CHECKPOINT_INTERVAL, result.getFirstMismatch());
+    }
+
+    /**
+     * A recording cut short replays up to its last whole command.
+     *
+     * @throws IOException if the recording cannot be written or read
+     */
+    @Test
+    public void cutRecordingsReplayWhatIsThere() throws IOException {
+        record(true);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - CUT_BYTES));
+        SessionReplayer.Result result = SessionReplayer.replay(file.getPath(), true);
+        assertTrue(result.getCommands() > 0 && result.getCommands() < COMMANDS);
+        assertTrue(result.toString(), result.matches());
+    }
+
+    /**
+     * A file that is not a recording is refused.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Test
+    public void otherFilesAreRefused() throws IOException {
+        Files.write(file.toPath(), new byte[Long.BYTES]);
+        try {
+            SessionReplayer.replay(file.getPath(), true);
+            fail("Replayed a file that is not a recording");
+        } catch (IOException e) {
+            assertEquals("Not a session recording: " + file.getPath(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package rogue;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks how the simulator reads, packs and applies commands.
+ */
+public class SimulatorTest {
+
+    private static final String DUNGEON = "fileLocations.json";
+    private Simulator simulator;
+
+    /**
+     * Builds a simulator over the repository dungeon.
+     */
+    @Before
+    public void setUp() {
+        simulator = new Simulator(new RogueParser(DUNGEON));
+        simulator.getGame().setPlayer(new Player("Tester"));
+    }
+
+    /**
+     * Command files are read one command per line, skipping blank lines and comments.
+     *
+     * @throws IOException if the command file cannot be written or read
+     */
+    @Test
+    public void commandFilesArePacked() throws IOException {
+        File file = File.createTempFile("commands", ".txt");
+        try {
+            String commands = "u\nD\n# a comment\n\n  l  \nr\ne 2\nt3\nx\n";
+            Files.write(file.toPath(), commands.getBytes(StandardCharsets.UTF_8));
+            int[] expected = {Simulator.encode(Rogue.UP), Simulator.encode(Rogue.DOWN), Simulator.encode(Rogue.LEFT),
+                Simulator.encode(Rogue.RIGHT), Simulator.encode(Simulator.EAT, 2), Simulator.encode(Simulator.TOSS, 3),
+                Simulator.encode('x')};
+            assertArrayEquals(expected, Simulator.readCommands(file.getPath()));
+        } finally {
+            Files.delete(file.toPath());
+        }
+    }
+
+    /**
+     * A batch run gives the same outcomes as applying each move to a game directly, and every
+     * outcome is counted.
+     */
+    @Test
+    public void batchRunMatchesSingleMoves() {
+        char[] moves = {Rogue.RIGHT, Rogue.RIGHT, Rogue.DOWN, Rogue.DOWN, Rogue.UP, Rogue.UP, Rogue.UP, Rogue.LEFT};
+        int[] commands = new int[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            commands[i] = Simulator.encode(moves[i]);
+        }
+        Rogue game = new Rogue(new RogueParser(DUNGEON));
+        game.setPlayer(new Player("Tester"));
+        byte[] outcomes = simulator.run(commands);
+        long counted = 0;
+        for (int i = 0; i < moves.length; i++) {
+            assertEquals(game.applyMove(moves[i]).ordinal(), outcomes[i]);
+        }
+        for (CommandOutcome outcome : CommandOutcome.values()) {
+            counted += simulator.getCount(outcome);
+        }
+        assertEquals(moves.length, counted);
+        assertEquals(game.displayAll(), simulator.getGame().displayAll());
+    }
+
+    /**
+     * Item commands use the numbered item when it can be used that way, and are refused
+     * otherwise.
+     */
+    @Test
+    public void itemCommandsCheckTheItem() {
+        assertEquals(CommandOutcome.NO_ITEM, simulator.apply(Simulator.encode(Simulator.EAT, 1)));
+        simulator.run(new int[] {Simulator.encode(Rogue.RIGHT), Simulator.encode(Rogue.RIGHT),
+            Simulator.encode(Rogue.DOWN), Simulator.encode(Rogue.DOWN)});
+        assertEquals(1, simulator.getGame().getPlayer().getInventory().size());
+        assertEquals(CommandOutcome.ITEM_REFUSED, simulator.apply(Simulator.encode(Simulator.WEAR, 1)));
+        assertEquals(CommandOutcome.ITEM_USED, simulator.apply(Simulator.encode(Simulator.EAT, 1)));
+        assertEquals(CommandOutcome.NO_ITEM, simulator.apply(Simulator.encode(Simulator.EAT, 1)));
+        assertEquals(2, simulator.getCount(CommandOutcome.NO_ITEM));
+    }
+}
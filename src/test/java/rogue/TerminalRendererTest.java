@@ -0,0 +1,199 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.virtual.DefaultVirtualTerminal;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the renderer draws rooms and messages onto a virtual terminal, only sends the
+ * cells that changed since the last frame, and waits for keys to read commands.
+ */
+public class TerminalRendererTest {
+
+    private static final int COLUMNS = 80;
+    private static final int ROWS = 30;
+    private static final int ROOM_COLUMN = 5;
+    private static final int ROOM_ROW = 3;
+    private static final int TIMEOUT_MILLIS = 10000;
+    private static final int WAIT_MILLIS = 100;
+    private Rogue game;
+    private CountingScreen screen;
+    private TerminalRenderer renderer;
+
+    /**
+     * A screen that counts the cells set on it.
+     */
+    private static final class CountingScreen extends TerminalScreen {
+
+        private int written;
+        private final DefaultVirtualTerminal terminal;
+
+        CountingScreen() throws IOException {
+            this(new DefaultVirtualTerminal(new TerminalSize(COLUMNS, ROWS)));
+        }
+
+        private CountingScreen(DefaultVirtualTerminal terminal) throws IOException {
+            super(terminal);
+            this.terminal = terminal;
+        }
+
+        @Override
+        public void setCharacter(int column, int row, TextCharacter character) {
+            written++;
+            super.setCharacter(column, row, character);
+        }
+
+        char at(int column, int row) {
+            return getBackCharacter(new TerminalPosition(column, row)).getCharacter();
+        }
+    }
+
+    /**
+     * Builds the repository dungeon and a renderer over a virtual terminal.
+     *
+     * @throws IOException if the screen cannot be made
+     */
+    @Before
+    public void setUp() throws IOException {
+        game = new Rogue(new RogueParser("fileLocations.json"));
+        game.setPlayer(new Player("Tester"));
+        screen = new CountingScreen();
+        renderer = new TerminalRenderer(screen, 0, 0, ROOM_COLUMN, ROOM_ROW);
+    }
+
+    private void assertShows(String message, Room room) {
+        for (int i = 0; i < message.length(); i++) {
+            assertEquals(message.charAt(i), screen.at(i, 0));
+        }
+        char[] tiles = room.renderTiles(new char[0]);
+        for (int y = 0; y < room.getHeight(); y++) {
+            for (int x = 0; x < room.getWidth(); x++) {
+                assertEquals(tiles[y * room.getWidth() + x], screen.at(ROOM_COLUMN + x, ROOM_ROW + y));
+            }
+        }
+    }
+
+    /**
+     * The first frame draws the whole room and the message.
+     *
+     * @throws IOException if the screen cannot be refreshed
+     */
+    @Test
+    public void firstFrameDrawsEverything() throws IOException {
+        renderer.draw("Welcome", game.getCurrentRoom());
+        assertShows("Welcome", game.getCurrentRoom());
+    }
+
+    /**
+     * Drawing the same frame again sends nothing, and a move only sends the tiles the player
+     * left and entered.
+     *
+     * @throws IOException if the screen cannot be refreshed
+     */
+    @Test
+    public void onlyChangedCellsAreSent() throws IOException {
+        renderer.draw("Moved", game.getCurrentRoom());
+        screen.written = 0;
+        renderer.draw("Moved", game.getCurrentRoom());
+        assertEquals(0, screen.written);
+        game.applyMove(Rogue.DOWN);
+        renderer.draw("Moved", game.getCurrentRoom());
+        assertEquals(2, screen.written);
+        assertShows("Moved", game.getCurrentRoom());
+    }
+
+    /**
+     * A shorter message blanks the end of the longer one before it.
+     *
+     * @throws IOException if the screen cannot be refreshed
+     */
+    @Test
+    public void shorterMessageBlanksTheRest() throws IOException {
+        renderer.draw("Blocked!", game.getCurrentRoom());
+        screen.written = 0;
+        renderer.draw("Block", game.getCurrentRoom());
+        assertEquals("Blocked!".length() - "Block".length(), screen.written);
+        for (int i = "Block".length(); i < "Blocked!".length(); i++) {
+            assertEquals(' ', screen.at(i, 0));
+        }
+    }
+
+    /**
+     * A smaller room blanks the cells the larger room before it covered.
+     *
+     * @throws IOException if the screen cannot be refreshed
+     */
+    @Test
+    public void smallerRoomBlanksTheRest() throws IOException {
+        Room large = new Room(12, 9, 100, game);
+        Room small = new Room(4, 3, 101, game);
+        renderer.draw("", large);
+        renderer.draw("", small);
+        assertShows("", small);
+        for (int y = 0; y < large.getHeight(); y++) {
+            for (int x = 0; x < large.getWidth(); x++) {
+                if (x >= small.getWidth() || y >= small.getHeight()) {
+                    assertEquals(' ', screen.at(ROOM_COLUMN + x, ROOM_ROW + y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Arrow keys become moves, other keys their character, and the end of input quits.
+     *
+     * @throws IOException if the terminal cannot be read
+     */
+    @Test
+    public void keysBecomeCommands() throws IOException {
+        screen.terminal.addInput(new KeyStroke(KeyType.ArrowDown));
+        screen.terminal.addInput(new KeyStroke(KeyType.ArrowUp));
+        screen.terminal.addInput(new KeyStroke(KeyType.ArrowLeft));
+        screen.terminal.addInput(new KeyStroke(KeyType.ArrowRight));
+        screen.terminal.addInput(new KeyStroke('e', false, false));
+        screen.terminal.addInput(new KeyStroke(KeyType.EOF));
+        assertEquals(Rogue.DOWN, renderer.readCommand());
+        assertEquals(Rogue.UP, renderer.readCommand());
+        assertEquals(Rogue.LEFT, renderer.readCommand());
+        assertEquals(Rogue.RIGHT, renderer.readCommand());
+        assertEquals('e', renderer.readCommand());
+        assertEquals('q', renderer.readCommand());
+    }
+
+    /**
+     * Reading a command waits for a key instead of returning without one.
+     *
+     * @throws InterruptedException if interrupted while waiting for the reader
+     */
+    @Test
+    public void readingWaitsForAKey() throws InterruptedException {
+        AtomicInteger command = new AtomicInteger(-1);
+        Thread reader = new Thread(() -> {
+            try {
+                command.set(renderer.readCommand());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        reader.start();
+        reader.join(WAIT_MILLIS);
+        assertTrue(reader.isAlive());
+        assertEquals(-1, command.get());
+        screen.terminal.addInput(new KeyStroke('r', false, false));
+        reader.join(TIMEOUT_MILLIS);
+        assertEquals('r', command.get());
+    }
+}
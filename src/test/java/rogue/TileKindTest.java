@@ -0,0 +1,66 @@
+package rogue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Checks that symbols are resolved into the glyph table once, and that items and tiles are drawn
+ * from it.
+ */
+public class TileKindTest {
+
+    private static final int POTION_ID = 1;
+
+    /**
+     * Every kind named in the symbols file gets its symbol, and the rest are drawn as a space.
+     */
+    @Test
+    public void glyphsMatchTheSymbols() {
+        RogueParser parser = new RogueParser("fileLocations.json");
+        for (TileKind kind : TileKind.values()) {
+            Character symbol = parser.getSymbol(kind.name());
+            char expected = symbol == null ? ' ' : symbol;
+            assertEquals(expected, parser.getGlyph(kind));
+            assertEquals(expected, parser.getGlyphs()[kind.ordinal()]);
+        }
+        assertEquals(' ', parser.getGlyph(TileKind.UNKNOWN));
+    }
+
+    /**
+     * Item types resolve to a kind in any case, unknown types to UNKNOWN, and a new type to a new
+     * kind.
+     */
+    @Test
+    public void itemTypesResolveOnce() {
+        assertSame(TileKind.SMALLFOOD, TileKind.forItemType("SmallFood"));
+        assertSame(TileKind.UNKNOWN, TileKind.forItemType("Wand"));
+        assertSame(TileKind.UNKNOWN, TileKind.forItemType(null));
+        assertNull(TileKind.forSymbolName("Potion"));
+        Item item = new Potion(POTION_ID, "Potion", "", "potion", Position.pack(1, 1));
+        assertSame(TileKind.POTION, item.getKind());
+        item.setItemType("Ring");
+        assertSame(TileKind.RING, item.getKind());
+    }
+
+    /**
+     * A room is drawn from the glyph table: walls, floor, the player and the items on it.
+     */
+    @Test
+    public void roomsAreDrawnFromTheGlyphs() {
+        RogueParser parser = new RogueParser("fileLocations.json");
+        Rogue game = new Rogue(parser);
+        Room room = game.getCurrentRoom();
+        int width = room.getWidth();
+        char[] tiles = room.renderTiles(new char[0]);
+        assertEquals(parser.getGlyph(TileKind.PLAYER), tiles[width + 1]);
+        assertEquals(parser.getGlyph(TileKind.FLOOR), tiles[width + 2]);
+        assertEquals(parser.getGlyph(TileKind.EW_WALL), tiles[width]);
+        for (Item item : room.getRoomItems()) {
+            int at = Position.y(item.getXyLocation()) * width + Position.x(item.getXyLocation());
+            assertEquals(parser.getGlyph(item.getKind()), tiles[at]);
+        }
+    }
+}